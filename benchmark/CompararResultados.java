@@ -0,0 +1,89 @@
+package com.prestabanco.app.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara dos resultados JSON de JMH (línea base y actual) y marca como regresión
+ * todo benchmark que empeore más que el umbral: menos operaciones por unidad de
+ * tiempo, más tiempo por operación o más bytes asignados por operación.
+ *
+ * Argumentos: base.json actual.json [umbral en %, por defecto 10].
+ * Termina con código 1 si hay regresiones, para poder usarlo en un pipeline.
+ */
+public class CompararResultados {
+
+    private static final String ASIGNACION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CompararResultados base.json actual.json [umbral%]");
+            System.exit(2);
+        }
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, Medicion> base = leer(new File(args[0]));
+        Map<String, Medicion> actual = leer(new File(args[1]));
+
+        int regresiones = 0;
+        System.out.printf("%-60s %14s %14s %9s%n", "benchmark", "base", "actual", "cambio");
+        for (Map.Entry<String, Medicion> entrada : actual.entrySet()) {
+            Medicion anterior = base.get(entrada.getKey());
+            if (anterior == null) {
+                System.out.printf("%-60s %14s %14.3f %9s%n", entrada.getKey(), "-", entrada.getValue().valor, "nuevo");
+                continue;
+            }
+            Medicion nueva = entrada.getValue();
+            double cambio = anterior.valor == 0 ? 0 : (nueva.valor - anterior.valor) / anterior.valor * 100;
+            // En throughput empeorar es bajar; en tiempo y asignación, subir
+            double empeora = nueva.mayorEsMejor ? -cambio : cambio;
+            boolean regresion = empeora > umbral;
+            if (regresion) regresiones++;
+            System.out.printf("%-60s %14.3f %14.3f %+8.1f%%%s%n", entrada.getKey(), anterior.valor, nueva.valor,
+                    cambio, regresion ? "  REGRESIÓN" : "");
+        }
+        if (regresiones > 0) {
+            System.out.println(regresiones + " regresión(es) sobre el umbral de " + umbral + "%");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Medicion> leer(File archivo) throws IOException {
+        Map<String, Medicion> mediciones = new LinkedHashMap<>();
+        for (JsonNode resultado : new ObjectMapper().readTree(archivo)) {
+            String benchmark = resultado.get("benchmark").asText();
+            benchmark = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            String modo = resultado.get("mode").asText();
+            JsonNode principal = resultado.get("primaryMetric");
+            mediciones.put(benchmark + " [" + modo + ", " + principal.get("scoreUnit").asText() + "]",
+                    new Medicion(principal.get("score").asDouble(), "thrpt".equals(modo)));
+
+            JsonNode secundarias = resultado.get("secondaryMetrics");
+            if (secundarias != null && "avgt".equals(modo)) {
+                for (Iterator<String> nombres = secundarias.fieldNames(); nombres.hasNext(); ) {
+                    String nombre = nombres.next();
+                    if (nombre.endsWith(ASIGNACION)) {
+                        mediciones.put(benchmark + " [B/op]",
+                                new Medicion(secundarias.get(nombre).get("score").asDouble(), false));
+                    }
+                }
+            }
+        }
+        return mediciones;
+    }
+
+    private static final class Medicion {
+        private final double valor;
+        private final boolean mayorEsMejor;
+
+        private Medicion(double valor, boolean mayorEsMejor) {
+            this.valor = valor;
+            this.mayorEsMejor = mayorEsMejor;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.prestabanco.app.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ejecuta todos los benchmarks con el perfilador de GC (bytes asignados por operación)
+ * y guarda el resultado en JSON.
+ *
+ * Argumentos: [archivo de salida] [filtro de benchmarks]. Por defecto escribe
+ * benchmark/resultados/actual.json para compararlo con la línea base usando
+ * {@link CompararResultados}.
+ */
+public class EjecutarBenchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        String salida = args.length > 0 ? args[0] : "benchmark/resultados/actual.json";
+        String filtro = args.length > 1 ? args[1] : EjecutarBenchmarks.class.getPackageName() + ".*Benchmark";
+
+        Options opciones = new OptionsBuilder()
+                .include(filtro)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(salida)
+                .build();
+        new Runner(opciones).run();
+    }
+}
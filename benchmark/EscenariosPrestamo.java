@@ -0,0 +1,118 @@
+package com.prestabanco.app.benchmark;
+
+import com.prestabanco.app.config.PoliticaPrestamoProperties;
+import com.prestabanco.app.config.PoliticaPrestamoProperties.CondicionesTipo;
+import com.prestabanco.app.dto.SimulacionRequest;
+import com.prestabanco.app.entity.EstadoSolicitud;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.entity.TipoPrestamo;
+import com.prestabanco.app.entity.Usuario;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Datos de entrada de los benchmarks, generados con semilla fija para que dos
+ * corridas midan exactamente lo mismo.
+ *
+ * La mezcla imita la cartera: mitad primera vivienda y el resto repartido entre los
+ * otros tres tipos; plazos y tasas alrededor de los límites de cada tipo (algunos
+ * fuera, para ejercitar los rechazos) y solicitantes con ingresos, deudas y edades
+ * variados, de modo que cada regla R1..R7 corte alguna solicitud.
+ */
+final class EscenariosPrestamo {
+
+    // Potencia de dos para recorrer con una máscara en vez de un módulo
+    static final int CANTIDAD = 4096;
+
+    private static final long SEMILLA = 20240917L;
+
+    private EscenariosPrestamo() {
+    }
+
+    static Solicitud[] solicitudes() {
+        PoliticaPrestamoProperties politica = new PoliticaPrestamoProperties();
+        SplittableRandom random = new SplittableRandom(SEMILLA);
+        Solicitud[] solicitudes = new Solicitud[CANTIDAD];
+        for (int i = 0; i < CANTIDAD; i++) {
+            TipoPrestamo tipo = tipo(random);
+            CondicionesTipo condiciones = politica.getTipos().get(tipo);
+
+            Solicitud solicitud = new Solicitud();
+            solicitud.setIdSolicitud((long) i + 1);
+            solicitud.setTipoPrestamo(tipo.getNombre());
+            solicitud.setPlazoSolicitado(plazo(random, condiciones));
+            solicitud.setTasaInteres(tasa(random, condiciones));
+
+            BigDecimal valorPropiedad = millones(random, 40, 400);
+            // Financiamiento entre 40% y 95% del valor: los de arriba superan el tope del tipo
+            BigDecimal porcentaje = BigDecimal.valueOf(40 + random.nextInt(56)).movePointLeft(2);
+            solicitud.setValorPropiedad(valorPropiedad);
+            solicitud.setMontoSolicitado(valorPropiedad.multiply(porcentaje).setScale(0, RoundingMode.HALF_UP));
+            solicitud.setEstadoSolicitud(EstadoSolicitud.E1_REVISION_INICIAL);
+            solicitud.setUsuario(usuario(random, i));
+            solicitudes[i] = solicitud;
+        }
+        return solicitudes;
+    }
+
+    static SimulacionRequest[] simulaciones() {
+        Solicitud[] solicitudes = solicitudes();
+        SimulacionRequest[] simulaciones = new SimulacionRequest[CANTIDAD];
+        for (int i = 0; i < CANTIDAD; i++) {
+            SimulacionRequest request = new SimulacionRequest();
+            request.setMontoDeseado(solicitudes[i].getMontoSolicitado());
+            request.setPlazo(solicitudes[i].getPlazoSolicitado());
+            request.setTasaInteres(solicitudes[i].getTasaInteres());
+            request.setTipoPrestamo(solicitudes[i].getTipoPrestamo());
+            if (i % 3 == 0) {
+                request.setSeguros(BigDecimal.valueOf(20_000));
+                request.setComisiones(BigDecimal.valueOf(150_000));
+            }
+            simulaciones[i] = request;
+        }
+        return simulaciones;
+    }
+
+    private static TipoPrestamo tipo(SplittableRandom random) {
+        int p = random.nextInt(100);
+        if (p < 50) return TipoPrestamo.PRIMERA_VIVIENDA;
+        if (p < 70) return TipoPrestamo.SEGUNDA_VIVIENDA;
+        if (p < 85) return TipoPrestamo.PROPIEDADES_COMERCIALES;
+        return TipoPrestamo.REMODELACION;
+    }
+
+    // Entre 5 años y tres más que el máximo del tipo
+    private static int plazo(SplittableRandom random, CondicionesTipo condiciones) {
+        return 5 + random.nextInt(condiciones.getPlazoMaximo() - 5 + 4);
+    }
+
+    // En pasos de 0,05 puntos, medio punto por debajo y por encima del rango del tipo
+    private static BigDecimal tasa(SplittableRandom random, CondicionesTipo condiciones) {
+        BigDecimal minima = condiciones.getTasaMinima().subtract(new BigDecimal("0.5"));
+        BigDecimal maxima = condiciones.getTasaMaxima().add(new BigDecimal("0.5"));
+        int pasos = maxima.subtract(minima).multiply(BigDecimal.valueOf(20)).intValue();
+        return minima.add(BigDecimal.valueOf(random.nextInt(pasos + 1), 2).multiply(BigDecimal.valueOf(5)))
+                .stripTrailingZeros();
+    }
+
+    private static Usuario usuario(SplittableRandom random, int i) {
+        Usuario usuario = new Usuario();
+        usuario.setIdUsuario((long) i + 1);
+        usuario.setNombreCompleto("Solicitante " + (i + 1));
+        usuario.setFechaNacimiento(LocalDate.now().minusYears(22 + random.nextInt(44)).minusDays(random.nextInt(365)));
+        BigDecimal ingresos = BigDecimal.valueOf(800_000 + random.nextInt(52) * 100_000L);
+        usuario.setIngresosMensuales(ingresos);
+        usuario.setDeudasActuales(ingresos.multiply(BigDecimal.valueOf(random.nextInt(60))).movePointLeft(2));
+        usuario.setHistorialCrediticio(random.nextInt(100) < 85 ? "BUENO" : (random.nextBoolean() ? "REGULAR" : "MALO"));
+        usuario.setAntiguedadLaboral(random.nextInt(20));
+        usuario.setCapacidadAhorro(random.nextInt(100) < 80 ? "ADECUADA" : "INSUFICIENTE");
+        return usuario;
+    }
+
+    private static BigDecimal millones(SplittableRandom random, int minimo, int maximo) {
+        return BigDecimal.valueOf(minimo + random.nextInt(maximo - minimo + 1)).movePointRight(6);
+    }
+}
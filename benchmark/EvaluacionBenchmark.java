@@ -0,0 +1,94 @@
+package com.prestabanco.app.benchmark;
+
+import com.prestabanco.app.config.PoliticaPrestamoProperties;
+import com.prestabanco.app.entity.EstadoSolicitud;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.exception.BusinessException;
+import com.prestabanco.app.repository.SolicitudRepository;
+import com.prestabanco.app.service.CalculadoraAmortizacion;
+import com.prestabanco.app.service.MetricasPrestamo;
+import com.prestabanco.app.service.PoliticaPrestamoService;
+import com.prestabanco.app.service.SolicitudService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluación de solicitudes: validación por tipo de préstamo y evaluación completa
+ * (tipo + R1..R7). El repositorio se reemplaza por uno que solo devuelve la entidad,
+ * así se mide la lógica de negocio sin la base de datos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluacionBenchmark {
+
+    private PoliticaPrestamoService politicaPrestamoService;
+    private SolicitudService solicitudService;
+    private Solicitud[] solicitudes;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        MetricasPrestamo metricas = new MetricasPrestamo(new SimpleMeterRegistry());
+        politicaPrestamoService = new PoliticaPrestamoService(new PoliticaPrestamoProperties(), metricas);
+        solicitudService = new SolicitudService();
+        inyectar(solicitudService, "metricasPrestamo", metricas);
+        inyectar(solicitudService, "politicaPrestamoService", politicaPrestamoService);
+        inyectar(solicitudService, "calculadoraAmortizacion", new CalculadoraAmortizacion());
+        inyectar(solicitudService, "solicitudRepository", repositorioEnMemoria());
+        solicitudes = EscenariosPrestamo.solicitudes();
+    }
+
+    @Benchmark
+    public boolean validarCondicionesPorTipo() {
+        try {
+            politicaPrestamoService.validarCondicionesPorTipo(proxima());
+            return true;
+        } catch (BusinessException ex) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public String evaluarSolicitud() {
+        try {
+            Solicitud solicitud = proxima();
+            // Las solicitudes se reutilizan: se devuelven a E1 para que la transición a E6/E7 sea válida
+            solicitud.setEstadoSolicitud(EstadoSolicitud.E1_REVISION_INICIAL);
+            return solicitudService.evaluarSolicitud(solicitud);
+        } catch (BusinessException ex) {
+            // Rechazo por condiciones del tipo: en el endpoint también termina en excepción
+            return ex.getMessage();
+        }
+    }
+
+    private Solicitud proxima() {
+        return solicitudes[siguiente++ & (EscenariosPrestamo.CANTIDAD - 1)];
+    }
+
+    private static SolicitudRepository repositorioEnMemoria() {
+        return (SolicitudRepository) Proxy.newProxyInstance(
+                SolicitudRepository.class.getClassLoader(),
+                new Class<?>[]{SolicitudRepository.class},
+                (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().equals("save")) {
+                        return argumentos[0];
+                    }
+                    throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+
+    static void inyectar(Object destino, String campo, Object valor) {
+        Field field = ReflectionUtils.findField(destino.getClass(), campo);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, destino, valor);
+    }
+}
@@ -0,0 +1,57 @@
+package com.prestabanco.app.benchmark;
+
+import com.prestabanco.app.config.PoliticaPrestamoProperties;
+import com.prestabanco.app.config.SimulacionProperties;
+import com.prestabanco.app.dto.SimulacionRequest;
+import com.prestabanco.app.dto.SimulacionResponse;
+import com.prestabanco.app.service.CalculadoraAmortizacion;
+import com.prestabanco.app.service.MetricasPrestamo;
+import com.prestabanco.app.service.PoliticaPrestamoService;
+import com.prestabanco.app.service.SimulacionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo de la cuota mensual y simulación completa (lo que atiende POST
+ * /api/solicitudes/simular; el controlador solo delega en SimulacionService).
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulacionBenchmark {
+
+    private CalculadoraAmortizacion calculadora;
+    private SimulacionService simulacionService;
+    private SimulacionRequest[] simulaciones;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        calculadora = new CalculadoraAmortizacion();
+        PoliticaPrestamoService politica = new PoliticaPrestamoService(new PoliticaPrestamoProperties(),
+                new MetricasPrestamo(new SimpleMeterRegistry()));
+        simulacionService = new SimulacionService(calculadora, politica, new SimulacionProperties());
+        simulaciones = EscenariosPrestamo.simulaciones();
+    }
+
+    @Benchmark
+    public BigDecimal calcularCuotaMensual() {
+        SimulacionRequest request = proxima();
+        return calculadora.calcularCuotaMensual(request.getMontoDeseado(), request.getPlazo() * 12, request.getTasaInteres());
+    }
+
+    @Benchmark
+    public SimulacionResponse simularPrestamo() {
+        return simulacionService.simular(proxima());
+    }
+
+    private SimulacionRequest proxima() {
+        return simulaciones[siguiente++ & (EscenariosPrestamo.CANTIDAD - 1)];
+    }
+}
@@ -0,0 +1,149 @@
+package com.prestabanco.app.benchmark;
+
+import com.prestabanco.app.config.FileStorageProperties;
+import com.prestabanco.app.repository.DocumentoRepository;
+import com.prestabanco.app.service.ArchivoAlmacenado;
+import com.prestabanco.app.service.FileStorageService;
+import com.prestabanco.app.service.MetricasPrestamo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.prestabanco.app.benchmark.EvaluacionBenchmark.inyectar;
+
+/**
+ * Guardado de un documento subido (lo que hace crear-con-usuario con cada comprobante).
+ * La parte simula la de Tomcat con el archivo ya en disco: transferTo(File) la
+ * renombra igual que Part.write. Se compara con copiar el mismo contenido desde un
+ * stream. El repositorio de documentos se reemplaza por uno que acepta todo, así se
+ * mide solo el disco y el SHA-256.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubidaBenchmark {
+
+    @Param({"1", "16"})
+    public int megabytes;
+
+    private Path directorio;
+    private Path contenido;
+    private Path parteContenedor;
+    private FileStorageService fileStorageService;
+
+    @Setup
+    public void preparar() throws IOException {
+        directorio = Files.createTempDirectory("subida-benchmark");
+        contenido = directorio.resolve("contenido.bin");
+        byte[] bytes = new byte[megabytes * 1024 * 1024];
+        new SplittableRandom(megabytes).nextBytes(bytes);
+        Files.write(contenido, bytes);
+        parteContenedor = directorio.resolve("parte-contenedor.tmp");
+
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setUploadDir(directorio.resolve("almacen").toString());
+        // Sin gestor de transacciones: el benchmark no libera documentos
+        fileStorageService = new FileStorageService(properties, null);
+        inyectar(fileStorageService, "documentoRepository", repositorioEnMemoria());
+        inyectar(fileStorageService, "metricasPrestamo", new MetricasPrestamo(new SimpleMeterRegistry()));
+    }
+
+    // La parte que dejaría el contenedor en disco; no entra en la medición
+    @Setup(Level.Invocation)
+    public void recibirParte() throws IOException {
+        Files.copy(contenido, parteContenedor, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @TearDown
+    public void limpiar() throws IOException {
+        FileSystemUtils.deleteRecursively(directorio);
+    }
+
+    @Benchmark
+    public ArchivoAlmacenado almacenarParteEnDisco() {
+        return fileStorageService.almacenar(new ParteEnDisco(parteContenedor));
+    }
+
+    @Benchmark
+    public ArchivoAlmacenado almacenarDesdeStream() throws IOException {
+        try (InputStream entrada = Files.newInputStream(parteContenedor)) {
+            return fileStorageService.almacenar(entrada, "comprobante.pdf");
+        }
+    }
+
+    private static DocumentoRepository repositorioEnMemoria() {
+        return (DocumentoRepository) Proxy.newProxyInstance(
+                DocumentoRepository.class.getClassLoader(),
+                new Class<?>[]{DocumentoRepository.class},
+                (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().equals("incrementarReferencias")) {
+                        return 1;
+                    }
+                    throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+
+    /**
+     * Parte multipart con el contenido en un archivo, como la de Tomcat sobre el umbral en memoria.
+     */
+    private record ParteEnDisco(Path archivo) implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return "comprobanteAvaluo";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return "comprobante.pdf";
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/pdf";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getSize() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            try {
+                return Files.size(archivo);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(archivo);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(archivo);
+        }
+
+        @Override
+        public void transferTo(File destino) throws IOException {
+            Files.move(archivo, destino.toPath());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.prestabanco.app.cargatest;
+
+import lombok.Getter;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Parámetros de la prueba de carga, leídos de argumentos clave=valor. Por ejemplo:
+ *
+ *   tasa=300 duracion=60s calentamiento=15s usuarios=2000 solicitudes=20000
+ *   mezcla=simular:40,evaluar:20,listar:25,crear:15 hilos=virtual
+ */
+@Getter
+final class ConfiguracionCarga {
+
+    // Peticiones por segundo que se inician, respondan o no las anteriores (lazo abierto)
+    private double tasa = 200;
+    private Duration duracion = Duration.ofSeconds(60);
+    // Se envía carga pero no se mide, para que el JIT y los pools se estabilicen
+    private Duration calentamiento = Duration.ofSeconds(10);
+    private int usuarios = 1_000;
+    private int solicitudes = 10_000;
+    private Map<Operacion, Integer> mezcla = mezclaPorDefecto();
+    // "plataforma" o "virtual" (spring.threads.virtual.enabled, requiere Java 21)
+    private String hilos = "plataforma";
+    private int conexionesBd = 20;
+    private int documentoKb = 256;
+    // Peticiones en vuelo a partir de las cuales el generador descarta en vez de acumular
+    private int maximoPendientes = 10_000;
+    private long semilla = 42;
+
+    static ConfiguracionCarga desdeArgumentos(String[] args) {
+        ConfiguracionCarga config = new ConfiguracionCarga();
+        for (String argumento : args) {
+            int separador = argumento.indexOf('=');
+            if (separador < 0) {
+                throw new IllegalArgumentException("Se esperaba clave=valor: " + argumento);
+            }
+            String clave = argumento.substring(0, separador).trim();
+            String valor = argumento.substring(separador + 1).trim();
+            switch (clave) {
+                case "tasa" -> config.tasa = Double.parseDouble(valor);
+                case "duracion" -> config.duracion = DurationStyle.detectAndParse(valor);
+                case "calentamiento" -> config.calentamiento = DurationStyle.detectAndParse(valor);
+                case "usuarios" -> config.usuarios = Integer.parseInt(valor);
+                case "solicitudes" -> config.solicitudes = Integer.parseInt(valor);
+                case "mezcla" -> config.mezcla = leerMezcla(valor);
+                case "hilos" -> config.hilos = valor.toLowerCase(Locale.ROOT);
+                case "conexionesBd" -> config.conexionesBd = Integer.parseInt(valor);
+                case "documentoKb" -> config.documentoKb = Integer.parseInt(valor);
+                case "maximoPendientes" -> config.maximoPendientes = Integer.parseInt(valor);
+                case "semilla" -> config.semilla = Long.parseLong(valor);
+                default -> throw new IllegalArgumentException("Parámetro desconocido: " + clave);
+            }
+        }
+        if (config.tasa <= 0 || config.usuarios <= 0 || config.solicitudes <= 0) {
+            throw new IllegalArgumentException("tasa, usuarios y solicitudes deben ser mayores que cero");
+        }
+        if (!config.hilos.equals("plataforma") && !config.hilos.equals("virtual")) {
+            throw new IllegalArgumentException("hilos debe ser 'plataforma' o 'virtual'");
+        }
+        return config;
+    }
+
+    boolean usaHilosVirtuales() {
+        return hilos.equals("virtual");
+    }
+
+    /**
+     * Elige una operación según los pesos de la mezcla.
+     */
+    Operacion elegir(SplittableRandom random) {
+        int total = mezcla.values().stream().mapToInt(Integer::intValue).sum();
+        int sorteo = random.nextInt(total);
+        for (Map.Entry<Operacion, Integer> entrada : mezcla.entrySet()) {
+            sorteo -= entrada.getValue();
+            if (sorteo < 0) {
+                return entrada.getKey();
+            }
+        }
+        throw new IllegalStateException("Mezcla vacía");
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "tasa=%.0f/s duracion=%s calentamiento=%s usuarios=%d solicitudes=%d mezcla=%s hilos=%s conexionesBd=%d documentoKb=%d",
+                tasa, duracion, calentamiento, usuarios, solicitudes, mezcla, hilos, conexionesBd, documentoKb);
+    }
+
+    private static Map<Operacion, Integer> leerMezcla(String valor) {
+        Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+        for (String parte : valor.split(",")) {
+            String[] pesoOperacion = parte.split(":");
+            int peso = Integer.parseInt(pesoOperacion[1].trim());
+            if (peso > 0) {
+                mezcla.put(Operacion.valueOf(pesoOperacion[0].trim().toUpperCase(Locale.ROOT)), peso);
+            }
+        }
+        if (mezcla.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla debe incluir al menos una operación con peso");
+        }
+        return mezcla;
+    }
+
+    private static Map<Operacion, Integer> mezclaPorDefecto() {
+        Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+        mezcla.put(Operacion.SIMULAR, 40);
+        mezcla.put(Operacion.EVALUAR, 20);
+        mezcla.put(Operacion.LISTAR, 25);
+        mezcla.put(Operacion.CREAR, 15);
+        return mezcla;
+    }
+}
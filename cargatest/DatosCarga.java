@@ -0,0 +1,135 @@
+package com.prestabanco.app.cargatest;
+
+import com.prestabanco.app.config.PoliticaPrestamoProperties;
+import com.prestabanco.app.config.PoliticaPrestamoProperties.CondicionesTipo;
+import com.prestabanco.app.entity.EstadoSolicitud;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.entity.TipoPrestamo;
+import com.prestabanco.app.entity.Usuario;
+import com.prestabanco.app.repository.SolicitudRepository;
+import com.prestabanco.app.repository.UsuarioRepository;
+import org.springframework.context.ApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Siembra usuarios y solicitudes directamente con los repositorios (más rápido que
+ * por HTTP) y guarda los nombres e ids que usan las peticiones generadas.
+ */
+final class DatosCarga {
+
+    private static final int LOTE = 1_000;
+    private static final TipoPrestamo[] TIPOS = TipoPrestamo.values();
+    private static final PoliticaPrestamoProperties POLITICA = new PoliticaPrestamoProperties();
+
+    private final String[] nombresUsuarios;
+    private final long[] idsSolicitudes;
+    private final AtomicInteger siguienteSinEvaluar = new AtomicInteger();
+
+    private DatosCarga(String[] nombresUsuarios, long[] idsSolicitudes) {
+        this.nombresUsuarios = nombresUsuarios;
+        this.idsSolicitudes = idsSolicitudes;
+    }
+
+    static DatosCarga sembrar(ApplicationContext contexto, ConfiguracionCarga config) {
+        UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        SolicitudRepository solicitudRepository = contexto.getBean(SolicitudRepository.class);
+        SplittableRandom random = new SplittableRandom(config.getSemilla());
+
+        List<Usuario> usuarios = new ArrayList<>(config.getUsuarios());
+        List<Usuario> lote = new ArrayList<>(LOTE);
+        for (int i = 0; i < config.getUsuarios(); i++) {
+            lote.add(nuevoUsuario(random, i));
+            if (lote.size() == LOTE || i == config.getUsuarios() - 1) {
+                usuarios.addAll(usuarioRepository.saveAll(lote));
+                lote.clear();
+            }
+        }
+
+        long[] ids = new long[config.getSolicitudes()];
+        List<Solicitud> solicitudes = new ArrayList<>(LOTE);
+        for (int i = 0; i < config.getSolicitudes(); i++) {
+            solicitudes.add(nuevaSolicitud(random, usuarios.get(random.nextInt(usuarios.size()))));
+            if (solicitudes.size() == LOTE || i == config.getSolicitudes() - 1) {
+                int base = i + 1 - solicitudes.size();
+                List<Solicitud> guardadas = solicitudRepository.saveAll(solicitudes);
+                for (int j = 0; j < guardadas.size(); j++) {
+                    ids[base + j] = guardadas.get(j).getIdSolicitud();
+                }
+                solicitudes.clear();
+            }
+        }
+
+        String[] nombres = usuarios.stream().map(Usuario::getNombreCompleto).toArray(String[]::new);
+        return new DatosCarga(nombres, ids);
+    }
+
+    String nombreUsuario(SplittableRandom random) {
+        return nombresUsuarios[random.nextInt(nombresUsuarios.length)];
+    }
+
+    /**
+     * Una solicitud evaluada queda en E6/E7 y volver a evaluarla responde 409, así que
+     * cada evaluación toma una sembrada distinta. Si se agotan se vuelve a empezar
+     * (y esas peticiones cuentan como error): conviene sembrar más solicitudes.
+     */
+    long idSolicitudSinEvaluar() {
+        return idsSolicitudes[Math.floorMod(siguienteSinEvaluar.getAndIncrement(), idsSolicitudes.length)];
+    }
+
+    static TipoPrestamo tipo(SplittableRandom random) {
+        return TIPOS[random.nextInt(TIPOS.length)];
+    }
+
+    private static Usuario nuevoUsuario(SplittableRandom random, int i) {
+        Usuario usuario = new Usuario();
+        usuario.setNombreCompleto("Usuario Carga " + (i + 1));
+        usuario.setFechaNacimiento(LocalDate.now().minusYears(25 + random.nextInt(35)));
+        usuario.setTipoIdentificacion("RUT");
+        usuario.setNumeroIdentificacion("C-" + (i + 1));
+        BigDecimal ingresos = BigDecimal.valueOf(1_000_000 + random.nextInt(40) * 100_000L);
+        usuario.setIngresosMensuales(ingresos);
+        usuario.setDeudasActuales(ingresos.multiply(BigDecimal.valueOf(random.nextInt(50))).movePointLeft(2));
+        usuario.setHistorialCrediticio(random.nextInt(10) < 9 ? "BUENO" : "REGULAR");
+        usuario.setAntiguedadLaboral(random.nextInt(15));
+        usuario.setCapacidadAhorro(random.nextInt(10) < 8 ? "ADECUADA" : "INSUFICIENTE");
+        usuario.setTipoUsuario("CLIENTE");
+        usuario.setFechaRegistro(LocalDateTime.now());
+        return usuario;
+    }
+
+    /**
+     * Dentro de los límites del tipo de préstamo, para que /evaluar recorra las reglas
+     * R1..R7 en vez de cortar en la validación por tipo.
+     */
+    private static Solicitud nuevaSolicitud(SplittableRandom random, Usuario usuario) {
+        TipoPrestamo tipo = tipo(random);
+        CondicionesTipo condiciones = POLITICA.getTipos().get(tipo);
+        BigDecimal valorPropiedad = BigDecimal.valueOf(50 + random.nextInt(250)).movePointRight(6);
+        int financiamientoMaximo = condiciones.getPorcentajeFinanciamiento().movePointRight(2).intValue();
+        BigDecimal financiamiento = BigDecimal.valueOf(30 + random.nextInt(financiamientoMaximo - 30 + 1)).movePointLeft(2);
+        int pasosTasa = condiciones.getTasaMaxima().subtract(condiciones.getTasaMinima()).movePointRight(1).intValue();
+
+        Solicitud solicitud = new Solicitud();
+        solicitud.setUsuario(usuario);
+        solicitud.setTipoPrestamo(tipo.getNombre());
+        solicitud.setValorPropiedad(valorPropiedad);
+        solicitud.setMontoSolicitado(valorPropiedad.multiply(financiamiento));
+        solicitud.setPlazoSolicitado(5 + random.nextInt(condiciones.getPlazoMaximo() - 5 + 1));
+        solicitud.setTasaInteres(condiciones.getTasaMinima().add(BigDecimal.valueOf(random.nextInt(pasosTasa + 1), 1)));
+        solicitud.setFechaSolicitud(LocalDateTime.now().minusDays(random.nextInt(365)));
+        solicitud.setEstadoSolicitud(EstadoSolicitud.E1_REVISION_INICIAL);
+        return solicitud;
+    }
+
+    // Tasas de 3,5% a 7% en pasos de 0,1: cubre los rangos de todos los tipos
+    static BigDecimal tasa(SplittableRandom random) {
+        return BigDecimal.valueOf(35 + random.nextInt(36), 1);
+    }
+}
@@ -0,0 +1,117 @@
+package com.prestabanco.app.cargatest;
+
+import com.prestabanco.app.entity.TipoPrestamo;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Arma las peticiones HTTP de cada operación con datos aleatorios sobre lo sembrado.
+ * Se usa desde un solo hilo (el que marca el ritmo de la carga).
+ */
+final class GeneradorPeticiones {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String LIMITE = "----prueba-carga-7d1f3a";
+
+    private final URI base;
+    private final DatosCarga datos;
+    private final SplittableRandom random;
+    // Relleno compartido de los documentos; cada envío le antepone un encabezado único
+    private final byte[] relleno;
+    private long documentos;
+
+    GeneradorPeticiones(URI base, DatosCarga datos, ConfiguracionCarga config) {
+        this.base = base;
+        this.datos = datos;
+        this.random = new SplittableRandom(config.getSemilla() + 1);
+        this.relleno = new byte[Math.max(1, config.getDocumentoKb()) * 1024];
+        new SplittableRandom(config.getSemilla() + 2).nextBytes(relleno);
+    }
+
+    HttpRequest peticion(Operacion operacion) {
+        return switch (operacion) {
+            case SIMULAR -> simular();
+            case EVALUAR -> evaluar();
+            case LISTAR -> listar();
+            case CREAR -> crear();
+        };
+    }
+
+    private HttpRequest simular() {
+        String cuerpo = String.format(Locale.ROOT,
+                "{\"montoDeseado\":%d,\"plazo\":%d,\"tasaInteres\":%s,\"tipoPrestamo\":\"%s\"}",
+                (20 + random.nextInt(200)) * 1_000_000L, 5 + random.nextInt(26),
+                DatosCarga.tasa(random).toPlainString(), DatosCarga.tipo(random).getNombre());
+        return HttpRequest.newBuilder(base.resolve("/api/solicitudes/simular"))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+    }
+
+    private HttpRequest evaluar() {
+        return HttpRequest.newBuilder(base.resolve("/api/solicitudes/" + datos.idSolicitudSinEvaluar() + "/evaluar"))
+                .timeout(TIMEOUT)
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private HttpRequest listar() {
+        // Sesgo hacia las primeras páginas, como la navegación real
+        int pagina = random.nextInt(100) < 80 ? random.nextInt(5) : random.nextInt(200);
+        return HttpRequest.newBuilder(base.resolve("/api/solicitudes/pagina?pagina=" + pagina + "&tamano=20"))
+                .timeout(TIMEOUT)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest crear() {
+        TipoPrestamo tipo = DatosCarga.tipo(random);
+        BigDecimal valorPropiedad = BigDecimal.valueOf(50 + random.nextInt(250)).movePointRight(6);
+        List<byte[]> partes = new ArrayList<>();
+        campo(partes, "tipoPrestamo", tipo.getNombre());
+        campo(partes, "montoSolicitado", valorPropiedad.multiply(new BigDecimal("0.6")).toPlainString());
+        campo(partes, "plazoSolicitado", String.valueOf(5 + random.nextInt(20)));
+        campo(partes, "tasaInteres", DatosCarga.tasa(random).toPlainString());
+        campo(partes, "valorPropiedad", valorPropiedad.toPlainString());
+        campo(partes, "nombreCompleto", datos.nombreUsuario(random));
+        documento(partes, "comprobanteAvaluo", "avaluo");
+        documento(partes, "comprobanteIngresos", "ingresos");
+        partes.add(ascii("--" + LIMITE + "--\r\n"));
+
+        return HttpRequest.newBuilder(base.resolve("/api/solicitudes/crear-con-usuario"))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "multipart/form-data; boundary=" + LIMITE)
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(partes))
+                .build();
+    }
+
+    private static void campo(List<byte[]> partes, String nombre, String valor) {
+        partes.add(("--" + LIMITE + "\r\nContent-Disposition: form-data; name=\"" + nombre + "\"\r\n\r\n"
+                + valor + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Contenido distinto en cada envío, para no medir solo la deduplicación del almacén.
+     */
+    private void documento(List<byte[]> partes, String nombre, String archivo) {
+        long numero = ++documentos;
+        partes.add(ascii("--" + LIMITE + "\r\nContent-Disposition: form-data; name=\"" + nombre
+                + "\"; filename=\"" + archivo + "-" + numero + ".pdf\"\r\nContent-Type: application/pdf\r\n\r\n"
+                + "%PDF-1.4\n% documento de carga " + numero + "\n"));
+        partes.add(relleno);
+        partes.add(ascii("\r\n"));
+    }
+
+    private static byte[] ascii(String texto) {
+        return texto.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,90 @@
+package com.prestabanco.app.cargatest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias en microsegundos con cubetas log-lineales, al estilo de
+ * HdrHistogram: cada potencia de dos se divide en 64 cubetas, así el error relativo
+ * de cualquier percentil es menor a 1,6% desde 1 µs hasta ~12 días, con un arreglo
+ * fijo de ~2.300 contadores. Se puede registrar desde varios hilos a la vez.
+ */
+final class HistogramaLatencias {
+
+    private static final int BITS_SUBCUBETA = 7;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;  // valores exactos bajo 128 µs
+    private static final int MITAD = SUBCUBETAS / 2;            // cubetas por potencia de dos
+    private static final long VALOR_MAXIMO = (1L << 40) - 1;
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(indice(VALOR_MAXIMO) + 1);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong maximo = new AtomicLong();
+
+    void registrar(long micros) {
+        long valor = Math.min(Math.max(0, micros), VALOR_MAXIMO);
+        cuentas.incrementAndGet(indice(valor));
+        total.incrementAndGet();
+        maximo.accumulateAndGet(valor, Math::max);
+    }
+
+    /**
+     * Suma las muestras de otro histograma (para totales entre operaciones).
+     */
+    void agregar(HistogramaLatencias otro) {
+        for (int i = 0; i < cuentas.length(); i++) {
+            long cuenta = otro.cuentas.get(i);
+            if (cuenta > 0) {
+                cuentas.addAndGet(i, cuenta);
+            }
+        }
+        total.addAndGet(otro.total.get());
+        maximo.accumulateAndGet(otro.maximo.get(), Math::max);
+    }
+
+    long total() {
+        return total.get();
+    }
+
+    long maximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Menor valor bajo el cual cae el porcentaje pedido de las muestras (cota superior de su cubeta).
+     */
+    long percentil(double porcentaje) {
+        long muestras = total.get();
+        if (muestras == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(porcentaje / 100.0 * muestras));
+        long acumulado = 0;
+        for (int i = 0; i < cuentas.length(); i++) {
+            acumulado += cuentas.get(i);
+            if (acumulado >= objetivo) {
+                return Math.min(cotaSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    private static int indice(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        // Desplazamiento que deja los 7 bits más altos del valor (entre 64 y 127)
+        int exponente = 63 - Long.numberOfLeadingZeros(valor) - (BITS_SUBCUBETA - 1);
+        int subcubeta = (int) (valor >>> exponente);
+        return SUBCUBETAS + (exponente - 1) * MITAD + (subcubeta - MITAD);
+    }
+
+    private static long cotaSuperior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int desplazado = indice - SUBCUBETAS;
+        int exponente = desplazado / MITAD + 1;
+        long subcubeta = desplazado % MITAD + MITAD;
+        return ((subcubeta + 1) << exponente) - 1;
+    }
+}
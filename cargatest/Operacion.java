@@ -0,0 +1,21 @@
+package com.prestabanco.app.cargatest;
+
+/**
+ * Endpoints que ejercita la prueba de carga.
+ */
+enum Operacion {
+    SIMULAR("POST /api/solicitudes/simular"),
+    EVALUAR("PUT  /api/solicitudes/{id}/evaluar"),
+    LISTAR("GET  /api/solicitudes/pagina"),
+    CREAR("POST /api/solicitudes/crear-con-usuario");
+
+    private final String descripcion;
+
+    Operacion(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    String getDescripcion() {
+        return descripcion;
+    }
+}
@@ -0,0 +1,193 @@
+package com.prestabanco.app.cargatest;
+
+import com.prestabanco.app.PrestaBancoAppApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de punta a punta: levanta la aplicación con H2 en memoria, siembra
+ * datos y envía una mezcla de peticiones a ritmo fijo (lazo abierto). La latencia de
+ * cada petición se mide desde el instante en que debía enviarse, no desde que se
+ * envió, para no esconder las esperas cuando el servidor se atrasa (omisión coordinada).
+ *
+ * Uso: PruebaCarga [clave=valor ...]; ver {@link ConfiguracionCarga}. Funciona sin red.
+ */
+public class PruebaCarga {
+
+    private static final Duration ESPERA_FINAL = Duration.ofSeconds(30);
+
+    private final ConfiguracionCarga config;
+    private final GeneradorPeticiones generador;
+    private final HttpClient cliente;
+    private final Map<Operacion, Resultados> resultados = new EnumMap<>(Operacion.class);
+    private final AtomicInteger pendientes = new AtomicInteger();
+
+    private PruebaCarga(ConfiguracionCarga config, GeneradorPeticiones generador) {
+        this.config = config;
+        this.generador = generador;
+        this.cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        for (Operacion operacion : Operacion.values()) {
+            resultados.put(operacion, new Resultados());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        ConfiguracionCarga config = ConfiguracionCarga.desdeArgumentos(args);
+        Path subidas = Files.createTempDirectory("prueba-carga-");
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(PrestaBancoAppApplication.class)
+                .properties(propiedades(config, subidas))
+                .run();
+        try {
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            System.out.println("Configuración: " + config);
+            System.out.printf(Locale.ROOT, "Servidor en el puerto %d, hilos virtuales: %s%n", puerto,
+                    contexto.getEnvironment().getProperty("spring.threads.virtual.enabled"));
+            if (config.usaHilosVirtuales() && Runtime.version().feature() < 21) {
+                System.out.println("Aviso: Java " + Runtime.version().feature()
+                        + " no tiene hilos virtuales; la aplicación usa hilos de plataforma.");
+            }
+
+            long inicioSiembra = System.nanoTime();
+            DatosCarga datos = DatosCarga.sembrar(contexto, config);
+            System.out.printf(Locale.ROOT, "Sembrados %d usuarios y %d solicitudes en %.1f s%n",
+                    config.getUsuarios(), config.getSolicitudes(), (System.nanoTime() - inicioSiembra) / 1e9);
+
+            URI base = URI.create("http://localhost:" + puerto);
+            new PruebaCarga(config, new GeneradorPeticiones(base, datos, config)).ejecutar();
+        } finally {
+            contexto.close();
+            FileSystemUtils.deleteRecursively(subidas);
+        }
+    }
+
+    private static Map<String, Object> propiedades(ConfiguracionCarga config, Path subidas) {
+        return Map.ofEntries(
+                Map.entry("server.port", 0),
+                Map.entry("spring.main.banner-mode", "off"),
+                Map.entry("logging.level.root", "WARN"),
+                Map.entry("spring.datasource.url", "jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1"),
+                Map.entry("spring.datasource.driver-class-name", "org.h2.Driver"),
+                Map.entry("spring.datasource.username", "sa"),
+                Map.entry("spring.datasource.password", ""),
+                Map.entry("spring.datasource.hikari.maximum-pool-size", config.getConexionesBd()),
+                Map.entry("spring.jpa.hibernate.ddl-auto", "create"),
+                Map.entry("spring.jpa.show-sql", false),
+                Map.entry("spring.threads.virtual.enabled", config.usaHilosVirtuales()),
+                Map.entry("file.upload-dir", subidas.toString()));
+    }
+
+    private void ejecutar() {
+        SplittableRandom random = new SplittableRandom(config.getSemilla() + 3);
+        double nanosEntrePeticiones = 1e9 / config.getTasa();
+        long inicio = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long medirDesde = inicio + config.getCalentamiento().toNanos();
+        long fin = medirDesde + config.getDuracion().toNanos();
+        System.out.printf(Locale.ROOT, "Calentamiento %d s, medición %d s a %.0f peticiones/s...%n",
+                config.getCalentamiento().toSeconds(), config.getDuracion().toSeconds(), config.getTasa());
+
+        for (long n = 0; ; n++) {
+            long programada = inicio + (long) (n * nanosEntrePeticiones);
+            if (programada >= fin) {
+                break;
+            }
+            esperarHasta(programada);
+
+            Operacion operacion = config.elegir(random);
+            boolean medir = programada >= medirDesde;
+            if (pendientes.get() >= config.getMaximoPendientes()) {
+                // El servidor no da abasto: se cuenta como descartada en vez de acumular memoria
+                if (medir) resultados.get(operacion).descartadas.increment();
+                continue;
+            }
+            HttpRequest peticion = generador.peticion(operacion);
+            pendientes.incrementAndGet();
+            cliente.sendAsync(peticion, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((respuesta, error) -> {
+                        long latenciaMicros = (System.nanoTime() - programada) / 1_000;
+                        pendientes.decrementAndGet();
+                        if (medir) {
+                            resultados.get(operacion).registrar(latenciaMicros,
+                                    error == null && respuesta.statusCode() < 400);
+                        }
+                    });
+        }
+
+        long limite = System.nanoTime() + ESPERA_FINAL.toNanos();
+        while (pendientes.get() > 0 && System.nanoTime() < limite) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        if (pendientes.get() > 0) {
+            System.out.println("Aviso: " + pendientes.get() + " peticiones sin respuesta tras "
+                    + ESPERA_FINAL.toSeconds() + " s; no se incluyen en el reporte.");
+        }
+        reportar();
+    }
+
+    private static void esperarHasta(long instante) {
+        long restante;
+        while ((restante = instante - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(restante);
+        }
+    }
+
+    private void reportar() {
+        double segundos = config.getDuracion().toNanos() / 1e9;
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-42s %8s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "total", "req/s", "error", "descart", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "máx ms");
+        Resultados total = new Resultados();
+        for (Map.Entry<Operacion, Resultados> entrada : resultados.entrySet()) {
+            if (!config.getMezcla().containsKey(entrada.getKey())) continue;
+            imprimir(entrada.getKey().getDescripcion(), entrada.getValue(), segundos);
+            total.acumular(entrada.getValue());
+        }
+        imprimir("TOTAL", total, segundos);
+    }
+
+    private static void imprimir(String nombre, Resultados r, double segundos) {
+        HistogramaLatencias h = r.histograma;
+        System.out.printf(Locale.ROOT, "%-42s %8d %9.1f %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                nombre, h.total(), h.total() / segundos, r.errores.sum(), r.descartadas.sum(),
+                h.percentil(50) / 1e3, h.percentil(95) / 1e3, h.percentil(99) / 1e3,
+                h.percentil(99.9) / 1e3, h.maximo() / 1e3);
+    }
+
+    private static final class Resultados {
+        private final HistogramaLatencias histograma = new HistogramaLatencias();
+        private final LongAdder errores = new LongAdder();
+        private final LongAdder descartadas = new LongAdder();
+
+        private void registrar(long micros, boolean exitosa) {
+            histograma.registrar(micros);
+            if (!exitosa) errores.increment();
+        }
+
+        private void acumular(Resultados otro) {
+            histograma.agregar(otro.histograma);
+            errores.add(otro.errores.sum());
+            descartadas.add(otro.descartadas.sum());
+        }
+    }
+}
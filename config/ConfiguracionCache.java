@@ -0,0 +1,27 @@
+package com.prestabanco.app.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * Límites de una caché en memoria: tamaño máximo, tiempo de vida y política de desalojo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfiguracionCache {
+
+    private int tamanoMaximo = 10_000;
+    private Duration ttl = Duration.ofMinutes(10);
+    private PoliticaDesalojo politica = PoliticaDesalojo.LRU;
+
+    public enum PoliticaDesalojo {
+        // Aproximación CLOCK: sobrevive la entrada leída desde la última pasada
+        LRU,
+        // CLOCK con contador de frecuencia: sobreviven las entradas más leídas
+        LFU
+    }
+}
@@ -0,0 +1,97 @@
+package com.prestabanco.app.config;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ejecutor de un hilo virtual por tarea. Crear hilos no cuesta, así que el límite lo
+ * ponen dos semáforos:
+ * - conexiones: tareas corriendo a la vez. Se comparte entre ejecutores y mide lo
+ *   mismo que el pool de conexiones, para que las tareas esperen aquí (en su hilo
+ *   virtual, sin ocupar uno de plataforma) y no en el connectionTimeout de Hikari.
+ * - admision: tareas aceptadas, corriendo o esperando; equivale a hilos + cola del
+ *   ejecutor de plataforma. Con todas ocupadas se ejecuta en el llamador o se
+ *   rechaza, igual que la política del ThreadPoolExecutor al que reemplaza.
+ */
+final class EjecutorVirtualAcotado extends AbstractExecutorService {
+
+    private final ExecutorService hiloPorTarea;
+    private final Semaphore conexiones;
+    private final Semaphore admision;
+    private final boolean ejecutarEnLlamador;
+
+    EjecutorVirtualAcotado(ExecutorService hiloPorTarea, Semaphore conexiones, int admitidas,
+                           boolean ejecutarEnLlamador) {
+        this.hiloPorTarea = hiloPorTarea;
+        this.conexiones = conexiones;
+        this.admision = new Semaphore(Math.max(1, admitidas));
+        this.ejecutarEnLlamador = ejecutarEnLlamador;
+    }
+
+    @Override
+    public void execute(Runnable tarea) {
+        if (!admision.tryAcquire()) {
+            if (ejecutarEnLlamador && !isShutdown()) {
+                ejecutarConConexion(tarea);
+                return;
+            }
+            throw new RejectedExecutionException("Ejecutor saturado");
+        }
+        try {
+            hiloPorTarea.execute(() -> {
+                try {
+                    ejecutarConConexion(tarea);
+                } finally {
+                    admision.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            admision.release();
+            throw ex;
+        }
+    }
+
+    private void ejecutarConConexion(Runnable tarea) {
+        try {
+            conexiones.acquire();
+        } catch (InterruptedException ex) {
+            // Apagado: la tarea no llegó a empezar
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            tarea.run();
+        } finally {
+            conexiones.release();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        hiloPorTarea.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return hiloPorTarea.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return hiloPorTarea.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return hiloPorTarea.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return hiloPorTarea.awaitTermination(timeout, unit);
+    }
+}
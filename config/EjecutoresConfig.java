@@ -0,0 +1,129 @@
+package com.prestabanco.app.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecutores internos de la aplicación.
+ *
+ * Con spring.threads.virtual.enabled=true (y Java 21 o superior) Tomcat atiende cada
+ * petición en un hilo virtual y los ejecutores de evaluación e ingesta pasan a crear
+ * un hilo virtual por tarea (ver {@link EjecutorVirtualAcotado}). hilos + capacidadCola
+ * siguen acotando cuánto trabajo se admite, pero cuántas tareas corren a la vez lo
+ * limita un semáforo compartido del tamaño del pool de conexiones
+ * (spring.datasource.hikari.maximum-pool-size, ver PersistenciaConfig), que conviene
+ * dimensionar para la concurrencia que la base de datos tolera.
+ * Sin la propiedad, o en Java 17, todo sigue con hilos de plataforma.
+ */
+@Configuration
+public class EjecutoresConfig {
+
+    private final boolean hilosVirtuales;
+
+    // Permisos de ejecución de los ejecutores virtuales: uno por conexión del pool
+    private final Semaphore conexiones;
+
+    public EjecutoresConfig(Environment environment, DataSource dataSource) {
+        this.hilosVirtuales = Threading.VIRTUAL.isActive(environment);
+        this.conexiones = hilosVirtuales ? new Semaphore(tamanoPool(dataSource)) : null;
+    }
+
+    /**
+     * Ejecutor acotado para la evaluación en lote. Cuando la cola se llena,
+     * el hilo que envía la tarea la ejecuta (contrapresión natural).
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService ejecutorEvaluacion(EvaluacionProperties properties) {
+        int hilos = Math.max(1, properties.getHilos());
+        if (hilosVirtuales) {
+            return new EjecutorVirtualAcotado(hiloPorTarea("evaluacion-"), conexiones,
+                    hilos + Math.max(1, properties.getCapacidadCola()), true);
+        }
+        return new ThreadPoolExecutor(
+                hilos, hilos,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getCapacidadCola())),
+                fabricaHilos("evaluacion-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Ejecutor de la ingesta asíncrona. A diferencia del de evaluación no ejecuta en
+     * el llamador: ese hilo es un worker HTTP, así que con la cola llena rechaza.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService ejecutorIngesta(IngestaProperties properties) {
+        int hilos = Math.max(1, properties.getHilos());
+        if (hilosVirtuales) {
+            return new EjecutorVirtualAcotado(hiloPorTarea("ingesta-"), conexiones,
+                    hilos + Math.max(1, properties.getCapacidadCola()), false);
+        }
+        return new ThreadPoolExecutor(
+                hilos, hilos,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getCapacidadCola())),
+                fabricaHilos("ingesta-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Hilo propio de la reevaluación programada: una pasada puede durar horas y no
+     * debe ocupar el hilo del planificador que comparten las demás tareas @Scheduled.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService ejecutorReevaluacion() {
+        return Executors.newSingleThreadExecutor(fabricaHilos("reevaluacion-"));
+    }
+
+    /**
+     * Executors.newThreadPerTaskExecutor es API de Java 21 y el proyecto compila con 17:
+     * se obtiene por reflexión, solo cuando los hilos virtuales están activos.
+     */
+    private ExecutorService hiloPorTarea(String prefijo) {
+        try {
+            Method metodo = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) metodo.invoke(null, fabricaHilos(prefijo));
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Los hilos virtuales requieren Java 21 o superior", ex);
+        }
+    }
+
+    private static int tamanoPool(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return Math.max(1, dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize());
+            }
+        } catch (SQLException ignored) {
+            // Sin acceso al pool se usa el tamaño por defecto
+        }
+        return PersistenciaConfig.TAMANO_POOL_CONEXIONES;
+    }
+
+    private ThreadFactory fabricaHilos(String prefijo) {
+        if (hilosVirtuales) {
+            return new VirtualThreadTaskExecutor(prefijo).getVirtualThreadFactory();
+        }
+        AtomicInteger contador = new AtomicInteger();
+        return tarea -> {
+            Thread hilo = new Thread(tarea, prefijo + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+}
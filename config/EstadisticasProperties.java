@@ -0,0 +1,19 @@
+package com.prestabanco.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Estadísticas de cartera en memoria (prefijo "estadisticas").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "estadisticas")
+public class EstadisticasProperties {
+
+    // Cada cuánto se recalculan los agregados desde la base para corregir desvíos
+    private Duration intervaloConciliacion = Duration.ofMinutes(10);
+}
@@ -0,0 +1,23 @@
+package com.prestabanco.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parámetros de la evaluación masiva de solicitudes (prefijo "evaluacion").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "evaluacion")
+public class EvaluacionProperties {
+
+    // Hilos del ejecutor acotado que evalúa en paralelo
+    private int hilos = Runtime.getRuntime().availableProcessors();
+
+    // Tareas en espera antes de que el llamador ejecute la evaluación él mismo
+    private int capacidadCola = 1000;
+
+    // Solicitudes cargadas y guardadas por transacción (también tamaño del batch JDBC)
+    private int tamanoLote = 500;
+}
@@ -0,0 +1,20 @@
+package com.prestabanco.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Parámetros de la exportación de solicitudes (prefijo "exportacion").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "exportacion")
+public class ExportacionProperties {
+
+    // Tiempo máximo de una descarga. Reemplaza el timeout asíncrono general de MVC (30 s
+    // en Tomcat), que cortaría una exportación grande con el 200 y los encabezados ya enviados
+    private Duration tiempoMaximo = Duration.ofHours(1);
+}
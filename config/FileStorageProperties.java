@@ -2,12 +2,19 @@ package com.prestabanco.app.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
 @Component
 @ConfigurationProperties(prefix = "file")
 public class FileStorageProperties {
     private String uploadDir;
 
+    // Límite por archivo, verificado mientras se copia
+    private DataSize tamanoMaximoArchivo = DataSize.ofMegabytes(64);
+
+    // Límite de la suma de archivos de una misma solicitud
+    private DataSize tamanoMaximoSolicitud = DataSize.ofMegabytes(128);
+
     public String getUploadDir() {
         return uploadDir;
     }
@@ -15,4 +22,20 @@ public class FileStorageProperties {
     public void setUploadDir(String uploadDir) {
         this.uploadDir = uploadDir;
     }
+
+    public DataSize getTamanoMaximoArchivo() {
+        return tamanoMaximoArchivo;
+    }
+
+    public void setTamanoMaximoArchivo(DataSize tamanoMaximoArchivo) {
+        this.tamanoMaximoArchivo = tamanoMaximoArchivo;
+    }
+
+    public DataSize getTamanoMaximoSolicitud() {
+        return tamanoMaximoSolicitud;
+    }
+
+    public void setTamanoMaximoSolicitud(DataSize tamanoMaximoSolicitud) {
+        this.tamanoMaximoSolicitud = tamanoMaximoSolicitud;
+    }
 }
@@ -0,0 +1,23 @@
+package com.prestabanco.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parámetros de la importación masiva (prefijo "importacion").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "importacion")
+public class ImportacionProperties {
+
+    // Registros por transacción: tamaño del batch JDBC y frecuencia del punto de control
+    private int tamanoLote = 500;
+
+    // Caracteres por registro; uno más largo se rechaza al reporte sin interpretarlo
+    private int tamanoMaximoRegistro = 64 * 1024;
+
+    // Líneas por registro CSV: acota lo que arrastra una comilla sin cerrar
+    private int lineasMaximasRegistro = 100;
+}
@@ -0,0 +1,26 @@
+package com.prestabanco.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Parámetros de la recepción asíncrona de solicitudes con documentos (prefijo "ingesta").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ingesta")
+public class IngestaProperties {
+
+    // Hilos que guardan los documentos e insertan la solicitud en segundo plano
+    private int hilos = 4;
+
+    // Ingestas en espera; con la cola llena se responde 429 en vez de encolar más
+    private int capacidadCola = 200;
+
+    // Estados de las ingestas terminadas; expiran tras el TTL. Las pendientes no se desalojan
+    private ConfiguracionCache cacheEstados =
+            new ConfiguracionCache(100_000, Duration.ofHours(1), ConfiguracionCache.PoliticaDesalojo.LRU);
+}
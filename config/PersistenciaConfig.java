@@ -0,0 +1,65 @@
+package com.prestabanco.app.config;
+
+import com.prestabanco.app.repository.SolicitudRepository;
+import com.prestabanco.app.repository.UsuarioRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class PersistenciaConfig {
+
+    // Conexiones del pool si no se configura spring.datasource.hikari.maximum-pool-size
+    static final int TAMANO_POOL_CONEXIONES = 20;
+
+    /**
+     * Fija el tamaño del pool de Hikari cuando no viene configurado (el de Hikari es 10).
+     * Con hilos virtuales es el límite de concurrencia de los ejecutores internos, así
+     * que se deja explícito en lugar de depender del valor por defecto de la librería.
+     */
+    @Bean
+    public static BeanPostProcessor tamanoPoolConexiones(Environment environment) {
+        boolean configurado = environment.containsProperty("spring.datasource.hikari.maximum-pool-size");
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (!configurado && bean instanceof HikariDataSource hikari) {
+                    hikari.setMaximumPoolSize(TAMANO_POOL_CONEXIONES);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Pone versión 0 en las solicitudes y usuarios guardados antes del bloqueo optimista,
+     * si su columna version quedó en null. Con versión null Spring Data trata la fila como
+     * nueva y save() intenta insertarla. Corre antes de que el servidor acepte peticiones;
+     * sin filas pendientes no modifica nada.
+     */
+    @Bean
+    public SmartInitializingSingleton completarVersiones(SolicitudRepository solicitudRepository,
+                                                         UsuarioRepository usuarioRepository) {
+        return () -> {
+            solicitudRepository.completarVersiones();
+            usuarioRepository.completarVersiones();
+        };
+    }
+
+    /**
+     * Habilita el batching JDBC de Hibernate para que los UPDATE de un lote
+     * de solicitudes viajen juntos en lugar de uno por fila.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer batchingJdbc(EvaluacionProperties properties) {
+        return hibernateProperties -> {
+            hibernateProperties.putIfAbsent("hibernate.jdbc.batch_size", properties.getTamanoLote());
+            hibernateProperties.putIfAbsent("hibernate.order_updates", true);
+            hibernateProperties.putIfAbsent("hibernate.order_inserts", true);
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.prestabanco.app.config;
+
+import com.prestabanco.app.entity.TipoPrestamo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Umbrales de evaluación (prefijo "politicas"). Los valores por defecto son los del enunciado;
+ * en caliente se reemplazan vía PUT /api/politicas.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "politicas")
+public class PoliticaPrestamoProperties {
+
+    // Condiciones por tipo de préstamo: plazo máx, rango de tasas, % de financiamiento
+    private Map<TipoPrestamo, CondicionesTipo> tipos = condicionesPorDefecto();
+
+    // R1: Relación cuota/ingreso máxima
+    private BigDecimal relacionCuotaIngresoMaxima = new BigDecimal("0.35");
+    // R2: Relación deuda/ingreso máxima
+    private BigDecimal relacionDeudaIngresoMaxima = new BigDecimal("0.50");
+    // R3: Historial crediticio requerido
+    private String historialCrediticioRequerido = "BUENO";
+    // R4: Plazo máximo en años
+    private int plazoMaximoAnios = 30;
+    // R5: Edad máxima al término del préstamo
+    private int edadMaximaAlTermino = 75;
+    // R6: Antigüedad laboral mínima en años
+    private int antiguedadLaboralMinima = 2;
+    // R7: Capacidad de ahorro requerida
+    private String capacidadAhorroRequerida = "ADECUADA";
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CondicionesTipo {
+        private int plazoMaximo;
+        private BigDecimal tasaMinima;
+        private BigDecimal tasaMaxima;
+        private BigDecimal porcentajeFinanciamiento;
+    }
+
+    private static Map<TipoPrestamo, CondicionesTipo> condicionesPorDefecto() {
+        Map<TipoPrestamo, CondicionesTipo> tipos = new EnumMap<>(TipoPrestamo.class);
+        tipos.put(TipoPrestamo.PRIMERA_VIVIENDA,
+                new CondicionesTipo(30, new BigDecimal("3.5"), new BigDecimal("5.0"), new BigDecimal("0.80")));
+        tipos.put(TipoPrestamo.SEGUNDA_VIVIENDA,
+                new CondicionesTipo(20, new BigDecimal("4.0"), new BigDecimal("6.0"), new BigDecimal("0.70")));
+        tipos.put(TipoPrestamo.PROPIEDADES_COMERCIALES,
+                new CondicionesTipo(25, new BigDecimal("5.0"), new BigDecimal("7.0"), new BigDecimal("0.60")));
+        tipos.put(TipoPrestamo.REMODELACION,
+                new CondicionesTipo(15, new BigDecimal("4.5"), new BigDecimal("6.0"), new BigDecimal("0.50")));
+        return tipos;
+    }
+}
@@ -0,0 +1,29 @@
+package com.prestabanco.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+
+/**
+ * Reevaluación programada de solicitudes pendientes (prefijo "reevaluacion").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reevaluacion")
+public class ReevaluacionProperties {
+
+    // Expresión cron de inicio, ej. "0 0 22 * * *". "-" la deshabilita (valor por defecto)
+    private String cron = "-";
+
+    // Hora en que la pasada se pausa hasta la próxima ejecución; null = sin límite
+    private LocalTime horaFin = LocalTime.of(6, 0);
+
+    // Solicitudes por bloque: una consulta, una transacción y un batch de UPDATE
+    private int tamanoBloque = 200;
+
+    // Fracción del tiempo que la pasada puede ocupar la base, entre 0 y 1: con 0.5, tras
+    // un bloque de 200 ms espera otros 200 ms antes del siguiente. Con 1 no hay pausas
+    private double cargaMaxima = 0.5;
+}
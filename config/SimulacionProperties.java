@@ -0,0 +1,17 @@
+package com.prestabanco.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parámetros de la simulación de préstamos (prefijo "simulacion").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "simulacion")
+public class SimulacionProperties {
+
+    // Caché de cuotas por (monto, plazo, tasa) normalizados
+    private ConfiguracionCache cache = new ConfiguracionCache();
+}
@@ -0,0 +1,29 @@
+package com.prestabanco.app.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Parámetros de usuarios (prefijo "usuarios").
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "usuarios")
+public class UsuarioProperties {
+
+    // Caché nombreCompleto / identificación -> idUsuario
+    private ConfiguracionCache cacheIdentificadores =
+            new ConfiguracionCache(50_000, Duration.ofMinutes(30), ConfiguracionCache.PoliticaDesalojo.LRU);
+
+    // Usuarios por id, leídos al evaluar y crear solicitudes. El TTL acota cuánto puede
+    // tardar en verse un cambio hecho por otra instancia; los de esta se invalidan al guardar.
+    private ConfiguracionCache cacheUsuarios =
+            new ConfiguracionCache(20_000, Duration.ofMinutes(5), ConfiguracionCache.PoliticaDesalojo.LRU);
+
+    // Precalificaciones por (usuario, versión del usuario, generación de la política)
+    private ConfiguracionCache cachePrecalificacion =
+            new ConfiguracionCache(10_000, Duration.ofMinutes(30), ConfiguracionCache.PoliticaDesalojo.LRU);
+}
@@ -1,12 +1,20 @@
 package com.prestabanco.app.config;
 
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.web.servlet.MultipartConfigFactory;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // Margen del cuerpo multipart para los campos de texto que acompañan a los archivos
+    private static final DataSize MARGEN_CAMPOS = DataSize.ofMegabytes(1);
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry
@@ -16,4 +24,22 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .allowCredentials(false);
     }
-}
\ No newline at end of file
+
+    /**
+     * Límites multipart del contenedor tomados de "file.*". Sin esto rigen los de
+     * Spring Boot (1 MB por archivo, 10 MB por petición) y un documento más grande se
+     * rechaza antes de llegar a FileStorageService. Ubicación y umbral en memoria
+     * siguen viniendo de spring.servlet.multipart.
+     */
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties multipart,
+                                                         FileStorageProperties archivos) {
+        MultipartConfigFactory factory = new MultipartConfigFactory();
+        factory.setLocation(multipart.getLocation());
+        factory.setFileSizeThreshold(multipart.getFileSizeThreshold());
+        factory.setMaxFileSize(archivos.getTamanoMaximoArchivo());
+        factory.setMaxRequestSize(DataSize.ofBytes(
+                archivos.getTamanoMaximoSolicitud().toBytes() + MARGEN_CAMPOS.toBytes()));
+        return factory.createMultipartConfig();
+    }
+}
@@ -0,0 +1,60 @@
+package com.prestabanco.app.controller;
+
+import com.prestabanco.app.dto.ImportacionResponse;
+import com.prestabanco.app.service.ImportacionService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+@CrossOrigin(origins = "*")
+@RestController
+@RequestMapping("/api/importaciones")
+public class ImportacionController {
+
+    @Autowired
+    private ImportacionService importacionService;
+
+    /**
+     * Importa usuarios o solicitudes desde el cuerpo de la petición (CSV con
+     * encabezado o NDJSON), leído como stream. Acepta Content-Encoding: gzip.
+     * Reenviar el mismo archivo con el mismo idImportacion retoma desde el último lote confirmado.
+     * Se exige un Content-Type de archivo: con uno de formulario el contenedor consumiría el cuerpo.
+     */
+    @PostMapping(value = "/{tipo}", consumes = {"text/csv", "application/x-ndjson", "text/plain",
+            MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ImportacionResponse importar(
+            @PathVariable String tipo,
+            @RequestParam(value = "formato", defaultValue = "csv") String formato,
+            @RequestParam(value = "idImportacion", required = false) String idImportacion,
+            HttpServletRequest request) throws IOException {
+        InputStream entrada = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+            entrada = new GZIPInputStream(entrada, 64 * 1024);
+        }
+        return importacionService.importar(tipo, formato, idImportacion, entrada);
+    }
+
+    @GetMapping("/{idImportacion}")
+    public ImportacionResponse obtenerImportacion(@PathVariable String idImportacion) {
+        return importacionService.obtenerImportacion(idImportacion);
+    }
+
+    @GetMapping("/{idImportacion}/rechazos")
+    public ResponseEntity<Resource> reporteRechazos(@PathVariable String idImportacion) {
+        Path reporte = importacionService.obtenerReporteRechazos(idImportacion);
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + reporte.getFileName() + "\"")
+                .body(new FileSystemResource(reporte));
+    }
+}
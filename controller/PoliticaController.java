@@ -0,0 +1,40 @@
+package com.prestabanco.app.controller;
+
+import com.prestabanco.app.config.PoliticaPrestamoProperties;
+import com.prestabanco.app.dto.EstadisticaReglaResponse;
+import com.prestabanco.app.service.PoliticaPrestamoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@CrossOrigin(origins = "*")
+@RestController
+@RequestMapping("/api/politicas")
+public class PoliticaController {
+
+    @Autowired
+    private PoliticaPrestamoService politicaPrestamoService;
+
+    @GetMapping
+    public PoliticaPrestamoProperties obtenerPoliticaVigente() {
+        return politicaPrestamoService.obtenerConfiguracion();
+    }
+
+    /**
+     * Reemplaza en caliente la política completa (tipos y umbrales R1..R7).
+     * Se valida y compila antes de publicarse; si falla, sigue la anterior.
+     */
+    @PutMapping
+    public PoliticaPrestamoProperties recargarPolitica(@RequestBody PoliticaPrestamoProperties politica) {
+        return politicaPrestamoService.recargar(politica);
+    }
+
+    /**
+     * Evaluaciones, rechazos y tiempo promedio por regla desde el arranque.
+     */
+    @GetMapping("/estadisticas")
+    public List<EstadisticaReglaResponse> obtenerEstadisticas() {
+        return politicaPrestamoService.obtenerEstadisticas();
+    }
+}
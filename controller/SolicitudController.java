@@ -1,26 +1,64 @@
 package com.prestabanco.app.controller;
 
+import com.prestabanco.app.config.ExportacionProperties;
+import com.prestabanco.app.dto.CursorResponse;
+import com.prestabanco.app.dto.EstadisticasCacheResponse;
+import com.prestabanco.app.dto.EstadisticasCarteraResponse;
+import com.prestabanco.app.dto.EstadoIngestaResponse;
+import com.prestabanco.app.dto.EvaluacionLoteRequest;
+import com.prestabanco.app.dto.EvaluacionLoteResponse;
+import com.prestabanco.app.dto.ExplicacionEvaluacionResponse;
+import com.prestabanco.app.dto.MatrizSimulacionRequest;
+import com.prestabanco.app.dto.MatrizSimulacionResponse;
+import com.prestabanco.app.dto.PaginaResponse;
 import com.prestabanco.app.dto.SimulacionRequest;
 import com.prestabanco.app.dto.SimulacionResponse;
+import com.prestabanco.app.dto.SolicitudResumen;
+import com.prestabanco.app.entity.EstadoSolicitud;
+import com.prestabanco.app.entity.Reevaluacion;
 import com.prestabanco.app.entity.Solicitud;
 import com.prestabanco.app.entity.Usuario;
 import com.prestabanco.app.exception.ResourceNotFoundException;
+import com.prestabanco.app.service.DescargaDocumentoService;
+import com.prestabanco.app.service.DocumentoDescarga;
+import com.prestabanco.app.service.EstadisticasCarteraService;
+import com.prestabanco.app.service.EvaluacionLoteService;
+import com.prestabanco.app.service.ExportacionService;
 import com.prestabanco.app.service.FileStorageService;
+import com.prestabanco.app.service.FormatoRegistros;
+import com.prestabanco.app.service.IngestaSolicitudService;
+import com.prestabanco.app.service.ReevaluacionService;
+import com.prestabanco.app.service.SimulacionService;
 import com.prestabanco.app.service.SolicitudService;
+import com.prestabanco.app.service.TablaAmortizacion;
 import com.prestabanco.app.service.UsuarioService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.File;
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.math.MathContext;
-import java.math.RoundingMode;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @CrossOrigin(origins = "*")
 @RestController
@@ -36,6 +74,30 @@ public class SolicitudController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private EvaluacionLoteService evaluacionLoteService;
+
+    @Autowired
+    private SimulacionService simulacionService;
+
+    @Autowired
+    private ExportacionService exportacionService;
+
+    @Autowired
+    private ExportacionProperties exportacionProperties;
+
+    @Autowired
+    private DescargaDocumentoService descargaDocumentoService;
+
+    @Autowired
+    private IngestaSolicitudService ingestaSolicitudService;
+
+    @Autowired
+    private EstadisticasCarteraService estadisticasCarteraService;
+
+    @Autowired
+    private ReevaluacionService reevaluacionService;
+
     /**
      * Crear una solicitud asociada a un usuario ya existente (identificado por nombreCompleto).
      * Subir comprobantes (avaluo, ingresos). Se contempla el campo valorPropiedad.
@@ -61,32 +123,79 @@ public class SolicitudController {
             @RequestParam("comprobanteIngresos") MultipartFile comprobanteIngresos,
             @RequestParam("nombreCompleto") String nombreCompleto
     ) {
-        Optional<Usuario> usuarioOpt = usuarioService.obtenerUsuarioPorNombreCompleto(nombreCompleto);
-
-        if (usuarioOpt.isPresent()) {
-            Usuario usuario = usuarioOpt.get();
-            Solicitud solicitud = new Solicitud();
-            solicitud.setUsuario(usuario);
-            solicitud.setTipoPrestamo(tipoPrestamo);
-            solicitud.setMontoSolicitado(montoSolicitado);
-            solicitud.setPlazoSolicitado(plazoSolicitado);
-            solicitud.setTasaInteres(tasaInteres);
-            solicitud.setValorPropiedad(valorPropiedad);
-            solicitud.setFechaSolicitud(LocalDateTime.now());
-            // Por defecto E1: Revisión inicial
-            solicitud.setEstadoSolicitud("E1_REVISION_INICIAL");
-
-            // Guardar archivos
-            String avaluoPath = fileStorageService.guardarArchivo(comprobanteAvaluo, "avaluos");
-            String ingresosPath = fileStorageService.guardarArchivo(comprobanteIngresos, "ingresos");
-            solicitud.setDocumentosAdjuntos(avaluoPath + "," + ingresosPath);
+        Solicitud solicitud = nuevaSolicitud(nombreCompleto, tipoPrestamo, montoSolicitado,
+                plazoSolicitado, tasaInteres, valorPropiedad);
 
+        // Guardar archivos
+        fileStorageService.validarTamanoTotal(comprobanteAvaluo, comprobanteIngresos);
+        List<String> rutas = new ArrayList<>(2);
+        try {
+            rutas.add(fileStorageService.guardarArchivo(comprobanteAvaluo));
+            rutas.add(fileStorageService.guardarArchivo(comprobanteIngresos));
+            solicitud.setDocumentosAdjuntos(String.join(",", rutas));
             return solicitudService.crearSolicitud(solicitud);
-        } else {
-            throw new ResourceNotFoundException("Usuario no encontrado para nombreCompleto: " + nombreCompleto);
+        } catch (RuntimeException ex) {
+            // Sin solicitud nadie referencia los documentos ya guardados
+            rutas.forEach(fileStorageService::liberarArchivo);
+            throw ex;
         }
     }
 
+    /**
+     * Igual que crear-con-usuario, pero responde 202 apenas recibe los archivos: el
+     * guardado de documentos y la inserción ocurren en segundo plano. El avance se
+     * consulta en la URL del encabezado Location. Con la cola llena responde 429.
+     * La cola está en memoria: una ingesta sin terminar no sobrevive a un reinicio.
+     */
+    @PostMapping(value = "/crear-con-usuario/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<EstadoIngestaResponse> crearSolicitudConUsuarioAsync(
+            @RequestParam("tipoPrestamo") String tipoPrestamo,
+            @RequestParam("montoSolicitado") BigDecimal montoSolicitado,
+            @RequestParam("plazoSolicitado") Integer plazoSolicitado,
+            @RequestParam("tasaInteres") BigDecimal tasaInteres,
+            @RequestParam("valorPropiedad") BigDecimal valorPropiedad,
+            @RequestParam("comprobanteAvaluo") MultipartFile comprobanteAvaluo,
+            @RequestParam("comprobanteIngresos") MultipartFile comprobanteIngresos,
+            @RequestParam("nombreCompleto") String nombreCompleto
+    ) {
+        // El usuario se resuelve aquí para que un nombre inexistente responda 404 de inmediato
+        Solicitud solicitud = nuevaSolicitud(nombreCompleto, tipoPrestamo, montoSolicitado,
+                plazoSolicitado, tasaInteres, valorPropiedad);
+        EstadoIngestaResponse estado = ingestaSolicitudService.recibir(solicitud, comprobanteAvaluo, comprobanteIngresos);
+
+        URI ubicacion = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/solicitudes/ingestas/{id}")
+                .buildAndExpand(estado.getIdIngesta())
+                .toUri();
+        return ResponseEntity.accepted().location(ubicacion).body(estado);
+    }
+
+    /**
+     * Estado de una ingesta asíncrona; al completarse incluye el id de la solicitud creada.
+     */
+    @GetMapping("/ingestas/{idIngesta}")
+    public EstadoIngestaResponse obtenerEstadoIngesta(@PathVariable String idIngesta) {
+        return ingestaSolicitudService.obtenerEstado(idIngesta);
+    }
+
+    private Solicitud nuevaSolicitud(String nombreCompleto, String tipoPrestamo, BigDecimal montoSolicitado,
+                                     Integer plazoSolicitado, BigDecimal tasaInteres, BigDecimal valorPropiedad) {
+        Usuario usuario = usuarioService.obtenerUsuarioPorNombreCompleto(nombreCompleto)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Usuario no encontrado para nombreCompleto: " + nombreCompleto));
+        Solicitud solicitud = new Solicitud();
+        solicitud.setUsuario(usuario);
+        solicitud.setTipoPrestamo(tipoPrestamo);
+        solicitud.setMontoSolicitado(montoSolicitado);
+        solicitud.setPlazoSolicitado(plazoSolicitado);
+        solicitud.setTasaInteres(tasaInteres);
+        solicitud.setValorPropiedad(valorPropiedad);
+        solicitud.setFechaSolicitud(LocalDateTime.now());
+        // Por defecto E1: Revisión inicial
+        solicitud.setEstadoSolicitud(EstadoSolicitud.E1_REVISION_INICIAL);
+        return solicitud;
+    }
+
     @GetMapping("/usuario/nombre/{nombreCompleto}")
     public List<Solicitud> obtenerSolicitudesPorNombreUsuario(@PathVariable String nombreCompleto) {
         Optional<Usuario> usuarioOpt = usuarioService.obtenerUsuarioPorNombreCompleto(nombreCompleto);
@@ -97,6 +206,15 @@ public class SolicitudController {
         }
     }
 
+    /**
+     * Cantidades, montos y tasa de aprobación por estado y tipo de préstamo.
+     * Se leen de contadores en memoria, sin recorrer la tabla.
+     */
+    @GetMapping("/estadisticas")
+    public EstadisticasCarteraResponse obtenerEstadisticas() {
+        return estadisticasCarteraService.obtenerEstadisticas();
+    }
+
     @GetMapping("/{id}")
     public Optional<Solicitud> obtenerSolicitudPorId(@PathVariable Long id) {
         return solicitudService.obtenerSolicitudPorId(id);
@@ -107,13 +225,155 @@ public class SolicitudController {
         return solicitudService.obtenerTodasLasSolicitudes();
     }
 
+    /**
+     * Listado paginado por número de página, con filtros opcionales.
+     * Las fechas (yyyy-MM-dd) se aplican sobre fechaSolicitud, ambos extremos inclusive.
+     */
+    @GetMapping("/pagina")
+    public PaginaResponse<SolicitudResumen> obtenerPaginaDeSolicitudes(
+            @RequestParam(value = "pagina", defaultValue = "0") int pagina,
+            @RequestParam(value = "tamano", defaultValue = "20") int tamano,
+            @RequestParam(value = "estado", required = false) String estado,
+            @RequestParam(value = "tipoPrestamo", required = false) String tipoPrestamo,
+            @RequestParam(value = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta
+    ) {
+        return solicitudService.obtenerPaginaDeSolicitudes(pagina, tamano, estado, tipoPrestamo, desde, hasta);
+    }
+
+    /**
+     * Listado por cursor: enviar el siguienteCursor de la respuesta anterior como despuesDe.
+     */
+    @GetMapping("/cursor")
+    public CursorResponse<SolicitudResumen> obtenerSolicitudesPorCursor(
+            @RequestParam(value = "despuesDe", required = false) Long despuesDe,
+            @RequestParam(value = "tamano", defaultValue = "20") int tamano,
+            @RequestParam(value = "estado", required = false) String estado,
+            @RequestParam(value = "tipoPrestamo", required = false) String tipoPrestamo,
+            @RequestParam(value = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta
+    ) {
+        return solicitudService.obtenerSolicitudesDespuesDe(despuesDe, tamano, estado, tipoPrestamo, desde, hasta);
+    }
+
+    /**
+     * Exportación completa de solicitudes en CSV o NDJSON, enviada a medida que se
+     * lee la base de datos. Columnas opcionales separadas por coma; gzip opcional.
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarSolicitudes(
+            @RequestParam(value = "formato", defaultValue = "csv") String formato,
+            @RequestParam(value = "columnas", required = false) List<String> columnas,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletRequest request
+    ) {
+        boolean csv = FormatoRegistros.esCsv(formato);
+        List<String> seleccion = exportacionService.resolverColumnas(columnas);
+        // El cuerpo se escribe en modo asíncrono: el timeout de esta descarga reemplaza al general
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest()
+                .setTimeout(exportacionProperties.getTiempoMaximo().toMillis());
+
+        StreamingResponseBody cuerpo = salida -> {
+            if (gzip) {
+                GZIPOutputStream comprimido = new GZIPOutputStream(salida, 64 * 1024);
+                exportacionService.exportar(csv, seleccion, comprimido);
+                comprimido.finish();
+            } else {
+                exportacionService.exportar(csv, seleccion, salida);
+            }
+        };
+
+        // Con gzip se entrega el archivo comprimido (.gz) tal cual, sin Content-Encoding:
+        // así el cliente no lo descomprime al vuelo y lo guardado coincide con el nombre
+        MediaType tipo = gzip ? new MediaType("application", "gzip") : FormatoRegistros.tipoContenido(csv);
+        return ResponseEntity.ok()
+                .contentType(tipo)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"solicitudes." + (csv ? "csv" : "ndjson") + (gzip ? ".gz" : "") + "\"")
+                .body(cuerpo);
+    }
+
+    /**
+     * Descargar el documento adjunto n (desde 0: avalúo, ingresos) de la solicitud.
+     * Responde 304 si el cliente ya tiene la versión vigente (ETag / Last-Modified) y
+     * atiende un único rango de bytes (206) para ver PDFs por partes.
+     */
+    @GetMapping("/{id}/documentos/{n}")
+    public void descargarDocumento(@PathVariable Long id, @PathVariable("n") int indice,
+                                   HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DocumentoDescarga documento = descargaDocumentoService.obtenerDocumento(id, indice);
+        if (new ServletWebRequest(request, response)
+                .checkNotModified(documento.getEtag(), documento.getUltimaModificacion())) {
+            return;
+        }
+
+        long tamano = documento.getTamano();
+        long inicio = 0;
+        long fin = tamano - 1;
+        String rango = request.getHeader(HttpHeaders.RANGE);
+        if (rango != null && rangoVigente(request, documento)) {
+            List<HttpRange> rangos;
+            try {
+                rangos = HttpRange.parseRanges(rango);
+            } catch (IllegalArgumentException ex) {
+                rangos = List.of();
+            }
+            // Varios rangos exigirían multipart/byteranges; se responde el archivo completo
+            if (rangos.size() == 1) {
+                inicio = rangos.get(0).getRangeStart(tamano);
+                fin = rangos.get(0).getRangeEnd(tamano);
+                if (inicio >= tamano || inicio > fin) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fin + "/" + tamano);
+            }
+        }
+
+        response.setContentType(documento.getTipoContenido());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String nombre = documento.getNombre();
+        ContentDisposition.Builder disposicion = StandardCharsets.US_ASCII.newEncoder().canEncode(nombre)
+                ? ContentDisposition.inline().filename(nombre)
+                : ContentDisposition.inline().filename(nombre, StandardCharsets.UTF_8);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposicion.build().toString());
+        response.setContentLengthLong(fin - inicio + 1);
+        if (tamano > 0) {
+            descargaDocumentoService.transferir(documento, inicio, fin, request, response);
+        }
+    }
+
+    /**
+     * If-Range: el rango solo aplica si el cliente tiene la misma versión del documento.
+     */
+    private static boolean rangoVigente(HttpServletRequest request, DocumentoDescarga documento) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // La comparación para rangos es fuerte: un ETag débil nunca coincide
+            return !documento.getEtag().startsWith("W/") && ifRange.equals(documento.getEtag());
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == documento.getUltimaModificacion() / 1000;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
     /**
      * Evaluar y aprobar/rechazar la solicitud según reglas de negocio.
+     * Con "version" se exige que la solicitud no haya cambiado desde que se consultó.
      */
     @PutMapping("/{id}/evaluar")
-    public String evaluarSolicitud(@PathVariable Long id) {
-        Optional<Solicitud> optionalSolicitud = solicitudService.obtenerSolicitudPorId(id);
+    public String evaluarSolicitud(@PathVariable Long id,
+                                   @RequestParam(value = "version", required = false) Long version) {
+        Optional<Solicitud> optionalSolicitud = solicitudService.obtenerSolicitudParaEvaluar(id);
         if (optionalSolicitud.isPresent()) {
+            solicitudService.verificarVersion(optionalSolicitud.get(), version);
             String resultado = solicitudService.evaluarSolicitud(optionalSolicitud.get());
             return "La solicitud ha sido " + resultado;
         } else {
@@ -122,20 +382,57 @@ public class SolicitudController {
     }
 
     /**
-     * Cambiar estado de la solicitud (por ejemplo, E2, E3, E4, etc.)
-     * Aplica si deseas un endpoint para transicionar manualmente.
+     * Evaluación en seco: todas las reglas incumplidas y los indicadores calculados,
+     * sin cambiar el estado ni guardar la solicitud.
      */
-    @PutMapping("/{id}/cambiar-estado")
-    public Solicitud cambiarEstado(@PathVariable Long id, @RequestParam("nuevoEstado") String nuevoEstado) {
-        Optional<Solicitud> solicitudOpt = solicitudService.obtenerSolicitudPorId(id);
-        if (solicitudOpt.isEmpty()) {
-            throw new ResourceNotFoundException("Solicitud no encontrada");
-        }
-        Solicitud sol = solicitudOpt.get();
+    @GetMapping("/{id}/explicar-evaluacion")
+    public ExplicacionEvaluacionResponse explicarEvaluacion(@PathVariable Long id) {
+        return solicitudService.explicarEvaluacion(id);
+    }
 
-        // Aquí podrías aplicar validaciones de si se permite pasar de E1 -> E2, etc.
-        sol.setEstadoSolicitud(nuevoEstado);
-        return solicitudService.actualizarSolicitud(sol);
+    /**
+     * Evaluación en seco para una lista de ids (hasta 1000 por llamada).
+     */
+    @PostMapping("/explicar-evaluacion")
+    public List<ExplicacionEvaluacionResponse> explicarEvaluaciones(@RequestBody List<Long> ids) {
+        return solicitudService.explicarEvaluaciones(ids);
+    }
+
+    /**
+     * Avance de la reevaluación programada de pendientes (punto de control y totales).
+     */
+    @GetMapping("/reevaluacion")
+    public Reevaluacion obtenerReevaluacion() {
+        return reevaluacionService.obtenerEstado();
+    }
+
+    /**
+     * Inicia o retoma la reevaluación de pendientes fuera del horario programado.
+     * Corre en segundo plano; responde 409 si ya hay una en curso.
+     */
+    @PostMapping("/reevaluacion")
+    public ResponseEntity<Reevaluacion> iniciarReevaluacion() {
+        return ResponseEntity.accepted().body(reevaluacionService.iniciar());
+    }
+
+    /**
+     * Evaluar varias solicitudes de una vez (lista de ids o todas las de un estado).
+     * Devuelve el resultado por solicitud y el rendimiento del lote.
+     */
+    @PutMapping("/evaluar-lote")
+    public EvaluacionLoteResponse evaluarLote(@RequestBody EvaluacionLoteRequest request) {
+        return evaluacionLoteService.evaluarLote(request);
+    }
+
+    /**
+     * Cambiar estado de la solicitud (por ejemplo, E2, E3, E4, etc.).
+     * Acepta "E3" o "E3_EN_EVALUACION". Una transición no permitida o una
+     * "version" desactualizada responden 409.
+     */
+    @PutMapping("/{id}/cambiar-estado")
+    public Solicitud cambiarEstado(@PathVariable Long id, @RequestParam("nuevoEstado") String nuevoEstado,
+                                   @RequestParam(value = "version", required = false) Long version) {
+        return solicitudService.cambiarEstado(id, nuevoEstado, version);
     }
 
     /**
@@ -144,44 +441,39 @@ public class SolicitudController {
      */
     @PostMapping("/simular")
     public SimulacionResponse simularPrestamo(@RequestBody SimulacionRequest request) {
-        BigDecimal monto = request.getMontoDeseado();
-        BigDecimal tasaAnual = request.getTasaInteres();
-        Integer plazoAnios = request.getPlazo() == null ? 0 : request.getPlazo();
-        int plazoMeses = plazoAnios * 12;
-
-        // Calcular cuota mensual
-        BigDecimal tasaMensual = tasaAnual.divide(BigDecimal.valueOf(12 * 100), 10, RoundingMode.HALF_UP);
-        BigDecimal unoMasR = BigDecimal.ONE.add(tasaMensual);
-        BigDecimal potencia = unoMasR.pow(plazoMeses, MathContext.DECIMAL128);
-
-        BigDecimal cuotaMensual = BigDecimal.ZERO;
-        if (potencia.compareTo(BigDecimal.ONE) != 0) {
-            cuotaMensual = monto.multiply(tasaMensual.multiply(potencia))
-                    .divide(potencia.subtract(BigDecimal.ONE), 2, RoundingMode.HALF_UP);
-        }
-
-        // Calcular total pagado e intereses
-        BigDecimal totalPagado = cuotaMensual.multiply(new BigDecimal(plazoMeses));
-        BigDecimal totalIntereses = totalPagado.subtract(monto);
+        return simulacionService.simular(request);
+    }
 
-        // Calcular costos adicionales (opcional)
-        BigDecimal costosAdicionales = BigDecimal.ZERO;
-        if (request.getSeguros() != null) {
-            costosAdicionales = costosAdicionales.add(request.getSeguros());
-        }
-        if (request.getComisiones() != null) {
-            costosAdicionales = costosAdicionales.add(request.getComisiones());
-        }
+    /**
+     * Matriz de sensibilidad: simula cada combinación de tasa y plazo en una sola llamada.
+     */
+    @PostMapping("/simular/matriz")
+    public MatrizSimulacionResponse simularMatriz(@RequestBody MatrizSimulacionRequest request) {
+        return simulacionService.simularMatriz(request);
+    }
 
-        BigDecimal totalFinal = totalPagado.add(costosAdicionales);
+    /**
+     * Aciertos, fallos, desalojos y tiempo de carga de la caché de simulaciones.
+     */
+    @GetMapping("/simular/cache")
+    public EstadisticasCacheResponse estadisticasCacheSimulacion() {
+        return simulacionService.estadisticasCache();
+    }
 
-        SimulacionResponse response = new SimulacionResponse();
-        response.setCuotaMensual(cuotaMensual);
-        response.setTotalPagado(totalPagado);
-        response.setTotalIntereses(totalIntereses);
-        response.setCostosAdicionales(costosAdicionales);
-        response.setTotalFinal(totalFinal);
+    /**
+     * Tabla de amortización completa (cuota, interés, capital y saldo por mes),
+     * enviada fila a fila como NDJSON o CSV. Acepta prepagos opcionales.
+     */
+    @PostMapping("/simular/tabla")
+    public ResponseEntity<StreamingResponseBody> tablaAmortizacion(
+            @RequestBody SimulacionRequest request,
+            @RequestParam(value = "formato", defaultValue = "ndjson") String formato
+    ) {
+        // Validar antes de empezar a responder, para poder devolver el error completo
+        MediaType tipoContenido = FormatoRegistros.tipoContenido(FormatoRegistros.esCsv(formato));
+        TablaAmortizacion tabla = simulacionService.generarTabla(request);
 
-        return response;
+        StreamingResponseBody cuerpo = salida -> simulacionService.escribirTabla(tabla, formato, salida);
+        return ResponseEntity.ok().contentType(tipoContenido).body(cuerpo);
     }
 }
@@ -1,11 +1,18 @@
 package com.prestabanco.app.controller;
 
+import com.prestabanco.app.dto.CursorResponse;
+import com.prestabanco.app.dto.EstadisticasCacheResponse;
+import com.prestabanco.app.dto.PaginaResponse;
+import com.prestabanco.app.dto.PrecalificacionResponse;
 import com.prestabanco.app.entity.Usuario;
 import com.prestabanco.app.exception.ResourceNotFoundException;
+import com.prestabanco.app.service.PrecalificacionService;
 import com.prestabanco.app.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,11 +24,19 @@ public class UsuarioController {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private PrecalificacionService precalificacionService;
+
     @PostMapping("/registrar")
     public Usuario registrarUsuario(@RequestBody Usuario usuario) {
         return usuarioService.registrarUsuario(usuario);
     }
 
+    @PutMapping("/{id}")
+    public Usuario actualizarUsuario(@PathVariable Long id, @RequestBody Usuario usuario) {
+        return usuarioService.actualizarUsuario(id, usuario);
+    }
+
     @GetMapping("/{id}")
     public Optional<Usuario> obtenerUsuarioPorId(@PathVariable Long id) {
         Optional<Usuario> usuarioOpt = usuarioService.obtenerUsuarioPorId(id);
@@ -40,8 +55,57 @@ public class UsuarioController {
         return usuarioOpt;
     }
 
+    @GetMapping("/identificacion/{tipoIdentificacion}/{numeroIdentificacion}")
+    public Usuario obtenerUsuarioPorIdentificacion(@PathVariable String tipoIdentificacion,
+                                                   @PathVariable String numeroIdentificacion) {
+        return usuarioService.obtenerUsuarioPorIdentificacion(tipoIdentificacion, numeroIdentificacion)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado para identificación: "
+                        + tipoIdentificacion + " " + numeroIdentificacion));
+    }
+
+    /**
+     * Monto máximo al que podría optar el usuario por tipo de préstamo y plazo,
+     * sin crear una solicitud. valorPropiedad aplica el tope de financiamiento;
+     * plazo (en años) limita la respuesta a ese plazo.
+     */
+    @GetMapping("/{id}/precalificacion")
+    public PrecalificacionResponse precalificar(@PathVariable Long id,
+                                                @RequestParam(value = "valorPropiedad", required = false) BigDecimal valorPropiedad,
+                                                @RequestParam(value = "plazo", required = false) Integer plazo) {
+        return precalificacionService.precalificar(id, valorPropiedad, plazo);
+    }
+
+    /**
+     * Aciertos y fallos de las cachés de búsqueda por nombre e identificación y de precalificación.
+     */
+    @GetMapping("/cache")
+    public List<EstadisticasCacheResponse> estadisticasCache() {
+        List<EstadisticasCacheResponse> estadisticas = new ArrayList<>(usuarioService.estadisticasCache());
+        estadisticas.add(precalificacionService.estadisticasCache());
+        return estadisticas;
+    }
+
     @GetMapping
     public List<Usuario> obtenerTodosLosUsuarios() {
         return usuarioService.obtenerTodosLosUsuarios();
     }
+
+    @GetMapping("/pagina")
+    public PaginaResponse<Usuario> obtenerPaginaDeUsuarios(
+            @RequestParam(value = "pagina", defaultValue = "0") int pagina,
+            @RequestParam(value = "tamano", defaultValue = "20") int tamano
+    ) {
+        return usuarioService.obtenerPaginaDeUsuarios(pagina, tamano);
+    }
+
+    /**
+     * Listado por cursor: enviar el siguienteCursor de la respuesta anterior como despuesDe.
+     */
+    @GetMapping("/cursor")
+    public CursorResponse<Usuario> obtenerUsuariosPorCursor(
+            @RequestParam(value = "despuesDe", required = false) Long despuesDe,
+            @RequestParam(value = "tamano", defaultValue = "20") int tamano
+    ) {
+        return usuarioService.obtenerUsuariosDespuesDe(despuesDe, tamano);
+    }
 }
@@ -0,0 +1,18 @@
+package com.prestabanco.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CuotaAmortizacion {
+    private int mes;
+    private BigDecimal cuota;
+    private BigDecimal interes;
+    private BigDecimal capital;
+    private BigDecimal prepago;
+    private BigDecimal saldo;   // saldo pendiente tras la cuota y el prepago del mes
+}
@@ -0,0 +1,15 @@
+package com.prestabanco.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorResponse<T> {
+    private List<T> contenido;
+    // Id a enviar como "despuesDe" para la siguiente página; null si no hay más
+    private Long siguienteCursor;
+}
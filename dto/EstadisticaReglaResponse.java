@@ -0,0 +1,15 @@
+package com.prestabanco.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticaReglaResponse {
+    private String codigo;
+    private long evaluaciones;
+    private long rechazos;
+    private double tiempoPromedioNanos;
+}
@@ -0,0 +1,17 @@
+package com.prestabanco.app.dto;
+
+import lombok.Data;
+
+@Data
+public class EstadisticasCacheResponse {
+    private String nombre;
+    private int tamano;
+    private int tamanoMaximo;
+    private long aciertos;
+    private long fallos;
+    private double tasaAciertos;
+    private long desalojos;
+    private long expirados;
+    private long cargas;
+    private double tiempoPromedioCargaMs;
+}
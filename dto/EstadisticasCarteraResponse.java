@@ -0,0 +1,29 @@
+package com.prestabanco.app.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+public class EstadisticasCarteraResponse {
+    private long totalSolicitudes;
+    private BigDecimal montoTotalSolicitado;
+    private long aprobadas;   // E6 y E9 (la aprobación ya ocurrió)
+    private long rechazadas;  // E7
+    private double tasaAprobacion; // aprobadas / (aprobadas + rechazadas)
+    private Map<String, Grupo> porEstado;
+    private Map<String, Grupo> porTipoPrestamo;
+    private LocalDateTime ultimaConciliacion;
+    private long diferenciasUltimaConciliacion; // solicitudes mal contadas que corrigió la última conciliación
+
+    @Data
+    public static class Grupo {
+        private long cantidad;
+        private BigDecimal montoSolicitado;
+        private long aprobadas;
+        private long rechazadas;
+        private double tasaAprobacion;
+    }
+}
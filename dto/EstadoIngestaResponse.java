@@ -0,0 +1,19 @@
+package com.prestabanco.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadoIngestaResponse {
+    private String idIngesta;
+    private String estado;           // PENDIENTE, PROCESANDO, COMPLETADA o ERROR
+    private Long idSolicitud;        // disponible al completarse
+    private String mensaje;          // motivo del error, si lo hubo
+    private LocalDateTime fechaRecepcion;
+    private LocalDateTime fechaTermino;
+}
@@ -0,0 +1,12 @@
+package com.prestabanco.app.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class EvaluacionLoteRequest {
+    // Evaluar estas solicitudes...
+    private List<Long> ids;
+    // ...o todas las que estén en este estado (ej. "E1_REVISION_INICIAL" o "E1")
+    private String estadoSolicitud;
+}
@@ -0,0 +1,15 @@
+package com.prestabanco.app.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class EvaluacionLoteResponse {
+    private int totalSolicitudes;
+    private int aprobadas;
+    private int rechazadas;
+    private int errores;
+    private long duracionMs;
+    private double solicitudesPorSegundo;
+    private List<ResultadoEvaluacionLote> resultados;
+}
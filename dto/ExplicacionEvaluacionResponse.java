@@ -0,0 +1,34 @@
+package com.prestabanco.app.dto;
+
+import com.prestabanco.app.entity.EstadoSolicitud;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado de evaluar una solicitud en modo explicación: qué pasaría, con
+ * todas las reglas incumplidas, sin modificar la solicitud.
+ */
+@Data
+public class ExplicacionEvaluacionResponse {
+    private Long idSolicitud;
+    private String resultado; // "APROBADA", "RECHAZADA" o "NO_ENCONTRADA"
+    private EstadoSolicitud estadoSolicitud;
+    private boolean admiteEvaluacion; // si el estado actual permite evaluar de verdad
+    private BigDecimal cuotaMensual;
+    private BigDecimal relacionCuotaIngreso;
+    private BigDecimal relacionDeudaIngreso;
+    private Integer edadSolicitanteAlTermino;
+    private List<ReglaIncumplida> reglasIncumplidas;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReglaIncumplida {
+        private String codigo;
+        private String mensaje;
+    }
+}
@@ -0,0 +1,24 @@
+package com.prestabanco.app.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ImportacionResponse {
+    private String idImportacion;
+    private String tipo;
+    private String formato;
+    private String estado;
+    private long registrosProcesados; // total, incluidas ejecuciones anteriores
+    private long insertados;
+    private long rechazados;
+    private long registrosOmitidos;   // ya procesados en una ejecución anterior (punto de control)
+    private long registrosLeidos;     // procesados en esta ejecución
+    private long duracionMs;
+    private double registrosPorSegundo;
+    private String reporteRechazos;   // ruta para descargar los rechazados
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaActualizacion;
+    private String mensajeError;
+}
@@ -0,0 +1,23 @@
+package com.prestabanco.app.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class MatrizSimulacionRequest {
+    private BigDecimal montoDeseado;
+
+    // Rango de plazos en años (inclusive)
+    private Integer plazoMinimo;
+    private Integer plazoMaximo;
+    private Integer pasoPlazo = 1;
+
+    // Rango de tasas anuales en porcentaje (inclusive)
+    private BigDecimal tasaMinima;
+    private BigDecimal tasaMaxima;
+    private BigDecimal pasoTasa = new BigDecimal("0.5");
+
+    // Opcionales, se suman a cada celda igual que en /simular
+    private BigDecimal seguros;
+    private BigDecimal comisiones;
+}
@@ -0,0 +1,13 @@
+package com.prestabanco.app.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class MatrizSimulacionResponse {
+    private BigDecimal montoDeseado;
+    private List<Integer> plazos;               // columnas, en años
+    private List<BigDecimal> tasas;             // filas, en porcentaje
+    private List<List<SimulacionResponse>> celdas; // celdas[fila de tasa][columna de plazo]
+}
@@ -0,0 +1,24 @@
+package com.prestabanco.app.dto;
+
+import lombok.Data;
+import org.springframework.data.domain.Page;
+import java.util.List;
+
+@Data
+public class PaginaResponse<T> {
+    private List<T> contenido;
+    private int pagina;
+    private int tamano;
+    private long totalElementos;
+    private int totalPaginas;
+
+    public static <T> PaginaResponse<T> desde(Page<T> page) {
+        PaginaResponse<T> response = new PaginaResponse<>();
+        response.setContenido(page.getContent());
+        response.setPagina(page.getNumber());
+        response.setTamano(page.getSize());
+        response.setTotalElementos(page.getTotalElements());
+        response.setTotalPaginas(page.getTotalPages());
+        return response;
+    }
+}
@@ -0,0 +1,35 @@
+package com.prestabanco.app.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class PrecalificacionResponse {
+    private Long idUsuario;
+    private int edad;
+    private BigDecimal relacionDeudaIngreso;
+    private BigDecimal cuotaMaximaMensual;   // R1: relación cuota/ingreso máxima × ingresos mensuales
+    private BigDecimal valorPropiedad;       // opcional: activa el tope de financiamiento por tipo
+    private boolean califica;
+    private List<String> observaciones;      // reglas del usuario que hoy llevarían al rechazo
+    private List<Tipo> tipos;
+
+    @Data
+    public static class Tipo {
+        private String tipoPrestamo;
+        private BigDecimal tasaMinima;
+        private BigDecimal tasaMaxima;
+        private int plazoMaximo;                      // en años, considerando también R4 y R5
+        private BigDecimal montoMaximoFinanciamiento; // % de financiamiento × valorPropiedad, si se indicó
+        private List<Opcion> opciones;
+    }
+
+    @Data
+    public static class Opcion {
+        private int plazo; // en años
+        private BigDecimal montoMaximoConTasaMinima;
+        private BigDecimal montoMaximoConTasaMaxima;
+    }
+}
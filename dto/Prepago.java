@@ -0,0 +1,10 @@
+package com.prestabanco.app.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class Prepago {
+    private Integer mes;       // mes (1..n) en que se abona, después de pagar la cuota
+    private BigDecimal monto;  // abono extraordinario a capital
+}
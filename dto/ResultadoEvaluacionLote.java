@@ -0,0 +1,14 @@
+package com.prestabanco.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoEvaluacionLote {
+    private Long idSolicitud;
+    private String resultado; // "APROBADA", "RECHAZADA", "ERROR", "CONFLICTO" o "NO_ENCONTRADA"
+    private String detalle;
+}
@@ -2,6 +2,7 @@ package com.prestabanco.app.dto;
 
 import lombok.Data;
 import java.math.BigDecimal;
+import java.util.List;
 
 @Data
 public class SimulacionRequest {
@@ -13,4 +14,7 @@ public class SimulacionRequest {
     // Opcionales: si quisieras manejar costos extra
     private BigDecimal seguros;       // Ej. costo de seguros
     private BigDecimal comisiones;    // Ej. comisiones fijas
+
+    // Opcional, solo para la tabla de amortización: abonos extraordinarios
+    private List<Prepago> prepagos;
 }
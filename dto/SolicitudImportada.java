@@ -0,0 +1,25 @@
+package com.prestabanco.app.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Registro de solicitud en una importación. El usuario se indica por idUsuario
+ * o por su identificación; estado y fecha son opcionales (E1 y ahora).
+ */
+@Data
+public class SolicitudImportada {
+    private Long idUsuario;
+    private String tipoIdentificacion;
+    private String numeroIdentificacion;
+    private String tipoPrestamo;
+    private BigDecimal montoSolicitado;
+    private Integer plazoSolicitado;
+    private BigDecimal tasaInteres;
+    private BigDecimal valorPropiedad;
+    private String estadoSolicitud;
+    private LocalDateTime fechaSolicitud;
+    private String comentariosSeguimiento;
+}
@@ -0,0 +1,28 @@
+package com.prestabanco.app.dto;
+
+import com.prestabanco.app.entity.EstadoSolicitud;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Vista liviana de una solicitud para listados: solo lo que muestra el panel,
+ * con el usuario reducido a id y nombre.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SolicitudResumen {
+    private Long idSolicitud;
+    private LocalDateTime fechaSolicitud;
+    private String tipoPrestamo;
+    private BigDecimal montoSolicitado;
+    private Integer plazoSolicitado;
+    private BigDecimal tasaInteres;
+    private EstadoSolicitud estadoSolicitud;
+    private Long idUsuario;
+    private String nombreCompleto;
+}
@@ -0,0 +1,27 @@
+package com.prestabanco.app.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Archivo almacenado por contenido. Varias solicitudes pueden apuntar al mismo
+ * archivo; referencias cuenta cuántas lo usan para saber cuándo borrarlo.
+ */
+@Entity
+@Table(name = "documentos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Documento {
+
+    @Id
+    @Column(length = 64)
+    private String hash;           // SHA-256 en hexadecimal
+
+    private Long tamano;           // en bytes
+    private Integer referencias;
+    private String nombreOriginal; // nombre con que se subió por primera vez
+    private LocalDateTime fechaCreacion;
+}
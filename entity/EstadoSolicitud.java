@@ -0,0 +1,99 @@
+package com.prestabanco.app.entity;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estados de una solicitud (E1..E9 según enunciado) y las transiciones
+ * permitidas entre ellos. En base de datos se guarda solo el número del
+ * estado (ver {@link EstadoSolicitudConverter}); hacia la API se expone el
+ * nombre completo, igual que cuando el campo era texto.
+ */
+public enum EstadoSolicitud {
+    E1_REVISION_INICIAL(1, "Revisión inicial"),
+    E2_PENDIENTE_DOCUMENTACION(2, "Pendiente de documentación"),
+    E3_EN_EVALUACION(3, "En evaluación"),
+    E4_PRE_APROBADA(4, "Pre-aprobada"),
+    E5_APROBACION_FINAL(5, "En aprobación final"),
+    E6_APROBADA(6, "Aprobada"),
+    E7_RECHAZADA(7, "Rechazada"),
+    E8_CANCELADA(8, "Cancelada por el cliente"),
+    E9_EN_DESEMBOLSO(9, "En desembolso");
+
+    private static final EstadoSolicitud[] POR_CODIGO = new EstadoSolicitud[10];
+    private static final Map<String, EstadoSolicitud> POR_NOMBRE = new HashMap<>();
+
+    static {
+        E1_REVISION_INICIAL.permitir(E2_PENDIENTE_DOCUMENTACION, E3_EN_EVALUACION, E6_APROBADA, E7_RECHAZADA, E8_CANCELADA);
+        E2_PENDIENTE_DOCUMENTACION.permitir(E1_REVISION_INICIAL, E3_EN_EVALUACION, E6_APROBADA, E7_RECHAZADA, E8_CANCELADA);
+        E3_EN_EVALUACION.permitir(E2_PENDIENTE_DOCUMENTACION, E4_PRE_APROBADA, E6_APROBADA, E7_RECHAZADA, E8_CANCELADA);
+        E4_PRE_APROBADA.permitir(E5_APROBACION_FINAL, E6_APROBADA, E7_RECHAZADA, E8_CANCELADA);
+        E5_APROBACION_FINAL.permitir(E6_APROBADA, E7_RECHAZADA, E8_CANCELADA);
+        E6_APROBADA.permitir(E9_EN_DESEMBOLSO, E8_CANCELADA);
+        // E7, E8 y E9 son terminales
+
+        for (EstadoSolicitud estado : values()) {
+            POR_CODIGO[estado.codigo] = estado;
+            POR_NOMBRE.put(estado.name(), estado);
+            POR_NOMBRE.put("E" + estado.codigo, estado);
+        }
+    }
+
+    private final short codigo;
+    private final String descripcion;
+    private Set<EstadoSolicitud> siguientes = Collections.emptySet();
+
+    EstadoSolicitud(int codigo, String descripcion) {
+        this.codigo = (short) codigo;
+        this.descripcion = descripcion;
+    }
+
+    private void permitir(EstadoSolicitud primero, EstadoSolicitud... resto) {
+        this.siguientes = Collections.unmodifiableSet(EnumSet.of(primero, resto));
+    }
+
+    public short getCodigo() {
+        return codigo;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public Set<EstadoSolicitud> getSiguientes() {
+        return siguientes;
+    }
+
+    public boolean puedeCambiarA(EstadoSolicitud destino) {
+        return siguientes.contains(destino);
+    }
+
+    public boolean esTerminal() {
+        return siguientes.isEmpty();
+    }
+
+    /** La evaluación automática deja la solicitud en E6 o E7, así que ambos destinos deben estar permitidos. */
+    public boolean admiteEvaluacion() {
+        return puedeCambiarA(E6_APROBADA) && puedeCambiarA(E7_RECHAZADA);
+    }
+
+    public static EstadoSolicitud desdeCodigo(short codigo) {
+        if (codigo <= 0 || codigo >= POR_CODIGO.length) {
+            throw new IllegalArgumentException("Código de estado desconocido: " + codigo);
+        }
+        return POR_CODIGO[codigo];
+    }
+
+    /**
+     * Acepta el nombre completo ("E6_APROBADA") o solo el prefijo ("E6"),
+     * sin distinguir mayúsculas. Retorna null si no corresponde a ninguno.
+     */
+    public static EstadoSolicitud desdeNombre(String nombre) {
+        if (nombre == null) return null;
+        EstadoSolicitud estado = POR_NOMBRE.get(nombre);
+        return estado != null ? estado : POR_NOMBRE.get(nombre.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,23 @@
+package com.prestabanco.app.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Guarda el estado como SMALLINT (1..9) en vez del nombre completo: la
+ * columna y su índice quedan de 2 bytes por fila y los filtros por estado
+ * comparan enteros.
+ */
+@Converter(autoApply = true)
+public class EstadoSolicitudConverter implements AttributeConverter<EstadoSolicitud, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(EstadoSolicitud estado) {
+        return estado == null ? null : estado.getCodigo();
+    }
+
+    @Override
+    public EstadoSolicitud convertToEntityAttribute(Short codigo) {
+        return codigo == null ? null : EstadoSolicitud.desdeCodigo(codigo);
+    }
+}
@@ -0,0 +1,20 @@
+package com.prestabanco.app.entity;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Lo que cuenta para las estadísticas de cartera de una solicitud, tal como
+ * estaba la última vez que se leyó o escribió en la base de datos.
+ */
+@Value
+public class FotoCartera {
+    EstadoSolicitud estado;
+    String tipoPrestamo;
+    BigDecimal montoSolicitado;
+
+    public static FotoCartera de(Solicitud solicitud) {
+        return new FotoCartera(solicitud.getEstadoSolicitud(), solicitud.getTipoPrestamo(), solicitud.getMontoSolicitado());
+    }
+}
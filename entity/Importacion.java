@@ -0,0 +1,41 @@
+package com.prestabanco.app.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Punto de control de una importación masiva. Se actualiza en la misma
+ * transacción que cada lote insertado: si la importación se corta, al
+ * reenviar el archivo con el mismo id se retoma desde el último lote guardado.
+ */
+@Entity
+@Table(name = "importaciones")
+@Data
+@NoArgsConstructor
+public class Importacion {
+
+    public static final String EN_CURSO = "EN_CURSO";
+    public static final String COMPLETADA = "COMPLETADA";
+    public static final String ERROR = "ERROR";
+
+    @Id
+    private String idImportacion;
+
+    private String tipo;     // "usuarios" o "solicitudes"
+    private String formato;  // "csv" o "ndjson"
+    private String estado;
+
+    // Registros del archivo ya resueltos (insertados o rechazados), en orden
+    private long registrosProcesados;
+    private long insertados;
+    private long rechazados;
+
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaActualizacion;
+    private String mensajeError;
+}
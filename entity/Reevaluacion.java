@@ -0,0 +1,47 @@
+package com.prestabanco.app.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Punto de control de la reevaluación programada de solicitudes pendientes.
+ * Avanza después de confirmar cada bloque: si el proceso se corta, la próxima
+ * ejecución sigue desde la última solicitud confirmada en vez de empezar de cero.
+ */
+@Entity
+@Table(name = "reevaluaciones")
+@Data
+@NoArgsConstructor
+public class Reevaluacion {
+
+    public static final String PENDIENTES = "pendientes";
+
+    public static final String EN_CURSO = "EN_CURSO";
+    public static final String PAUSADA = "PAUSADA";       // se alcanzó el fin de la ventana horaria
+    public static final String COMPLETADA = "COMPLETADA";
+    public static final String ERROR = "ERROR";
+
+    @Id
+    private String idReevaluacion;
+
+    private String estado;
+
+    // Recorrido por idSolicitud: la pasada continúa con los ids mayores a este
+    private long ultimoIdSolicitud;
+
+    private long procesadas;
+    private long aprobadas;
+    private long rechazadas;
+    private long conflictos;
+    private long errores;
+
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaActualizacion;
+    private LocalDateTime fechaFin;
+    private String mensajeError;
+}
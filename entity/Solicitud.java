@@ -1,22 +1,34 @@
 package com.prestabanco.app.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.prestabanco.app.service.EstadisticasCarteraListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "solicitudes")
+@Table(name = "solicitudes", indexes = {
+        @Index(name = "idx_solicitudes_usuario", columnList = "idUsuario"),
+        @Index(name = "idx_solicitudes_estado", columnList = "estadoSolicitud, idSolicitud"),
+        @Index(name = "idx_solicitudes_tipo", columnList = "tipoPrestamo, idSolicitud"),
+        @Index(name = "idx_solicitudes_fecha", columnList = "fechaSolicitud")
+})
+@EntityListeners(EstadisticasCarteraListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Solicitud {
 
+    // Secuencia con optimizador pooled: un viaje a la base cada 50 ids y los INSERT pueden ir en batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "solicitudes_seq")
+    @SequenceGenerator(name = "solicitudes_seq", sequenceName = "solicitudes_seq", allocationSize = 50)
     private Long idSolicitud;
 
-    @ManyToOne
+    // LAZY: cada consulta decide si necesita el usuario (ver EntityGraph en SolicitudRepository)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "idUsuario")
     private Usuario usuario;
 
@@ -33,18 +45,10 @@ public class Solicitud {
     private BigDecimal relacionDeudaIngreso;
 
     /**
-     * Estados posibles (E1..E9) según enunciado:
-     * E1: Revisión inicial
-     * E2: Pendiente de documentación
-     * E3: En evaluación
-     * E4: Pre-aprobada
-     * E5: En aprobación final
-     * E6: Aprobada
-     * E7: Rechazada
-     * E8: Cancelada
-     * E9: En desembolso
+     * Estados posibles (E1..E9) según enunciado y sus transiciones: ver {@link EstadoSolicitud}.
+     * Se guarda como SMALLINT mediante {@link EstadoSolicitudConverter}.
      */
-    private String estadoSolicitud;
+    private EstadoSolicitud estadoSolicitud;
 
     private String documentosAdjuntos;  // Rutas a documentos
     private String resultadoEvaluacionHistorialCrediticio;
@@ -56,6 +60,21 @@ public class Solicitud {
     private LocalDateTime fechaDesembolso;
     private String comentariosSeguimiento;
 
+    // Bloqueo optimista: dos ejecutivos no pueden pisar el cambio del otro. Con default 0
+    // la columna se agrega completa en tablas existentes; PersistenciaConfig completa las que
+    // ya la tenían con null
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Transient
     private String nombreCompleto; // Campo auxiliar (no persistente)
+
+    // Estado, tipo y monto como quedaron en la base: el listener de estadísticas resta esta foto al cambiar
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private FotoCartera fotoCartera;
 }
@@ -0,0 +1,50 @@
+package com.prestabanco.app.entity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tipos de préstamo soportados. La solicitud guarda el nombre ("PRIMERA VIVIENDA", ...),
+ * este enum sirve de llave para las políticas compiladas.
+ */
+public enum TipoPrestamo {
+    PRIMERA_VIVIENDA("PRIMERA VIVIENDA", "Primera Vivienda"),
+    SEGUNDA_VIVIENDA("SEGUNDA VIVIENDA", "Segunda Vivienda"),
+    PROPIEDADES_COMERCIALES("PROPIEDADES COMERCIALES", "Propiedades Comerciales"),
+    REMODELACION("REMODELACIÓN", "Remodelación");
+
+    private static final Map<String, TipoPrestamo> POR_NOMBRE = new HashMap<>();
+
+    static {
+        for (TipoPrestamo tipo : values()) {
+            POR_NOMBRE.put(tipo.nombre, tipo);
+            POR_NOMBRE.put(tipo.name(), tipo);
+        }
+    }
+
+    private final String nombre;
+    private final String descripcion;
+
+    TipoPrestamo(String nombre, String descripcion) {
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * Busca el tipo por su nombre. Solo se pasa a mayúsculas si el valor no
+     * viene ya en la forma canónica. Retorna null si no corresponde a ninguno.
+     */
+    public static TipoPrestamo desdeNombre(String nombre) {
+        if (nombre == null) return null;
+        TipoPrestamo tipo = POR_NOMBRE.get(nombre);
+        return tipo != null ? tipo : POR_NOMBRE.get(nombre.toUpperCase());
+    }
+}
@@ -1,21 +1,29 @@
 package com.prestabanco.app.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "usuarios")
+@Table(name = "usuarios", indexes = {
+        @Index(name = "idx_usuarios_nombre", columnList = "nombreCompleto"),
+        @Index(name = "uk_usuarios_identificacion", columnList = "tipoIdentificacion, numeroIdentificacion", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Usuario {
 
+    // Secuencia con optimizador pooled: un viaje a la base cada 50 ids y los INSERT pueden ir en batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_seq", allocationSize = 50)
     private Long idUsuario;
 
     private String nombreCompleto;
@@ -39,4 +47,10 @@ public class Usuario {
     private String tipoUsuario;           // "CLIENTE" o "EJECUTIVO"
     private String capacidadAhorro;       // "ADECUADA" o "INSUFICIENTE"
     private BigDecimal deudasActuales;    // Monto total de deudas actuales
+
+    // Cambia con cada actualización; las cachés derivadas del usuario la usan como parte de la clave
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
@@ -1,5 +1,10 @@
 package com.prestabanco.app.exception;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Datos de la petición que no cumplen una regla de negocio: error del cliente
+@ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BusinessException extends RuntimeException {
     public BusinessException(String message) {
         super(message);
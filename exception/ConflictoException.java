@@ -0,0 +1,11 @@
+package com.prestabanco.app.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictoException extends RuntimeException {
+    public ConflictoException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,11 @@
+package com.prestabanco.app.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class ServicioSaturadoException extends RuntimeException {
+    public ServicioSaturadoException(String mensaje) {
+        super(mensaje);
+    }
+}
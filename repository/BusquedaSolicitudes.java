@@ -0,0 +1,23 @@
+package com.prestabanco.app.repository;
+
+import com.prestabanco.app.dto.SolicitudResumen;
+import com.prestabanco.app.entity.EstadoSolicitud;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Listados de solicitudes con filtros opcionales (estado, tipo, rango de fechas).
+ * Un filtro null no se agrega a la consulta.
+ */
+public interface BusquedaSolicitudes {
+
+    Page<SolicitudResumen> buscar(EstadoSolicitud estado, String tipo, LocalDateTime desde, LocalDateTime hasta,
+                                  Pageable pageable);
+
+    // Paginación por cursor (keyset): recorre el índice desde el último id visto
+    List<SolicitudResumen> buscarDespuesDe(Long despuesDe, EstadoSolicitud estado, String tipo,
+                                           LocalDateTime desde, LocalDateTime hasta, Pageable limite);
+}
@@ -0,0 +1,104 @@
+package com.prestabanco.app.repository;
+
+import com.prestabanco.app.dto.SolicitudResumen;
+import com.prestabanco.app.entity.EstadoSolicitud;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.entity.Usuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arma las consultas con Criteria agregando solo los filtros presentes. Con
+ * predicados del tipo "(:x is null or ...)" el plan no depende de los valores y la
+ * base suele descartar los índices (estado, id), (tipo, id) y fecha; así cada
+ * combinación de filtros tiene su propia consulta y puede usar el índice que le sirve.
+ */
+class BusquedaSolicitudesImpl implements BusquedaSolicitudes {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<SolicitudResumen> buscar(EstadoSolicitud estado, String tipo, LocalDateTime desde, LocalDateTime hasta,
+                                         Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SolicitudResumen> query = cb.createQuery(SolicitudResumen.class);
+        Root<Solicitud> s = query.from(Solicitud.class);
+        query.select(resumen(cb, s))
+                .where(filtros(cb, s, estado, tipo, desde, hasta).toArray(Predicate[]::new))
+                .orderBy(QueryUtils.toOrders(pageable.getSortOr(Sort.by("idSolicitud")), s, cb));
+        List<SolicitudResumen> contenido = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        // El conteo solo se ejecuta cuando la página no alcanza a decir el total
+        return PageableExecutionUtils.getPage(contenido, pageable, () -> contar(estado, tipo, desde, hasta));
+    }
+
+    @Override
+    public List<SolicitudResumen> buscarDespuesDe(Long despuesDe, EstadoSolicitud estado, String tipo,
+                                                  LocalDateTime desde, LocalDateTime hasta, Pageable limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SolicitudResumen> query = cb.createQuery(SolicitudResumen.class);
+        Root<Solicitud> s = query.from(Solicitud.class);
+        List<Predicate> predicados = filtros(cb, s, estado, tipo, desde, hasta);
+        predicados.add(cb.greaterThan(s.get("idSolicitud"), despuesDe));
+        query.select(resumen(cb, s))
+                .where(predicados.toArray(Predicate[]::new))
+                .orderBy(cb.asc(s.get("idSolicitud")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limite.getPageSize())
+                .getResultList();
+    }
+
+    private long contar(EstadoSolicitud estado, String tipo, LocalDateTime desde, LocalDateTime hasta) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Solicitud> s = query.from(Solicitud.class);
+        query.select(cb.count(s)).where(filtros(cb, s, estado, tipo, desde, hasta).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Proyección de los listados: la solicitud y el usuario reducido a id y nombre, en un solo SELECT
+    private static CompoundSelection<SolicitudResumen> resumen(CriteriaBuilder cb, Root<Solicitud> s) {
+        Join<Solicitud, Usuario> u = s.join("usuario", JoinType.LEFT);
+        return cb.construct(SolicitudResumen.class,
+                s.get("idSolicitud"), s.get("fechaSolicitud"), s.get("tipoPrestamo"), s.get("montoSolicitado"),
+                s.get("plazoSolicitado"), s.get("tasaInteres"), s.get("estadoSolicitud"),
+                u.get("idUsuario"), u.get("nombreCompleto"));
+    }
+
+    private static List<Predicate> filtros(CriteriaBuilder cb, Root<Solicitud> s, EstadoSolicitud estado, String tipo,
+                                           LocalDateTime desde, LocalDateTime hasta) {
+        List<Predicate> predicados = new ArrayList<>(5);
+        if (estado != null) {
+            predicados.add(cb.equal(s.get("estadoSolicitud"), estado));
+        }
+        if (tipo != null) {
+            predicados.add(cb.equal(s.get("tipoPrestamo"), tipo));
+        }
+        if (desde != null) {
+            predicados.add(cb.greaterThanOrEqualTo(s.get("fechaSolicitud"), desde));
+        }
+        if (hasta != null) {
+            predicados.add(cb.lessThan(s.get("fechaSolicitud"), hasta));
+        }
+        return predicados;
+    }
+}
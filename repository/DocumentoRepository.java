@@ -0,0 +1,35 @@
+package com.prestabanco.app.repository;
+
+import com.prestabanco.app.entity.Documento;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface DocumentoRepository extends JpaRepository<Documento, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update Documento d set d.referencias = d.referencias + 1 where d.hash = :hash")
+    int incrementarReferencias(@Param("hash") String hash);
+
+    // Inserción explícita: save() haría merge y podría pisar el contador de otra subida concurrente
+    @Transactional
+    @Modifying
+    @Query("insert into Documento (hash, tamano, referencias, nombreOriginal, fechaCreacion) "
+            + "values (:hash, :tamano, 1, :nombreOriginal, :fechaCreacion)")
+    int insertarDocumento(@Param("hash") String hash,
+                          @Param("tamano") Long tamano,
+                          @Param("nombreOriginal") String nombreOriginal,
+                          @Param("fechaCreacion") LocalDateTime fechaCreacion);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d from Documento d where d.hash = :hash")
+    Optional<Documento> findParaActualizar(@Param("hash") String hash);
+}
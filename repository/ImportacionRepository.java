@@ -0,0 +1,7 @@
+package com.prestabanco.app.repository;
+
+import com.prestabanco.app.entity.Importacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ImportacionRepository extends JpaRepository<Importacion, String> {
+}
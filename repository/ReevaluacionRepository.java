@@ -0,0 +1,7 @@
+package com.prestabanco.app.repository;
+
+import com.prestabanco.app.entity.Reevaluacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReevaluacionRepository extends JpaRepository<Reevaluacion, String> {
+}
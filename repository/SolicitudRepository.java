@@ -1,13 +1,76 @@
 package com.prestabanco.app.repository;
 
+import com.prestabanco.app.entity.EstadoSolicitud;
 import com.prestabanco.app.entity.Solicitud;
 import com.prestabanco.app.entity.Usuario;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface SolicitudRepository extends JpaRepository<Solicitud, Long> {
+public interface SolicitudRepository extends JpaRepository<Solicitud, Long>, BusquedaSolicitudes {
+
+    // El usuario es LAZY: los listados que devuelven la entidad completa lo traen en el mismo SELECT
+    @Override
+    @EntityGraph(attributePaths = "usuario")
+    List<Solicitud> findAll();
+
+    @EntityGraph(attributePaths = "usuario")
     List<Solicitud> findByUsuario(Usuario usuario);
+
+    // Detalle: solicitud y usuario en una sola consulta
+    @EntityGraph(attributePaths = "usuario")
+    Optional<Solicitud> findConUsuarioByIdSolicitud(Long idSolicitud);
+
+    // Carga un bloque de solicitudes junto a su usuario en una sola consulta
+    @Query("select s from Solicitud s left join fetch s.usuario where s.idSolicitud in :ids")
+    List<Solicitud> findAllConUsuarioByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select s.idSolicitud from Solicitud s where s.estadoSolicitud = :estado order by s.idSolicitud")
+    List<Long> findIdsByEstadoSolicitud(@Param("estado") EstadoSolicitud estado);
+
+    // Recorrido por clave (keyset) de las solicitudes en los estados indicados, de a una página
+    @Query("select s.idSolicitud from Solicitud s where s.estadoSolicitud in :estados"
+            + " and s.idSolicitud > :despuesDe order by s.idSolicitud")
+    List<Long> findIdsByEstadoInDespuesDe(@Param("estados") Collection<EstadoSolicitud> estados,
+                                          @Param("despuesDe") long despuesDe, Pageable pagina);
+
+    // Cantidad y suma de montos por estado y tipo: base para conciliar las estadísticas de cartera
+    @Query("select s.estadoSolicitud, s.tipoPrestamo, count(s), coalesce(sum(s.montoSolicitado), 0)"
+            + " from Solicitud s group by s.estadoSolicitud, s.tipoPrestamo")
+    List<Object[]> contarPorEstadoYTipo();
+
+    /**
+     * Recorre todas las solicitudes con un cursor de base de datos. Debe consumirse
+     * dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("select s from Solicitud s left join fetch s.usuario order by s.idSolicitud")
+    Stream<Solicitud> streamAllConUsuario();
+
+    // Filas creadas antes de la columna version: con versión null save() las trataría como nuevas
+    @Transactional
+    @Modifying
+    @Query("update Solicitud s set s.version = 0 where s.version is null")
+    int completarVersiones();
 }
@@ -1,10 +1,41 @@
 package com.prestabanco.app.repository;
 
 import com.prestabanco.app.entity.Usuario;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
-    Optional<Usuario> findByNombreCompleto(String nombreCompleto);
+    // nombreCompleto no es único: se toma el usuario más antiguo. Resuelto solo con el índice.
+    @Query("select min(u.idUsuario) from Usuario u where u.nombreCompleto = :nombreCompleto")
+    Long findIdByNombreCompleto(@Param("nombreCompleto") String nombreCompleto);
+
+    @Query("select u.idUsuario from Usuario u"
+            + " where u.tipoIdentificacion = :tipo and u.numeroIdentificacion = :numero")
+    Optional<Long> findIdByIdentificacion(@Param("tipo") String tipoIdentificacion,
+                                          @Param("numero") String numeroIdentificacion);
+
+    // Identificaciones ya registradas entre las de un lote de importación: [idUsuario, tipo, numero]
+    @Query("select u.idUsuario, u.tipoIdentificacion, u.numeroIdentificacion from Usuario u"
+            + " where u.numeroIdentificacion in :numeros")
+    List<Object[]> findIdentificaciones(@Param("numeros") Collection<String> numerosIdentificacion);
+
+    @Query("select u.idUsuario from Usuario u where u.idUsuario in :ids")
+    List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+
+    // Paginación por cursor (keyset) sobre la PK
+    List<Usuario> findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(Long idUsuario, Pageable limite);
+
+    // Filas creadas antes de la columna version: con versión null save() las trataría como nuevas
+    @Transactional
+    @Modifying
+    @Query("update Usuario u set u.version = 0 where u.version is null")
+    int completarVersiones();
 }
@@ -0,0 +1,13 @@
+package com.prestabanco.app.service;
+
+import lombok.Value;
+
+/**
+ * Resultado de guardar un archivo: ruta final, bytes escritos y SHA-256 en hexadecimal.
+ */
+@Value
+public class ArchivoAlmacenado {
+    String ruta;
+    long tamano;
+    String sha256;
+}
@@ -0,0 +1,226 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.config.ConfiguracionCache;
+import com.prestabanco.app.config.ConfiguracionCache.PoliticaDesalojo;
+import com.prestabanco.app.dto.EstadisticasCacheResponse;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria acotada por tamaño y tiempo de vida.
+ *
+ * Las lecturas no toman locks: solo consultan el mapa y marcan la entrada como usada.
+ * El desalojo recorre una cola circular (algoritmo CLOCK): con LRU una entrada leída
+ * desde la última pasada obtiene una segunda oportunidad; con LFU acumula hasta
+ * {@value #FRECUENCIA_MAXIMA} oportunidades según cuántas veces se leyó.
+ */
+public class CacheAcotada<K, V> {
+
+    private static final int FRECUENCIA_MAXIMA = 15;
+
+    private final String nombre;
+    private final int tamanoMaximo;
+    private final long ttlNanos;
+    private final PoliticaDesalojo politica;
+
+    private final Map<K, Entrada<K, V>> entradas = new ConcurrentHashMap<>();
+    private final Queue<Entrada<K, V>> reloj = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger enReloj = new AtomicInteger();
+    private final ReentrantLock desalojo = new ReentrantLock();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder expirados = new LongAdder();
+    private final LongAdder cargas = new LongAdder();
+    private final LongAdder nanosCarga = new LongAdder();
+
+    public CacheAcotada(String nombre, ConfiguracionCache configuracion) {
+        this.nombre = nombre;
+        this.tamanoMaximo = Math.max(1, configuracion.getTamanoMaximo());
+        this.ttlNanos = configuracion.getTtl() == null ? Long.MAX_VALUE : configuracion.getTtl().toNanos();
+        this.politica = configuracion.getPolitica() == null ? PoliticaDesalojo.LRU : configuracion.getPolitica();
+    }
+
+    /**
+     * Retorna el valor en caché o null si no está o ya expiró.
+     */
+    public V obtener(K clave) {
+        Entrada<K, V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            fallos.increment();
+            return null;
+        }
+        if (entrada.expirada(System.nanoTime(), ttlNanos)) {
+            if (entradas.remove(clave, entrada)) {
+                expirados.increment();
+            }
+            fallos.increment();
+            return null;
+        }
+        entrada.marcarUso(politica);
+        aciertos.increment();
+        return entrada.valor;
+    }
+
+    /**
+     * Retorna el valor en caché o lo calcula con el cargador y lo guarda.
+     * Dos hilos que fallen a la vez pueden cargar el mismo valor; gana el último.
+     * El cargador corre fuera de todo lock (a diferencia de computeIfAbsent), así una
+     * carga que consulta la base de datos no bloquea otras claves ni fija hilos virtuales.
+     */
+    public V obtener(K clave, Function<? super K, ? extends V> cargador) {
+        V valor = obtener(clave);
+        if (valor != null) {
+            return valor;
+        }
+        long inicio = System.nanoTime();
+        valor = cargador.apply(clave);
+        nanosCarga.add(System.nanoTime() - inicio);
+        cargas.increment();
+        if (valor != null) {
+            guardar(clave, valor);
+        }
+        return valor;
+    }
+
+    public void guardar(K clave, V valor) {
+        Entrada<K, V> entrada = new Entrada<>(clave, valor, System.nanoTime());
+        entradas.put(clave, entrada);
+        reloj.offer(entrada);
+        // Las entradas reemplazadas siguen en el reloj hasta la próxima pasada
+        if (enReloj.incrementAndGet() > 2 * tamanoMaximo || entradas.size() > tamanoMaximo) {
+            desalojar();
+        }
+    }
+
+    public void invalidar(K clave) {
+        entradas.remove(clave);
+    }
+
+    public void invalidarTodo() {
+        entradas.clear();
+        reloj.clear();
+        enReloj.set(0);
+    }
+
+    public EstadisticasCacheResponse estadisticas() {
+        long hits = aciertos.sum();
+        long misses = fallos.sum();
+        long totalCargas = cargas.sum();
+
+        EstadisticasCacheResponse response = new EstadisticasCacheResponse();
+        response.setNombre(nombre);
+        response.setTamano(entradas.size());
+        response.setTamanoMaximo(tamanoMaximo);
+        response.setAciertos(hits);
+        response.setFallos(misses);
+        response.setTasaAciertos(hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+        response.setDesalojos(desalojos.sum());
+        response.setExpirados(expirados.sum());
+        response.setCargas(totalCargas);
+        response.setTiempoPromedioCargaMs(totalCargas == 0 ? 0 : nanosCarga.sum() / 1_000_000d / totalCargas);
+        return response;
+    }
+
+    // Lecturas para los medidores de Micrometer
+    long getAciertos() {
+        return aciertos.sum();
+    }
+
+    long getFallos() {
+        return fallos.sum();
+    }
+
+    long getDesalojos() {
+        return desalojos.sum() + expirados.sum();
+    }
+
+    int getTamano() {
+        return entradas.size();
+    }
+
+    /**
+     * Avanza el reloj hasta volver al tamaño máximo. Solo un hilo desaloja a la vez;
+     * los demás siguen de largo y la caché puede excederse brevemente.
+     */
+    private void desalojar() {
+        if (!desalojo.tryLock()) {
+            return;
+        }
+        try {
+            if (enReloj.get() > 2 * tamanoMaximo) {
+                reloj.removeIf(e -> entradas.get(e.clave) != e);
+                enReloj.set(reloj.size());
+            }
+            long ahora = System.nanoTime();
+            while (entradas.size() > tamanoMaximo) {
+                Entrada<K, V> entrada = reloj.poll();
+                if (entrada == null) {
+                    return;
+                }
+                enReloj.decrementAndGet();
+                if (entradas.get(entrada.clave) != entrada) {
+                    // Reemplazada o invalidada: ya no ocupa lugar
+                    continue;
+                }
+                if (entrada.expirada(ahora, ttlNanos)) {
+                    if (entradas.remove(entrada.clave, entrada)) {
+                        expirados.increment();
+                    }
+                } else if (entrada.darSegundaOportunidad()) {
+                    reloj.offer(entrada);
+                    enReloj.incrementAndGet();
+                } else if (entradas.remove(entrada.clave, entrada)) {
+                    desalojos.increment();
+                }
+            }
+        } finally {
+            desalojo.unlock();
+        }
+    }
+
+    private static final class Entrada<K, V> {
+        private final K clave;
+        private final V valor;
+        private final long creadaEn;
+        // Lecturas desde la última pasada del reloj (LRU solo usa 0/1)
+        private volatile int usos;
+
+        private Entrada(K clave, V valor, long creadaEn) {
+            this.clave = clave;
+            this.valor = valor;
+            this.creadaEn = creadaEn;
+        }
+
+        private boolean expirada(long ahora, long ttlNanos) {
+            return ahora - creadaEn > ttlNanos;
+        }
+
+        private void marcarUso(PoliticaDesalojo politica) {
+            int actual = usos;
+            if (politica == PoliticaDesalojo.LRU) {
+                if (actual == 0) usos = 1;
+            } else if (actual < FRECUENCIA_MAXIMA) {
+                // Incremento aproximado: perder alguno bajo contención no importa
+                usos = actual + 1;
+            }
+        }
+
+        private boolean darSegundaOportunidad() {
+            int actual = usos;
+            if (actual == 0) {
+                return false;
+            }
+            usos = actual - 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.dto.Prepago;
+import com.prestabanco.app.exception.BusinessException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cálculo de la cuota francesa compartido por la evaluación y la simulación.
+ *
+ * Los factores (1+r)^n se memorizan por (tasa mensual, meses), ya que las tasas
+ * vienen de bandas acotadas. Con el factor en caché, la cuota se obtiene en punto
+ * fijo: el factor por unidad se guarda como entero escalado por 2^62 (truncado) y
+ * se multiplica por el monto en centavos con aritmética entera de 128 bits. El
+ * truncamiento acota el error del producto a menos de montoCentavos unidades de
+ * 2^-62 centavos, así que el redondeo a centavos queda decidido salvo que el resto
+ * caiga justo en esa franja bajo el medio centavo; solo entonces se recurre a
+ * BigDecimal. El resultado es idéntico al cálculo original con DECIMAL128 y
+ * redondeo HALF_UP a 2 decimales (lo verifica CalculadoraAmortizacionTest).
+ */
+@Service
+public class CalculadoraAmortizacion {
+
+    private static final BigDecimal DOCE_POR_CIEN = BigDecimal.valueOf(12 * 100);
+    private static final BigDecimal CENTAVO = new BigDecimal("0.01");
+
+    // Tope de factores en memoria; pasado este número se calcula sin cachear
+    private static final int MAX_FACTORES = 10_000;
+
+    // Montos mayores (en centavos) usan BigDecimal: así el producto escalado no desborda 128 bits
+    private static final long MAX_CENTAVOS_RAPIDO = 1L << 53;
+
+    // Escala del factor en punto fijo: 2^62 unidades por centavo de cuota
+    private static final int BITS_ESCALA = 62;
+    private static final BigDecimal ESCALA = new BigDecimal(BigInteger.ONE.shiftLeft(BITS_ESCALA));
+    private static final long MASCARA_FRACCION = (1L << BITS_ESCALA) - 1;
+    private static final long MEDIO_CENTAVO = 1L << (BITS_ESCALA - 1);
+
+    private final Map<ClaveFactor, FactorAnualidad> factores = new ConcurrentHashMap<>();
+
+    /**
+     * Divide la tasa anual (en porcentaje) entre 12*100 para obtener la tasa mensual decimal.
+     */
+    public BigDecimal tasaMensual(BigDecimal tasaAnual) {
+        return tasaAnual.divide(DOCE_POR_CIEN, 10, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Cuota mensual para un plazo en meses. Retorna cero si falta la tasa,
+     * el plazo no es positivo o la tasa es cero.
+     */
+    public BigDecimal calcularCuotaMensual(BigDecimal monto, int plazoMeses, BigDecimal tasaAnual) {
+        if (monto == null || tasaAnual == null || plazoMeses <= 0) return BigDecimal.ZERO;
+        return factor(tasaAnual, plazoMeses).cuota(monto);
+    }
+
+    /**
+     * Tabla de amortización perezosa para el monto, plazo y prepagos indicados.
+     */
+    public TablaAmortizacion tablaAmortizacion(BigDecimal monto, int plazoMeses, BigDecimal tasaAnual,
+                                               List<Prepago> prepagos) {
+        if (monto == null || monto.signum() <= 0) {
+            throw new BusinessException("El monto debe ser mayor que cero.");
+        }
+        if (tasaAnual == null || tasaAnual.signum() < 0) {
+            throw new BusinessException("La tasa de interés es obligatoria y no puede ser negativa.");
+        }
+        if (plazoMeses <= 0) {
+            throw new BusinessException("El plazo debe ser mayor que cero.");
+        }
+        return new TablaAmortizacion(monto, factor(tasaAnual, plazoMeses), prepagos);
+    }
+
+    /**
+     * Factor de anualidad memorizado para (tasa anual, meses).
+     */
+    public FactorAnualidad factor(BigDecimal tasaAnual, int plazoMeses) {
+        BigDecimal tasaMensual = tasaMensual(tasaAnual);
+        ClaveFactor clave = new ClaveFactor(tasaMensual, plazoMeses);
+        FactorAnualidad factor = factores.get(clave);
+        if (factor != null) {
+            return factor;
+        }
+        factor = new FactorAnualidad(tasaMensual, plazoMeses);
+        if (factores.size() < MAX_FACTORES) {
+            FactorAnualidad previo = factores.putIfAbsent(clave, factor);
+            if (previo != null) {
+                return previo;
+            }
+        }
+        return factor;
+    }
+
+    /**
+     * Valores precalculados de la fórmula cuota = monto * r * (1+r)^n / ((1+r)^n - 1).
+     */
+    public static final class FactorAnualidad {
+
+        private final BigDecimal tasaMensual;
+        private final int plazoMeses;
+        private final BigDecimal potencia;        // (1+r)^n
+        private final BigDecimal tasaPorPotencia; // r * (1+r)^n
+        private final BigDecimal potenciaMenosUno;
+        // floor(r*(1+r)^n / ((1+r)^n - 1) * 2^62), o -1 si no cabe en un long
+        private final long cuotaPorUnidadEscalada;
+        private final boolean nulo;
+
+        private FactorAnualidad(BigDecimal tasaMensual, int plazoMeses) {
+            this.tasaMensual = tasaMensual;
+            this.plazoMeses = plazoMeses;
+            this.potencia = BigDecimal.ONE.add(tasaMensual).pow(plazoMeses, MathContext.DECIMAL128);
+            this.tasaPorPotencia = tasaMensual.multiply(potencia);
+            this.potenciaMenosUno = potencia.subtract(BigDecimal.ONE);
+            this.nulo = potencia.compareTo(BigDecimal.ONE) == 0;
+            this.cuotaPorUnidadEscalada = nulo ? -1 : escalar(tasaPorPotencia, potenciaMenosUno);
+        }
+
+        public BigDecimal getTasaMensual() {
+            return tasaMensual;
+        }
+
+        public int getPlazoMeses() {
+            return plazoMeses;
+        }
+
+        public BigDecimal getPotencia() {
+            return potencia;
+        }
+
+        public BigDecimal getTasaPorPotencia() {
+            return tasaPorPotencia;
+        }
+
+        public BigDecimal getPotenciaMenosUno() {
+            return potenciaMenosUno;
+        }
+
+        /**
+         * True cuando (1+r)^n = 1 (tasa cero o plazo cero) y la fórmula no aplica.
+         */
+        public boolean isNulo() {
+            return nulo;
+        }
+
+        /**
+         * Cuota mensual redondeada a centavos (HALF_UP).
+         */
+        public BigDecimal cuota(BigDecimal monto) {
+            if (nulo) return BigDecimal.ZERO;
+            long centavos = cuotaEnCentavos(monto);
+            if (centavos >= 0) {
+                return BigDecimal.valueOf(centavos, 2);
+            }
+            return monto.multiply(tasaPorPotencia).divide(potenciaMenosUno, 2, RoundingMode.HALF_UP);
+        }
+
+        /**
+         * Inverso de {@link #cuota}: mayor monto, en centavos, cuya cuota no supera
+         * cuotaMaxima. La cuota máxima se trunca a centavos primero; así la cuota
+         * redondeada del monto resultante tampoco puede pasarse.
+         */
+        public BigDecimal montoMaximo(BigDecimal cuotaMaxima) {
+            if (nulo || cuotaMaxima == null || cuotaMaxima.signum() <= 0) return BigDecimal.ZERO;
+            BigDecimal cuota = cuotaMaxima.setScale(2, RoundingMode.DOWN);
+            BigDecimal monto = cuota.multiply(potenciaMenosUno).divide(tasaPorPotencia, 2, RoundingMode.DOWN);
+            // Red de seguridad frente a diferencias de precisión en el último centavo
+            while (monto.signum() > 0 && cuota(monto).compareTo(cuota) > 0) {
+                monto = monto.subtract(CENTAVO);
+            }
+            return monto;
+        }
+
+        /**
+         * Camino rápido en punto fijo. Retorna -1 si el monto no es un número de
+         * centavos dentro del rango del camino rápido o si el redondeo queda indeterminado.
+         */
+        private long cuotaEnCentavos(BigDecimal monto) {
+            if (cuotaPorUnidadEscalada < 0 || monto.signum() < 0 || monto.scale() > 2) return -1;
+            BigDecimal centavosMonto = monto.movePointRight(2);
+            if (centavosMonto.precision() - centavosMonto.scale() > 18) return -1;
+            long montoCentavos = centavosMonto.longValueExact();
+            if (montoCentavos >= MAX_CENTAVOS_RAPIDO) return -1;
+
+            // Producto de 128 bits: centavos enteros arriba del bit 62, fracción abajo
+            long alto = Math.multiplyHigh(montoCentavos, cuotaPorUnidadEscalada);
+            long bajo = montoCentavos * cuotaPorUnidadEscalada;
+            long centavos = (alto << (64 - BITS_ESCALA)) | (bajo >>> BITS_ESCALA);
+            long fraccion = bajo & MASCARA_FRACCION;
+
+            // El valor exacto está en [producto, producto + montoCentavos) por el truncamiento del factor
+            if (fraccion >= MEDIO_CENTAVO) {
+                return centavos + 1;
+            }
+            if (fraccion + montoCentavos <= MEDIO_CENTAVO) {
+                return centavos;
+            }
+            return -1;
+        }
+
+        private static long escalar(BigDecimal tasaPorPotencia, BigDecimal potenciaMenosUno) {
+            BigInteger escalado = tasaPorPotencia.multiply(ESCALA)
+                    .divide(potenciaMenosUno, 0, RoundingMode.FLOOR)
+                    .toBigIntegerExact();
+            return escalado.signum() > 0 && escalado.bitLength() < Long.SIZE ? escalado.longValue() : -1;
+        }
+    }
+
+    private static final class ClaveFactor {
+        private final BigDecimal tasaMensual;
+        private final int plazoMeses;
+
+        private ClaveFactor(BigDecimal tasaMensual, int plazoMeses) {
+            this.tasaMensual = tasaMensual;
+            this.plazoMeses = plazoMeses;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ClaveFactor)) return false;
+            ClaveFactor otra = (ClaveFactor) o;
+            return plazoMeses == otra.plazoMeses && tasaMensual.equals(otra.tasaMensual);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tasaMensual, plazoMeses);
+        }
+    }
+}
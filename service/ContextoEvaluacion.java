@@ -0,0 +1,35 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.entity.Usuario;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Datos que consultan las reglas al evaluar una solicitud. Los indicadores se
+ * calculan una sola vez antes de recorrer R1..R7.
+ */
+@Getter
+class ContextoEvaluacion {
+
+    private final Solicitud solicitud;
+    private final Usuario usuario;
+    private BigDecimal cuotaMensual = BigDecimal.ZERO;
+    private BigDecimal relacionCuotaIngreso = BigDecimal.ZERO;
+    private BigDecimal relacionDeudaIngreso = BigDecimal.ZERO;
+    private int edadAlTermino;
+
+    ContextoEvaluacion(Solicitud solicitud, Usuario usuario) {
+        this.solicitud = solicitud;
+        this.usuario = usuario;
+    }
+
+    void setIndicadores(BigDecimal cuotaMensual, BigDecimal relacionCuotaIngreso,
+                        BigDecimal relacionDeudaIngreso, int edadAlTermino) {
+        this.cuotaMensual = cuotaMensual;
+        this.relacionCuotaIngreso = relacionCuotaIngreso;
+        this.relacionDeudaIngreso = relacionDeudaIngreso;
+        this.edadAlTermino = edadAlTermino;
+    }
+}
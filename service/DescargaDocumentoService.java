@@ -0,0 +1,111 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.entity.Documento;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.exception.ResourceNotFoundException;
+import com.prestabanco.app.repository.DocumentoRepository;
+import com.prestabanco.app.repository.SolicitudRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Entrega de documentos adjuntos sin pasar el contenido por buffers del heap: con
+ * sendfile del conector de Tomcat cuando está disponible, y si no con
+ * FileChannel.transferTo sobre la salida de la respuesta.
+ */
+@Service
+public class DescargaDocumentoService {
+
+    // Atributos con que Tomcat delega el envío del archivo al sistema operativo
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private SolicitudRepository solicitudRepository;
+
+    @Autowired
+    private DocumentoRepository documentoRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    /**
+     * Documento n-ésimo (desde 0) de los adjuntos de la solicitud.
+     */
+    public DocumentoDescarga obtenerDocumento(Long idSolicitud, int indice) {
+        Solicitud solicitud = solicitudRepository.findById(idSolicitud)
+                .orElseThrow(() -> new ResourceNotFoundException("No existe la solicitud con id: " + idSolicitud));
+        String adjuntos = solicitud.getDocumentosAdjuntos();
+        String[] rutas = adjuntos == null || adjuntos.isBlank() ? new String[0] : adjuntos.split(",");
+        if (indice < 0 || indice >= rutas.length) {
+            throw new ResourceNotFoundException("La solicitud " + idSolicitud + " no tiene el documento " + indice);
+        }
+
+        Path ruta = fileStorageService.resolverArchivo(rutas[indice]);
+        BasicFileAttributes atributos;
+        try {
+            atributos = Files.readAttributes(ruta, BasicFileAttributes.class);
+        } catch (IOException ex) {
+            throw new ResourceNotFoundException("Documento no encontrado");
+        }
+
+        // En el almacén por contenido el hash identifica los bytes: sirve como ETag fuerte
+        String hash = fileStorageService.hashDesdeRuta(ruta.toString());
+        String nombre = ruta.getFileName().toString();
+        String etag;
+        if (hash != null) {
+            nombre = documentoRepository.findById(hash).map(Documento::getNombreOriginal).orElse(nombre);
+            etag = "\"" + hash + "\"";
+        } else {
+            etag = "W/\"" + Long.toHexString(atributos.size()) + "-"
+                    + Long.toHexString(atributos.lastModifiedTime().toMillis()) + "\"";
+        }
+        String tipoContenido = MediaTypeFactory.getMediaType(nombre)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+        return new DocumentoDescarga(ruta, nombre, tipoContenido, atributos.size(), etag,
+                atributos.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * Envía los bytes [inicio, fin] (ambos incluidos). Las cabeceras, incluido
+     * Content-Length, deben estar fijadas antes de llamar.
+     */
+    public void transferir(DocumentoDescarga documento, long inicio, long fin,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            request.setAttribute(SENDFILE_ARCHIVO, documento.getRuta().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIN, fin + 1);
+            return;
+        }
+        try (FileChannel archivo = FileChannel.open(documento.getRuta(), StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(response.getOutputStream());
+            long posicion = inicio;
+            long restantes = fin - inicio + 1;
+            while (restantes > 0) {
+                long enviados = archivo.transferTo(posicion, restantes, salida);
+                if (enviados <= 0) {
+                    break;
+                }
+                posicion += enviados;
+                restantes -= enviados;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.prestabanco.app.service;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * Documento adjunto listo para enviarse: ruta en disco y metadatos para las cabeceras HTTP.
+ */
+@Value
+public class DocumentoDescarga {
+    Path ruta;
+    String nombre;
+    String tipoContenido;
+    long tamano;
+    String etag;
+    long ultimaModificacion; // milisegundos desde epoch
+}
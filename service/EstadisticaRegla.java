@@ -0,0 +1,34 @@
+package com.prestabanco.app.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de una regla. Sobreviven a las recargas de la política porque se
+ * indexan por código de regla.
+ */
+class EstadisticaRegla {
+
+    private final LongAdder evaluaciones = new LongAdder();
+    private final LongAdder rechazos = new LongAdder();
+    private final LongAdder nanosTotales = new LongAdder();
+
+    void registrar(long nanos, boolean cumple) {
+        evaluaciones.increment();
+        nanosTotales.add(nanos);
+        if (!cumple) {
+            rechazos.increment();
+        }
+    }
+
+    long getEvaluaciones() {
+        return evaluaciones.sum();
+    }
+
+    long getRechazos() {
+        return rechazos.sum();
+    }
+
+    long getNanosTotales() {
+        return nanosTotales.sum();
+    }
+}
@@ -0,0 +1,53 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.entity.FotoCartera;
+import com.prestabanco.app.entity.Solicitud;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Lleva a {@link EstadisticasCarteraService} cada alta, cambio y baja de una
+ * solicitud. Hibernate no entrega el estado anterior en @PostUpdate, por eso se
+ * guarda una {@link FotoCartera} en la entidad al leerla y después de cada escritura.
+ * Hibernate crea la instancia a través de Spring, que inyecta el servicio.
+ */
+public class EstadisticasCarteraListener {
+
+    // @Lazy: el listener se crea junto al EntityManagerFactory, antes que el repositorio que usa el servicio
+    @Autowired
+    @Lazy
+    private EstadisticasCarteraService estadisticasCarteraService;
+
+    @PostLoad
+    void cargada(Solicitud solicitud) {
+        solicitud.setFotoCartera(FotoCartera.de(solicitud));
+    }
+
+    @PostPersist
+    void creada(Solicitud solicitud) {
+        FotoCartera nueva = FotoCartera.de(solicitud);
+        solicitud.setFotoCartera(nueva);
+        estadisticasCarteraService.registrar(null, nueva);
+    }
+
+    @PostUpdate
+    void actualizada(Solicitud solicitud) {
+        FotoCartera anterior = solicitud.getFotoCartera();
+        FotoCartera nueva = FotoCartera.de(solicitud);
+        // Cambios en otros campos (comentarios, ratios) no mueven las estadísticas
+        if (!nueva.equals(anterior)) {
+            solicitud.setFotoCartera(nueva);
+            estadisticasCarteraService.registrar(anterior, nueva);
+        }
+    }
+
+    @PostRemove
+    void eliminada(Solicitud solicitud) {
+        FotoCartera anterior = solicitud.getFotoCartera();
+        estadisticasCarteraService.registrar(anterior != null ? anterior : FotoCartera.de(solicitud), null);
+    }
+}
@@ -0,0 +1,215 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.dto.EstadisticasCarteraResponse;
+import com.prestabanco.app.dto.EstadisticasCarteraResponse.Grupo;
+import com.prestabanco.app.entity.EstadoSolicitud;
+import com.prestabanco.app.entity.FotoCartera;
+import com.prestabanco.app.entity.TipoPrestamo;
+import com.prestabanco.app.repository.SolicitudRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estadísticas de cartera (cantidad y monto solicitado por estado y tipo de
+ * préstamo) mantenidas en memoria. {@link EstadisticasCarteraListener} aplica
+ * cada alta, cambio y baja de solicitud cuando su transacción hace commit, así
+ * que leerlas no depende del tamaño de la tabla.
+ *
+ * Al iniciar y cada estadisticas.intervalo-conciliacion se recalculan desde la
+ * base con un GROUP BY y se reemplazan: corrige lo que no pasa por JPA (SQL
+ * directo, otra instancia de la aplicación) y los cambios que coincidan con la
+ * propia conciliación.
+ */
+@Service
+public class EstadisticasCarteraService {
+
+    private static final EstadoSolicitud[] ESTADOS = EstadoSolicitud.values();
+    private static final TipoPrestamo[] TIPOS = TipoPrestamo.values();
+    // Última columna: tipos que no corresponden a TipoPrestamo
+    private static final String TIPO_OTRO = "OTRO";
+
+    @Autowired
+    private SolicitudRepository solicitudRepository;
+
+    private volatile Tabla tabla = new Tabla();
+    private volatile LocalDateTime ultimaConciliacion;
+    private volatile long diferenciasUltimaConciliacion;
+
+    /**
+     * Resta la foto anterior y suma la nueva (cualquiera puede ser null: alta o baja).
+     * Dentro de una transacción se aplica recién después del commit, para que un
+     * rollback no deje contado un cambio que no existió.
+     */
+    void registrar(FotoCartera anterior, FotoCartera nueva) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(anterior, nueva);
+                }
+            });
+        } else {
+            aplicar(anterior, nueva);
+        }
+    }
+
+    private void aplicar(FotoCartera anterior, FotoCartera nueva) {
+        Tabla actual = tabla;
+        if (anterior != null) {
+            actual.sumar(anterior.getEstado(), anterior.getTipoPrestamo(), -1, -centavos(anterior.getMontoSolicitado()));
+        }
+        if (nueva != null) {
+            actual.sumar(nueva.getEstado(), nueva.getTipoPrestamo(), 1, centavos(nueva.getMontoSolicitado()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void conciliarAlIniciar() {
+        conciliar();
+    }
+
+    @Scheduled(initialDelayString = "#{@estadisticasProperties.intervaloConciliacion.toMillis()}",
+            fixedDelayString = "#{@estadisticasProperties.intervaloConciliacion.toMillis()}")
+    public void conciliar() {
+        Tabla nueva = new Tabla();
+        for (Object[] fila : solicitudRepository.contarPorEstadoYTipo()) {
+            nueva.sumar((EstadoSolicitud) fila[0], (String) fila[1],
+                    ((Number) fila[2]).longValue(), centavos(aBigDecimal(fila[3])));
+        }
+        diferenciasUltimaConciliacion = nueva.diferenciaCon(tabla);
+        tabla = nueva;
+        ultimaConciliacion = LocalDateTime.now();
+    }
+
+    public EstadisticasCarteraResponse obtenerEstadisticas() {
+        Tabla actual = tabla;
+        long[][] cantidades = new long[ESTADOS.length][TIPOS.length + 1];
+        long[][] centavos = new long[ESTADOS.length][TIPOS.length + 1];
+        for (int e = 0; e < ESTADOS.length; e++) {
+            for (int t = 0; t <= TIPOS.length; t++) {
+                cantidades[e][t] = actual.cantidades[e][t].sum();
+                centavos[e][t] = actual.centavos[e][t].sum();
+            }
+        }
+
+        Map<String, Grupo> porEstado = new LinkedHashMap<>();
+        for (EstadoSolicitud estado : ESTADOS) {
+            long cantidad = 0, monto = 0;
+            for (int t = 0; t <= TIPOS.length; t++) {
+                cantidad += cantidades[estado.ordinal()][t];
+                monto += centavos[estado.ordinal()][t];
+            }
+            porEstado.put(estado.name(), grupo(cantidad, monto, 0, 0));
+        }
+
+        Map<String, Grupo> porTipo = new LinkedHashMap<>();
+        long total = 0, montoTotal = 0, aprobadas = 0, rechazadas = 0;
+        for (int t = 0; t <= TIPOS.length; t++) {
+            long cantidad = 0, monto = 0, aprobadasTipo = 0, rechazadasTipo = 0;
+            for (EstadoSolicitud estado : ESTADOS) {
+                long n = cantidades[estado.ordinal()][t];
+                cantidad += n;
+                monto += centavos[estado.ordinal()][t];
+                if (esAprobada(estado)) aprobadasTipo += n;
+                if (estado == EstadoSolicitud.E7_RECHAZADA) rechazadasTipo += n;
+            }
+            if (cantidad > 0 || t < TIPOS.length) {
+                porTipo.put(t < TIPOS.length ? TIPOS[t].getNombre() : TIPO_OTRO,
+                        grupo(cantidad, monto, aprobadasTipo, rechazadasTipo));
+            }
+            total += cantidad;
+            montoTotal += monto;
+            aprobadas += aprobadasTipo;
+            rechazadas += rechazadasTipo;
+        }
+
+        EstadisticasCarteraResponse response = new EstadisticasCarteraResponse();
+        response.setTotalSolicitudes(total);
+        response.setMontoTotalSolicitado(BigDecimal.valueOf(montoTotal, 2));
+        response.setAprobadas(aprobadas);
+        response.setRechazadas(rechazadas);
+        response.setTasaAprobacion(tasa(aprobadas, rechazadas));
+        response.setPorEstado(porEstado);
+        response.setPorTipoPrestamo(porTipo);
+        response.setUltimaConciliacion(ultimaConciliacion);
+        response.setDiferenciasUltimaConciliacion(diferenciasUltimaConciliacion);
+        return response;
+    }
+
+    // E9 (en desembolso) ya pasó por la aprobación
+    private static boolean esAprobada(EstadoSolicitud estado) {
+        return estado == EstadoSolicitud.E6_APROBADA || estado == EstadoSolicitud.E9_EN_DESEMBOLSO;
+    }
+
+    private static Grupo grupo(long cantidad, long centavos, long aprobadas, long rechazadas) {
+        Grupo grupo = new Grupo();
+        grupo.setCantidad(cantidad);
+        grupo.setMontoSolicitado(BigDecimal.valueOf(centavos, 2));
+        grupo.setAprobadas(aprobadas);
+        grupo.setRechazadas(rechazadas);
+        grupo.setTasaAprobacion(tasa(aprobadas, rechazadas));
+        return grupo;
+    }
+
+    private static double tasa(long aprobadas, long rechazadas) {
+        long decididas = aprobadas + rechazadas;
+        return decididas == 0 ? 0 : (double) aprobadas / decididas;
+    }
+
+    private static long centavos(BigDecimal monto) {
+        return monto == null ? 0 : monto.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal aBigDecimal(Object valor) {
+        return valor instanceof BigDecimal monto ? monto : new BigDecimal(valor.toString());
+    }
+
+    /**
+     * Contadores [estado][tipo]. Sin estado cuenta como E1 (igual que al evaluar) y un
+     * tipo desconocido va a la última columna. La conciliación arma una tabla nueva y
+     * reemplaza la referencia; los lectores nunca ven una a medio llenar.
+     */
+    private static final class Tabla {
+        private final LongAdder[][] cantidades = new LongAdder[ESTADOS.length][TIPOS.length + 1];
+        private final LongAdder[][] centavos = new LongAdder[ESTADOS.length][TIPOS.length + 1];
+
+        Tabla() {
+            for (int e = 0; e < ESTADOS.length; e++) {
+                for (int t = 0; t <= TIPOS.length; t++) {
+                    cantidades[e][t] = new LongAdder();
+                    centavos[e][t] = new LongAdder();
+                }
+            }
+        }
+
+        void sumar(EstadoSolicitud estado, String tipoPrestamo, long cantidad, long monto) {
+            int e = (estado == null ? EstadoSolicitud.E1_REVISION_INICIAL : estado).ordinal();
+            TipoPrestamo tipo = TipoPrestamo.desdeNombre(tipoPrestamo);
+            int t = tipo == null ? TIPOS.length : tipo.ordinal();
+            cantidades[e][t].add(cantidad);
+            centavos[e][t].add(monto);
+        }
+
+        long diferenciaCon(Tabla otra) {
+            long diferencia = 0;
+            for (int e = 0; e < ESTADOS.length; e++) {
+                for (int t = 0; t <= TIPOS.length; t++) {
+                    diferencia += Math.abs(cantidades[e][t].sum() - otra.cantidades[e][t].sum());
+                }
+            }
+            return diferencia;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.config.EvaluacionProperties;
+import com.prestabanco.app.dto.EvaluacionLoteRequest;
+import com.prestabanco.app.dto.EvaluacionLoteResponse;
+import com.prestabanco.app.dto.ResultadoEvaluacionLote;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.exception.BusinessException;
+import com.prestabanco.app.exception.ConflictoException;
+import com.prestabanco.app.repository.SolicitudRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Evalúa muchas solicitudes de una vez: carga cada bloque en una consulta, completa
+ * en la caché de usuarios los que falten con otra, aplica las reglas en paralelo y
+ * deja que el commit del bloque emita los UPDATE en batch JDBC.
+ */
+@Service
+public class EvaluacionLoteService {
+
+    @Autowired
+    private SolicitudRepository solicitudRepository;
+
+    @Autowired
+    private SolicitudService solicitudService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private EvaluacionProperties properties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("ejecutorEvaluacion")
+    private ExecutorService ejecutorEvaluacion;
+
+    public EvaluacionLoteResponse evaluarLote(EvaluacionLoteRequest request) {
+        long inicio = System.nanoTime();
+        List<Long> ids = resolverIds(request);
+
+        List<ResultadoEvaluacionLote> resultados = new ArrayList<>(ids.size());
+        int tamanoLote = Math.max(1, properties.getTamanoLote());
+        for (int desde = 0; desde < ids.size(); desde += tamanoLote) {
+            List<Long> bloque = ids.subList(desde, Math.min(desde + tamanoLote, ids.size()));
+            resultados.addAll(evaluarBloqueConReintento(bloque));
+        }
+
+        long duracionNanos = System.nanoTime() - inicio;
+        EvaluacionLoteResponse response = new EvaluacionLoteResponse();
+        response.setTotalSolicitudes(resultados.size());
+        response.setAprobadas(contar(resultados, "APROBADA"));
+        response.setRechazadas(contar(resultados, "RECHAZADA"));
+        response.setErrores(resultados.size() - response.getAprobadas() - response.getRechazadas());
+        response.setDuracionMs(duracionNanos / 1_000_000);
+        response.setSolicitudesPorSegundo(duracionNanos == 0 ? 0 : resultados.size() * 1_000_000_000d / duracionNanos);
+        response.setResultados(resultados);
+        return response;
+    }
+
+    private List<Long> resolverIds(EvaluacionLoteRequest request) {
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            // Sin duplicados y respetando el orden recibido
+            return new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+        }
+        if (request.getEstadoSolicitud() != null && !request.getEstadoSolicitud().isBlank()) {
+            return solicitudRepository.findIdsByEstadoSolicitud(SolicitudService.parsearEstado(request.getEstadoSolicitud()));
+        }
+        throw new BusinessException("Debe indicar una lista de ids o un estadoSolicitud para evaluar en lote.");
+    }
+
+    /**
+     * Si alguien modificó una solicitud del bloque mientras se evaluaba, el commit
+     * falla por versión: se reintenta una vez con datos frescos (las que ya no
+     * admiten evaluación saldrán como CONFLICTO) y, si vuelve a fallar, el bloque
+     * completo se informa como conflicto sin haber guardado nada.
+     */
+    List<ResultadoEvaluacionLote> evaluarBloqueConReintento(List<Long> ids) {
+        try {
+            return evaluarBloque(ids);
+        } catch (ObjectOptimisticLockingFailureException primerIntento) {
+            try {
+                return evaluarBloque(ids);
+            } catch (ObjectOptimisticLockingFailureException ex) {
+                return ids.stream()
+                        .map(id -> new ResultadoEvaluacionLote(id, "CONFLICTO", "Modificada durante la evaluación"))
+                        .collect(Collectors.toList());
+            }
+        }
+    }
+
+    /**
+     * Un bloque = una transacción. Las entidades quedan administradas durante la
+     * evaluación, así que el flush del commit solo envía los UPDATE sucios.
+     */
+    private List<ResultadoEvaluacionLote> evaluarBloque(List<Long> ids) {
+        return transactionTemplate.execute(status -> {
+            Map<Long, Solicitud> porId = solicitudRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Solicitud::getIdSolicitud, Function.identity()));
+            // Los usuarios se repiten entre solicitudes y entre bloques: se leen de la caché
+            usuarioService.precargarUsuarios(porId.values().stream()
+                    .map(SolicitudService::idUsuarioDe)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()));
+
+            List<CompletableFuture<ResultadoEvaluacionLote>> tareas = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Solicitud solicitud = porId.get(id);
+                if (solicitud == null) {
+                    tareas.add(CompletableFuture.completedFuture(
+                            new ResultadoEvaluacionLote(id, "NO_ENCONTRADA", "Solicitud no encontrada")));
+                } else {
+                    tareas.add(CompletableFuture.supplyAsync(() -> evaluar(solicitud), ejecutorEvaluacion));
+                }
+            }
+
+            List<ResultadoEvaluacionLote> resultados = tareas.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+            solicitudRepository.saveAll(porId.values());
+            return resultados;
+        });
+    }
+
+    private ResultadoEvaluacionLote evaluar(Solicitud solicitud) {
+        try {
+            String resultado = solicitudService.aplicarEvaluacion(solicitud);
+            return new ResultadoEvaluacionLote(solicitud.getIdSolicitud(), resultado, solicitud.getComentariosSeguimiento());
+        } catch (BusinessException ex) {
+            return new ResultadoEvaluacionLote(solicitud.getIdSolicitud(), "ERROR", ex.getMessage());
+        } catch (ConflictoException ex) {
+            return new ResultadoEvaluacionLote(solicitud.getIdSolicitud(), "CONFLICTO", ex.getMessage());
+        } catch (RuntimeException ex) {
+            // Un dato inesperado en una solicitud no debe revertir el bloque completo
+            return new ResultadoEvaluacionLote(solicitud.getIdSolicitud(), "ERROR",
+                    ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+        }
+    }
+
+    private static int contar(List<ResultadoEvaluacionLote> resultados, String resultado) {
+        return (int) resultados.stream().filter(r -> resultado.equals(r.getResultado())).count();
+    }
+}
@@ -0,0 +1,173 @@
+package com.prestabanco.app.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.exception.BusinessException;
+import com.prestabanco.app.repository.SolicitudRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Exporta solicitudes leyendo desde un cursor de base de datos y escribiendo cada
+ * fila directamente en la respuesta. El contexto de persistencia se limpia cada
+ * cierto número de filas, así que la memoria no depende del tamaño de la tabla.
+ */
+@Service
+public class ExportacionService {
+
+    // Filas entre cada limpieza del EntityManager y flush de la salida
+    private static final int FILAS_POR_BLOQUE = 1_000;
+
+    private static final Map<String, Function<Solicitud, Object>> COLUMNAS = new LinkedHashMap<>();
+
+    static {
+        COLUMNAS.put("idSolicitud", Solicitud::getIdSolicitud);
+        COLUMNAS.put("idUsuario", s -> s.getUsuario() == null ? null : s.getUsuario().getIdUsuario());
+        COLUMNAS.put("nombreCompleto", s -> s.getUsuario() == null ? null : s.getUsuario().getNombreCompleto());
+        COLUMNAS.put("fechaSolicitud", Solicitud::getFechaSolicitud);
+        COLUMNAS.put("tipoPrestamo", Solicitud::getTipoPrestamo);
+        COLUMNAS.put("montoSolicitado", Solicitud::getMontoSolicitado);
+        COLUMNAS.put("plazoSolicitado", Solicitud::getPlazoSolicitado);
+        COLUMNAS.put("tasaInteres", Solicitud::getTasaInteres);
+        COLUMNAS.put("valorPropiedad", Solicitud::getValorPropiedad);
+        COLUMNAS.put("relacionCuotaIngreso", Solicitud::getRelacionCuotaIngreso);
+        COLUMNAS.put("relacionDeudaIngreso", Solicitud::getRelacionDeudaIngreso);
+        COLUMNAS.put("estadoSolicitud", Solicitud::getEstadoSolicitud);
+        COLUMNAS.put("montoFinanciamientoAprobado", Solicitud::getMontoFinanciamientoAprobado);
+        COLUMNAS.put("porcentajeFinanciamiento", Solicitud::getPorcentajeFinanciamiento);
+        COLUMNAS.put("edadSolicitanteAlTermino", Solicitud::getEdadSolicitanteAlTermino);
+        COLUMNAS.put("fechaAprobacionRechazo", Solicitud::getFechaAprobacionRechazo);
+        COLUMNAS.put("fechaDesembolso", Solicitud::getFechaDesembolso);
+        COLUMNAS.put("comentariosSeguimiento", Solicitud::getComentariosSeguimiento);
+    }
+
+    @Autowired
+    private SolicitudRepository solicitudRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final TransactionTemplate transaccionLectura;
+
+    @Autowired
+    public ExportacionService(PlatformTransactionManager transactionManager) {
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+    }
+
+    /**
+     * Valida y ordena las columnas pedidas; sin columnas se exportan todas.
+     */
+    public List<String> resolverColumnas(List<String> columnas) {
+        if (columnas == null || columnas.isEmpty()) {
+            return new ArrayList<>(COLUMNAS.keySet());
+        }
+        for (String columna : columnas) {
+            if (!COLUMNAS.containsKey(columna)) {
+                throw new BusinessException("Columna desconocida: " + columna + ". Disponibles: " + COLUMNAS.keySet());
+            }
+        }
+        return Collections.unmodifiableList(columnas);
+    }
+
+    public void exportar(boolean csv, List<String> columnas, OutputStream salida) {
+        List<Function<Solicitud, Object>> extractores = new ArrayList<>(columnas.size());
+        for (String columna : columnas) {
+            extractores.add(COLUMNAS.get(columna));
+        }
+
+        transaccionLectura.executeWithoutResult(status -> {
+            try (Stream<Solicitud> solicitudes = solicitudRepository.streamAllConUsuario()) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+                if (csv) {
+                    escribirCsv(solicitudes.iterator(), columnas, extractores, writer);
+                } else {
+                    escribirNdjson(solicitudes.iterator(), columnas, extractores, writer);
+                }
+                writer.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Error al exportar solicitudes", ex);
+            }
+        });
+    }
+
+    private void escribirCsv(Iterator<Solicitud> solicitudes, List<String> columnas,
+                             List<Function<Solicitud, Object>> extractores, Writer writer) throws IOException {
+        writer.write(String.join(",", columnas));
+        writer.write('\n');
+        int filas = 0;
+        while (solicitudes.hasNext()) {
+            Solicitud solicitud = solicitudes.next();
+            for (int i = 0; i < extractores.size(); i++) {
+                if (i > 0) writer.write(',');
+                Object valor = extractores.get(i).apply(solicitud);
+                if (valor != null) {
+                    writer.write(escaparCsv(valor.toString()));
+                }
+            }
+            writer.write('\n');
+            if (++filas % FILAS_POR_BLOQUE == 0) {
+                finDeBloque(writer);
+            }
+        }
+    }
+
+    private void escribirNdjson(Iterator<Solicitud> solicitudes, List<String> columnas,
+                                List<Function<Solicitud, Object>> extractores, Writer writer) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Cada objeto va en su propia línea, sin el separador por defecto entre valores raíz
+        json.setRootValueSeparator(null);
+        int filas = 0;
+        while (solicitudes.hasNext()) {
+            Solicitud solicitud = solicitudes.next();
+            json.writeStartObject();
+            for (int i = 0; i < extractores.size(); i++) {
+                json.writeFieldName(columnas.get(i));
+                json.writeObject(extractores.get(i).apply(solicitud));
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+            if (++filas % FILAS_POR_BLOQUE == 0) {
+                json.flush();
+                finDeBloque(writer);
+            }
+        }
+        json.flush();
+    }
+
+    private void finDeBloque(Writer writer) throws IOException {
+        writer.flush();
+        entityManager.clear();
+    }
+
+    static String escaparCsv(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,44 +1,327 @@
 package com.prestabanco.app.service;
 
 import com.prestabanco.app.config.FileStorageProperties;
+import com.prestabanco.app.exception.BusinessException;
+import com.prestabanco.app.exception.ResourceNotFoundException;
+import com.prestabanco.app.repository.DocumentoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
 
+/**
+ * Almacén de documentos direccionado por contenido: cada archivo se guarda una sola
+ * vez como blobs/ab/cd/&lt;sha256&gt;, sin importar cuántas solicitudes lo adjunten.
+ * Los dos niveles de carpetas (65.536 en total) mantienen acotado el tamaño de cada
+ * directorio. Las referencias se cuentan en la tabla documentos.
+ */
 @Service
 public class FileStorageService {
 
+    // Bytes por lectura al copiar o calcular el hash; también la granularidad del control de tamaño
+    private static final int BLOQUE_TRANSFERENCIA = 1024 * 1024;
+
     private final Path fileStorageLocation;
+    private final Path blobs;
+    private final Path temporales;
+    private final long tamanoMaximoArchivo;
+    private final long tamanoMaximoSolicitud;
+
+    // Liberar un documento es independiente de quien lo pide: siempre en su propia transacción
+    private final TransactionTemplate transaccionPropia;
+
+    @Autowired
+    private DocumentoRepository documentoRepository;
 
     @Autowired
-    public FileStorageService(FileStorageProperties properties) {
+    private MetricasPrestamo metricasPrestamo;
+
+    @Autowired
+    public FileStorageService(FileStorageProperties properties, PlatformTransactionManager transactionManager) {
         this.fileStorageLocation = Paths.get(properties.getUploadDir())
                 .toAbsolutePath()
                 .normalize();
+        this.blobs = this.fileStorageLocation.resolve("blobs");
+        this.temporales = this.fileStorageLocation.resolve("tmp");
+        this.tamanoMaximoArchivo = properties.getTamanoMaximoArchivo().toBytes();
+        this.tamanoMaximoSolicitud = properties.getTamanoMaximoSolicitud().toBytes();
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         try {
-            Files.createDirectories(this.fileStorageLocation.resolve("avaluos"));
-            Files.createDirectories(this.fileStorageLocation.resolve("ingresos"));
+            Files.createDirectories(this.blobs);
+            Files.createDirectories(this.temporales);
         } catch (Exception ex) {
             throw new RuntimeException("No se pudo crear el directorio de almacenamiento de archivos.", ex);
         }
     }
 
-    public String guardarArchivo(MultipartFile archivo, String carpeta) {
+    public String guardarArchivo(MultipartFile archivo) {
+        return almacenar(archivo).getRuta();
+    }
+
+    /**
+     * El contenedor ya dejó la parte en disco al recibir la petición: en lugar de
+     * copiarla de nuevo se mueve al almacén y solo se lee una vez para el SHA-256.
+     */
+    public ArchivoAlmacenado almacenar(MultipartFile archivo) {
         String nombreArchivo = StringUtils.cleanPath(archivo.getOriginalFilename());
+        return almacenarTemporal(retenerTemporal(archivo), nombreArchivo);
+    }
+
+    /**
+     * Retiene la subida en un temporal del almacén, ej. para procesarla después de que
+     * termine la petición (el multipart se borra al responder). Con la parte en disco,
+     * transferTo(File) la renombra (Part.write) sin volver a copiarla; transferTo(Path)
+     * siempre copiaría por stream.
+     */
+    public Path retenerTemporal(MultipartFile archivo) {
+        String nombreArchivo = validarNombreYTamano(archivo);
+        Path temporal = temporales.resolve(".ingesta-" + UUID.randomUUID() + ".tmp");
+        try {
+            archivo.transferTo(temporal.toFile());
+            return temporal;
+        } catch (IOException ex) {
+            eliminarSilenciosamente(temporal);
+            throw new RuntimeException("Error al recibir el archivo " + nombreArchivo, ex);
+        }
+    }
+
+    /**
+     * Guarda en el almacén un temporal obtenido con retenerTemporal: calcula el SHA-256
+     * leyéndolo una vez y lo mueve a su ruta por contenido, sin copiar los bytes.
+     */
+    public ArchivoAlmacenado almacenarTemporal(Path temporal, String nombreArchivo) {
+        long inicio = System.nanoTime();
         try {
-            if (nombreArchivo.contains("..")) {
-                throw new RuntimeException("Archivo inválido: " + nombreArchivo);
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            long tamano;
+            try (FileChannel origen = FileChannel.open(temporal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                tamano = origen.size();
+                if (tamano > tamanoMaximoArchivo) {
+                    throw excedeTamanoArchivo(nombreArchivo);
+                }
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BLOQUE_TRANSFERENCIA);
+                while (origen.read(buffer) > 0) {
+                    buffer.flip();
+                    sha256.update(buffer);
+                    buffer.clear();
+                }
+                // El contenedor no sincroniza sus temporales: se hace antes de publicar el blob
+                origen.force(false);
             }
+            return moverAlAlmacen(temporal, HexFormat.of().formatHex(sha256.digest()), tamano, nombreArchivo, inicio);
+        } catch (IOException | NoSuchAlgorithmException ex) {
+            throw new RuntimeException("Error al guardar el archivo " + nombreArchivo, ex);
+        } finally {
+            eliminarSilenciosamente(temporal);
+        }
+    }
 
-            Path destinoRuta = this.fileStorageLocation.resolve(carpeta).resolve(nombreArchivo);
-            Files.copy(archivo.getInputStream(), destinoRuta, StandardCopyOption.REPLACE_EXISTING);
-            return destinoRuta.toString();
-        } catch (IOException ex) {
+    public void descartarTemporal(Path temporal) {
+        eliminarSilenciosamente(temporal);
+    }
+
+    /**
+     * Guarda contenido que no está en disco (un stream cualquiera): lo copia a un
+     * temporal calculando el SHA-256 y controlando el tamaño en la misma pasada.
+     * Los bytes pasan por la JVM para el hash, así que se copian por bloques con un
+     * solo buffer en lugar de transferFrom, que con un origen que no es archivo
+     * tampoco evita la copia.
+     */
+    public ArchivoAlmacenado almacenar(InputStream contenido, String nombreArchivo) {
+        long inicio = System.nanoTime();
+        Path temporal = temporales.resolve(".subida-" + UUID.randomUUID() + ".tmp");
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            long tamano;
+            try (FileChannel destino = FileChannel.open(temporal, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                tamano = copiar(contenido, destino, sha256, nombreArchivo);
+                destino.force(false);
+            }
+            return moverAlAlmacen(temporal, HexFormat.of().formatHex(sha256.digest()), tamano, nombreArchivo, inicio);
+        } catch (IOException | NoSuchAlgorithmException ex) {
             throw new RuntimeException("Error al guardar el archivo " + nombreArchivo, ex);
+        } finally {
+            eliminarSilenciosamente(temporal);
+        }
+    }
+
+    /**
+     * Registra la referencia y mueve el temporal a su ruta por contenido con un rename
+     * atómico; si el blob ya existía se reemplaza por uno idéntico, de modo que siempre
+     * queda presente tras registrar.
+     */
+    private ArchivoAlmacenado moverAlAlmacen(Path temporal, String hash, long tamano, String nombreArchivo,
+                                            long inicio) throws IOException {
+        Path destinoRuta = rutaBlob(hash);
+        Files.createDirectories(destinoRuta.getParent());
+
+        registrarReferencia(hash, tamano, nombreArchivo);
+        Files.move(temporal, destinoRuta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        metricasPrestamo.registrarSubida(tamano, System.nanoTime() - inicio);
+        return new ArchivoAlmacenado(destinoRuta.toString(), tamano, hash);
+    }
+
+    /**
+     * Quita una referencia al documento guardado en la ruta indicada. Cuando nadie
+     * más lo usa se borran la fila y el blob, con la fila bloqueada para que una
+     * subida concurrente del mismo contenido espere y vuelva a crearlo.
+     */
+    public void liberarArchivo(String ruta) {
+        String hash = hashDesdeRuta(ruta);
+        if (hash == null) return;
+        transaccionPropia.executeWithoutResult(status ->
+                documentoRepository.findParaActualizar(hash).ifPresent(documento -> {
+                    if (documento.getReferencias() > 1) {
+                        documento.setReferencias(documento.getReferencias() - 1);
+                        return;
+                    }
+                    documentoRepository.delete(documento);
+                    documentoRepository.flush();
+                    eliminarSilenciosamente(rutaBlob(hash));
+                }));
+    }
+
+    /**
+     * Libera los documentos recién cuando la transacción en curso confirma: si hubiera
+     * rollback la solicitud seguiría referenciándolos. Sin transacción, de inmediato.
+     */
+    public void liberarAlConfirmar(Collection<String> rutas) {
+        if (rutas.isEmpty()) return;
+        List<String> pendientes = List.copyOf(rutas);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendientes.forEach(FileStorageService.this::liberarArchivo);
+                }
+            });
+        } else {
+            pendientes.forEach(this::liberarArchivo);
+        }
+    }
+
+    /**
+     * Ruta física de un documento adjunto, siempre que esté dentro del almacén y exista.
+     * Protege la descarga de rutas manipuladas que apunten fuera de uploadDir.
+     */
+    public Path resolverArchivo(String ruta) {
+        if (ruta == null || ruta.isBlank()) {
+            throw new ResourceNotFoundException("Documento no encontrado");
+        }
+        Path path = Paths.get(ruta.trim()).toAbsolutePath().normalize();
+        if (!path.startsWith(fileStorageLocation) || !Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) {
+            throw new ResourceNotFoundException("Documento no encontrado");
+        }
+        return path;
+    }
+
+    /**
+     * Verifica el límite conjunto de los archivos de una misma solicitud.
+     */
+    public void validarTamanoTotal(MultipartFile... archivos) {
+        long total = 0;
+        for (MultipartFile archivo : archivos) {
+            total += archivo.getSize();
+        }
+        if (total > tamanoMaximoSolicitud) {
+            throw new BusinessException("Los archivos de la solicitud exceden el máximo de "
+                    + tamanoMaximoSolicitud / (1024 * 1024) + " MB.");
+        }
+    }
+
+    private String validarNombreYTamano(MultipartFile archivo) {
+        String nombreArchivo = StringUtils.cleanPath(archivo.getOriginalFilename());
+        if (nombreArchivo.contains("..")) {
+            throw new RuntimeException("Archivo inválido: " + nombreArchivo);
+        }
+        // El tamaño declarado permite rechazar antes de leer un solo byte
+        if (archivo.getSize() > tamanoMaximoArchivo) {
+            throw excedeTamanoArchivo(nombreArchivo);
+        }
+        return nombreArchivo;
+    }
+
+    private void registrarReferencia(String hash, long tamano, String nombreArchivo) {
+        if (documentoRepository.incrementarReferencias(hash) > 0) {
+            return;
+        }
+        try {
+            documentoRepository.insertarDocumento(hash, tamano, nombreArchivo, LocalDateTime.now());
+        } catch (DataIntegrityViolationException ex) {
+            // Otra subida del mismo contenido creó la fila primero
+            documentoRepository.incrementarReferencias(hash);
+        }
+    }
+
+    private Path rutaBlob(String hash) {
+        return blobs.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    /**
+     * Extrae el hash de una ruta del almacén; null si la ruta no pertenece a él.
+     */
+    String hashDesdeRuta(String ruta) {
+        if (ruta == null || ruta.isBlank()) return null;
+        Path path = Paths.get(ruta.trim()).toAbsolutePath().normalize();
+        if (!path.startsWith(blobs)) return null;
+        String hash = path.getFileName().toString();
+        return path.equals(rutaBlob(hash)) ? hash : null;
+    }
+
+    /**
+     * Copia por bloques y corta apenas se supera el límite, sin confiar en el tamaño declarado.
+     */
+    private long copiar(InputStream origen, FileChannel destino, MessageDigest sha256, String nombreArchivo)
+            throws IOException {
+        byte[] bloque = new byte[BLOQUE_TRANSFERENCIA];
+        ByteBuffer buffer = ByteBuffer.wrap(bloque);
+        long total = 0;
+        int leidos;
+        while ((leidos = origen.readNBytes(bloque, 0, bloque.length)) > 0) {
+            total += leidos;
+            if (total > tamanoMaximoArchivo) {
+                throw excedeTamanoArchivo(nombreArchivo);
+            }
+            sha256.update(bloque, 0, leidos);
+            buffer.clear().limit(leidos);
+            while (buffer.hasRemaining()) {
+                destino.write(buffer);
+            }
+        }
+        return total;
+    }
+
+    private BusinessException excedeTamanoArchivo(String nombreArchivo) {
+        return new BusinessException("El archivo " + nombreArchivo + " excede el máximo de "
+                + tamanoMaximoArchivo / (1024 * 1024) + " MB.");
+    }
+
+    private static void eliminarSilenciosamente(Path ruta) {
+        if (ruta == null) return;
+        try {
+            Files.deleteIfExists(ruta);
+        } catch (IOException ignored) {
+            // Un temporal huérfano no afecta a los archivos confirmados
         }
     }
 }
@@ -0,0 +1,31 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.exception.BusinessException;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formatos de archivo por registro ("csv" o "ndjson") que aceptan la exportación,
+ * la importación y la tabla de amortización.
+ */
+public final class FormatoRegistros {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private FormatoRegistros() {
+    }
+
+    /**
+     * true para "csv", false para "ndjson" o sin formato; cualquier otro valor es un error del cliente.
+     */
+    public static boolean esCsv(String formato) {
+        if (formato == null || formato.equalsIgnoreCase("ndjson")) return false;
+        if (formato.equalsIgnoreCase("csv")) return true;
+        throw new BusinessException("Formato no soportado: " + formato + " (use ndjson o csv)");
+    }
+
+    public static MediaType tipoContenido(boolean csv) {
+        return csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON;
+    }
+}
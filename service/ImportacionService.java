@@ -0,0 +1,421 @@
+package com.prestabanco.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestabanco.app.config.FileStorageProperties;
+import com.prestabanco.app.config.ImportacionProperties;
+import com.prestabanco.app.dto.ImportacionResponse;
+import com.prestabanco.app.dto.SolicitudImportada;
+import com.prestabanco.app.entity.EstadoSolicitud;
+import com.prestabanco.app.entity.Importacion;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.entity.TipoPrestamo;
+import com.prestabanco.app.entity.Usuario;
+import com.prestabanco.app.exception.BusinessException;
+import com.prestabanco.app.exception.ConflictoException;
+import com.prestabanco.app.exception.ResourceNotFoundException;
+import com.prestabanco.app.repository.ImportacionRepository;
+import com.prestabanco.app.repository.UsuarioRepository;
+import com.prestabanco.app.service.LectorRegistros.Registro;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Importación masiva de usuarios o solicitudes desde CSV o NDJSON.
+ *
+ * El archivo se lee de a un registro y se procesa por lotes de
+ * importacion.tamano-lote: cada lote se valida, se inserta en una transacción
+ * con batch JDBC (los ids salen de secuencias pooled, no de IDENTITY) y en esa
+ * misma transacción avanza el punto de control. Después se limpia el contexto
+ * de persistencia, así que la memoria depende del lote y no del archivo.
+ *
+ * Los registros inválidos no detienen la importación: se anotan en un reporte
+ * CSV de rechazados (registro, motivo, contenido) junto al almacén de archivos.
+ */
+@Service
+public class ImportacionService {
+
+    public static final String USUARIOS = "usuarios";
+    public static final String SOLICITUDES = "solicitudes";
+
+    private static final Pattern ID_VALIDO = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    @Autowired
+    private ImportacionRepository importacionRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ImportacionProperties properties;
+
+    @Autowired
+    private FileStorageProperties fileStorageProperties;
+
+    // Una misma importación no puede correr dos veces a la vez: pisarían el punto de control
+    private final Set<String> enCurso = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Importa el contenido recibido. Con un idImportacion ya conocido se retoma
+     * desde su punto de control (el archivo debe ser el mismo); uno completado
+     * solo devuelve su resumen.
+     */
+    public ImportacionResponse importar(String tipo, String formato, String idImportacion, InputStream entrada) {
+        if (!USUARIOS.equals(tipo) && !SOLICITUDES.equals(tipo)) {
+            throw new BusinessException("Tipo de importación no soportado: " + tipo + " (use usuarios o solicitudes)");
+        }
+        boolean csv = FormatoRegistros.esCsv(formato);
+        String id = idImportacion == null || idImportacion.isBlank() ? UUID.randomUUID().toString() : idImportacion;
+        if (!ID_VALIDO.matcher(id).matches()) {
+            throw new BusinessException("idImportacion solo admite letras, números, '-' y '_' (máximo 64).");
+        }
+        if (!enCurso.add(id)) {
+            throw new ConflictoException("La importación " + id + " ya está en curso.");
+        }
+        try {
+            Importacion importacion = importacionRepository.findById(id).orElse(null);
+            if (importacion == null) {
+                importacion = new Importacion();
+                importacion.setIdImportacion(id);
+                importacion.setTipo(tipo);
+                importacion.setFormato(csv ? "csv" : "ndjson");
+                importacion.setFechaInicio(LocalDateTime.now());
+            } else if (!importacion.getTipo().equals(tipo) || csv != "csv".equals(importacion.getFormato())) {
+                throw new BusinessException("La importación " + id + " es de " + importacion.getTipo()
+                        + " en formato " + importacion.getFormato() + ".");
+            } else if (Importacion.COMPLETADA.equals(importacion.getEstado())) {
+                return respuesta(importacion, 0, 0, 0);
+            }
+            importacion.setEstado(Importacion.EN_CURSO);
+            importacion.setMensajeError(null);
+            importacion.setFechaActualizacion(LocalDateTime.now());
+            return ejecutar(importacionRepository.save(importacion), csv, entrada);
+        } finally {
+            enCurso.remove(id);
+        }
+    }
+
+    public ImportacionResponse obtenerImportacion(String idImportacion) {
+        return importacionRepository.findById(idImportacion)
+                .map(importacion -> respuesta(importacion, 0, 0, 0))
+                .orElseThrow(() -> new ResourceNotFoundException("No existe la importación: " + idImportacion));
+    }
+
+    public Path obtenerReporteRechazos(String idImportacion) {
+        if (!ID_VALIDO.matcher(idImportacion).matches() || !importacionRepository.existsById(idImportacion)) {
+            throw new ResourceNotFoundException("No existe la importación: " + idImportacion);
+        }
+        Path reporte = rutaRechazos(idImportacion);
+        if (!Files.isRegularFile(reporte)) {
+            throw new ResourceNotFoundException("La importación " + idImportacion + " no tiene reporte de rechazados.");
+        }
+        return reporte;
+    }
+
+    private ImportacionResponse ejecutar(Importacion importacion, boolean csv, InputStream entrada) {
+        long inicio = System.nanoTime();
+        int tamanoLote = Math.max(1, properties.getTamanoLote());
+        long omitidos = 0;
+        long leidos = 0;
+        Path reporte = rutaRechazos(importacion.getIdImportacion());
+        try {
+            Files.createDirectories(reporte.getParent());
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+                 Writer rechazos = Files.newBufferedWriter(reporte, StandardCharsets.UTF_8,
+                         StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (Files.size(reporte) == 0) {
+                    rechazos.write("registro,motivo,contenido\n");
+                }
+                LectorRegistros lector = new LectorRegistros(reader, objectMapper, csv,
+                        properties.getTamanoMaximoRegistro(), properties.getLineasMaximasRegistro());
+                omitidos = lector.saltarHasta(importacion.getRegistrosProcesados());
+
+                List<Registro> lote = new ArrayList<>(tamanoLote);
+                Registro registro;
+                while ((registro = lector.siguiente()) != null) {
+                    lote.add(registro);
+                    if (lote.size() == tamanoLote) {
+                        importacion = procesarLote(importacion, lote, rechazos);
+                        leidos += lote.size();
+                        lote.clear();
+                    }
+                }
+                if (!lote.isEmpty()) {
+                    importacion = procesarLote(importacion, lote, rechazos);
+                    leidos += lote.size();
+                }
+            }
+            importacion.setEstado(Importacion.COMPLETADA);
+            importacion.setFechaActualizacion(LocalDateTime.now());
+            importacion = importacionRepository.save(importacion);
+            return respuesta(importacion, omitidos, leidos, System.nanoTime() - inicio);
+        } catch (IOException | RuntimeException ex) {
+            // El punto de control queda en el último lote confirmado: reenviar el archivo retoma desde ahí
+            importacion.setEstado(Importacion.ERROR);
+            importacion.setMensajeError(ex.getMessage());
+            importacion.setFechaActualizacion(LocalDateTime.now());
+            importacionRepository.save(importacion);
+            if (ex instanceof IOException io) {
+                throw new UncheckedIOException("Error al leer el archivo de importación", io);
+            }
+            throw (RuntimeException) ex;
+        }
+    }
+
+    /**
+     * Valida el lote, inserta los válidos junto con el avance del punto de control
+     * y, ya confirmado, agrega los rechazados al reporte.
+     */
+    private Importacion procesarLote(Importacion importacion, List<Registro> lote, Writer reporte) throws IOException {
+        List<String> rechazos = new ArrayList<>();
+        List<Object> entidades = new ArrayList<>(lote.size());
+        List<Long> idsUsuario = new ArrayList<>(lote.size());
+        if (USUARIOS.equals(importacion.getTipo())) {
+            prepararUsuarios(lote, entidades, rechazos);
+        } else {
+            prepararSolicitudes(lote, entidades, idsUsuario, rechazos);
+        }
+
+        String id = importacion.getIdImportacion();
+        long procesados = importacion.getRegistrosProcesados() + lote.size();
+        int insertados = entidades.size();
+        int rechazados = lote.size() - insertados;
+        Importacion actualizada = transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(Math.max(1, properties.getTamanoLote()));
+            for (int i = 0; i < entidades.size(); i++) {
+                Object entidad = entidades.get(i);
+                if (entidad instanceof Solicitud solicitud) {
+                    solicitud.setUsuario(entityManager.getReference(Usuario.class, idsUsuario.get(i)));
+                }
+                entityManager.persist(entidad);
+            }
+            Importacion punto = entityManager.find(Importacion.class, id);
+            punto.setRegistrosProcesados(procesados);
+            punto.setInsertados(punto.getInsertados() + insertados);
+            punto.setRechazados(punto.getRechazados() + rechazados);
+            punto.setFechaActualizacion(LocalDateTime.now());
+            entityManager.flush();
+            entityManager.clear();
+            return punto;
+        });
+
+        for (String rechazo : rechazos) {
+            reporte.write(rechazo);
+        }
+        reporte.flush();
+        return actualizada;
+    }
+
+    private void prepararUsuarios(List<Registro> lote, List<Object> entidades, List<String> rechazos) {
+        Map<String, Registro> registroPorClave = new HashMap<>();
+        Map<String, Usuario> porClave = new LinkedHashMap<>();
+        for (Registro registro : lote) {
+            try {
+                Usuario usuario = objectMapper.treeToValue(registro.campos(), Usuario.class);
+                validarUsuario(usuario);
+                String clave = usuario.getTipoIdentificacion() + "|" + usuario.getNumeroIdentificacion();
+                if (porClave.containsKey(clave)) {
+                    rechazos.add(rechazo(registro, "Identificación repetida en el lote (registro "
+                            + registroPorClave.get(clave).getNumero() + ")"));
+                    continue;
+                }
+                usuario.setIdUsuario(null);
+                usuario.setVersion(null);
+                usuario.setFechaRegistro(LocalDateTime.now());
+                porClave.put(clave, usuario);
+                registroPorClave.put(clave, registro);
+            } catch (BusinessException | JsonProcessingException | IllegalArgumentException ex) {
+                rechazos.add(rechazo(registro, motivo(ex)));
+            }
+        }
+
+        Set<String> existentes = new HashSet<>();
+        if (!porClave.isEmpty()) {
+            Set<String> numeros = new HashSet<>();
+            porClave.values().forEach(u -> numeros.add(u.getNumeroIdentificacion()));
+            for (Object[] fila : usuarioRepository.findIdentificaciones(numeros)) {
+                existentes.add(fila[1] + "|" + fila[2]);
+            }
+        }
+        for (Map.Entry<String, Usuario> entrada : porClave.entrySet()) {
+            Usuario usuario = entrada.getValue();
+            if (existentes.contains(entrada.getKey())) {
+                rechazos.add(rechazo(registroPorClave.get(entrada.getKey()), "Ya existe un usuario con identificación "
+                        + usuario.getTipoIdentificacion() + " " + usuario.getNumeroIdentificacion()));
+            } else {
+                entidades.add(usuario);
+            }
+        }
+    }
+
+    private void prepararSolicitudes(List<Registro> lote, List<Object> entidades, List<Long> idsUsuario,
+                                     List<String> rechazos) {
+        List<Registro> registros = new ArrayList<>(lote.size());
+        List<SolicitudImportada> importadas = new ArrayList<>(lote.size());
+        Set<Long> ids = new HashSet<>();
+        Set<String> numeros = new HashSet<>();
+        for (Registro registro : lote) {
+            try {
+                SolicitudImportada importada = objectMapper.treeToValue(registro.campos(), SolicitudImportada.class);
+                validarSolicitud(importada);
+                if (importada.getIdUsuario() != null) {
+                    ids.add(importada.getIdUsuario());
+                } else {
+                    numeros.add(importada.getNumeroIdentificacion());
+                }
+                registros.add(registro);
+                importadas.add(importada);
+            } catch (BusinessException | JsonProcessingException | IllegalArgumentException ex) {
+                rechazos.add(rechazo(registro, motivo(ex)));
+            }
+        }
+
+        // Usuarios del lote resueltos con dos consultas, no una por registro
+        Set<Long> idsExistentes = ids.isEmpty() ? Set.of() : new HashSet<>(usuarioRepository.findIdsExistentes(ids));
+        Map<String, Long> idPorIdentificacion = new HashMap<>();
+        if (!numeros.isEmpty()) {
+            for (Object[] fila : usuarioRepository.findIdentificaciones(numeros)) {
+                idPorIdentificacion.put(fila[1] + "|" + fila[2], (Long) fila[0]);
+            }
+        }
+
+        for (int i = 0; i < importadas.size(); i++) {
+            SolicitudImportada importada = importadas.get(i);
+            Long idUsuario = importada.getIdUsuario() != null
+                    ? (idsExistentes.contains(importada.getIdUsuario()) ? importada.getIdUsuario() : null)
+                    : idPorIdentificacion.get(importada.getTipoIdentificacion() + "|" + importada.getNumeroIdentificacion());
+            if (idUsuario == null) {
+                rechazos.add(rechazo(registros.get(i), "Usuario no encontrado"));
+                continue;
+            }
+            Solicitud solicitud = new Solicitud();
+            solicitud.setTipoPrestamo(TipoPrestamo.desdeNombre(importada.getTipoPrestamo()).getNombre());
+            solicitud.setMontoSolicitado(importada.getMontoSolicitado());
+            solicitud.setPlazoSolicitado(importada.getPlazoSolicitado());
+            solicitud.setTasaInteres(importada.getTasaInteres());
+            solicitud.setValorPropiedad(importada.getValorPropiedad());
+            solicitud.setEstadoSolicitud(importada.getEstadoSolicitud() == null ? EstadoSolicitud.E1_REVISION_INICIAL
+                    : SolicitudService.parsearEstado(importada.getEstadoSolicitud()));
+            solicitud.setFechaSolicitud(importada.getFechaSolicitud() == null ? LocalDateTime.now() : importada.getFechaSolicitud());
+            solicitud.setComentariosSeguimiento(importada.getComentariosSeguimiento());
+            entidades.add(solicitud);
+            idsUsuario.add(idUsuario);
+        }
+    }
+
+    private static void validarUsuario(Usuario usuario) {
+        if (vacio(usuario.getNombreCompleto())) {
+            throw new BusinessException("Falta nombreCompleto");
+        }
+        if (vacio(usuario.getTipoIdentificacion()) || vacio(usuario.getNumeroIdentificacion())) {
+            throw new BusinessException("Faltan tipoIdentificacion y numeroIdentificacion");
+        }
+        noNegativo(usuario.getIngresosMensuales(), "ingresosMensuales");
+        noNegativo(usuario.getDeudasActuales(), "deudasActuales");
+        noNegativo(usuario.getSaldoCuentaAhorros(), "saldoCuentaAhorros");
+    }
+
+    private static void validarSolicitud(SolicitudImportada solicitud) {
+        if (solicitud.getIdUsuario() == null
+                && (vacio(solicitud.getTipoIdentificacion()) || vacio(solicitud.getNumeroIdentificacion()))) {
+            throw new BusinessException("Falta idUsuario o tipoIdentificacion y numeroIdentificacion");
+        }
+        if (TipoPrestamo.desdeNombre(solicitud.getTipoPrestamo()) == null) {
+            throw new BusinessException("Tipo de préstamo desconocido: " + solicitud.getTipoPrestamo());
+        }
+        if (solicitud.getMontoSolicitado() == null || solicitud.getMontoSolicitado().signum() <= 0) {
+            throw new BusinessException("montoSolicitado debe ser mayor que cero");
+        }
+        if (solicitud.getPlazoSolicitado() == null || solicitud.getPlazoSolicitado() <= 0) {
+            throw new BusinessException("plazoSolicitado debe ser mayor que cero");
+        }
+        if (solicitud.getTasaInteres() == null || solicitud.getTasaInteres().signum() < 0) {
+            throw new BusinessException("tasaInteres es obligatoria y no puede ser negativa");
+        }
+        if (solicitud.getValorPropiedad() != null && solicitud.getValorPropiedad().signum() <= 0) {
+            throw new BusinessException("valorPropiedad debe ser mayor que cero");
+        }
+        if (solicitud.getEstadoSolicitud() != null) {
+            SolicitudService.parsearEstado(solicitud.getEstadoSolicitud());
+        }
+    }
+
+    private static boolean vacio(String valor) {
+        return valor == null || valor.isBlank();
+    }
+
+    private static void noNegativo(BigDecimal valor, String campo) {
+        if (valor != null && valor.signum() < 0) {
+            throw new BusinessException(campo + " no puede ser negativo");
+        }
+    }
+
+    private static String motivo(Exception ex) {
+        return ex instanceof JsonProcessingException json ? json.getOriginalMessage() : ex.getMessage();
+    }
+
+    private static String rechazo(Registro registro, String motivo) {
+        return registro.getNumero() + "," + ExportacionService.escaparCsv(motivo) + ","
+                + ExportacionService.escaparCsv(registro.getTexto()) + "\n";
+    }
+
+    private Path rutaRechazos(String idImportacion) {
+        return Paths.get(fileStorageProperties.getUploadDir(), "importaciones", idImportacion + "-rechazos.csv");
+    }
+
+    private static ImportacionResponse respuesta(Importacion importacion, long omitidos, long leidos, long duracionNanos) {
+        ImportacionResponse response = new ImportacionResponse();
+        response.setIdImportacion(importacion.getIdImportacion());
+        response.setTipo(importacion.getTipo());
+        response.setFormato(importacion.getFormato());
+        response.setEstado(importacion.getEstado());
+        response.setRegistrosProcesados(importacion.getRegistrosProcesados());
+        response.setInsertados(importacion.getInsertados());
+        response.setRechazados(importacion.getRechazados());
+        response.setRegistrosOmitidos(omitidos);
+        response.setRegistrosLeidos(leidos);
+        response.setDuracionMs(duracionNanos / 1_000_000);
+        response.setRegistrosPorSegundo(duracionNanos == 0 ? 0 : leidos * 1_000_000_000d / duracionNanos);
+        response.setReporteRechazos("/api/importaciones/" + importacion.getIdImportacion() + "/rechazos");
+        response.setFechaInicio(importacion.getFechaInicio());
+        response.setFechaActualizacion(importacion.getFechaActualizacion());
+        response.setMensajeError(importacion.getMensajeError());
+        return response;
+    }
+}
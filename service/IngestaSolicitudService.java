@@ -0,0 +1,145 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.config.IngestaProperties;
+import com.prestabanco.app.dto.EstadoIngestaResponse;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.exception.ResourceNotFoundException;
+import com.prestabanco.app.exception.ServicioSaturadoException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Recepción asíncrona de solicitudes con documentos. La petición solo retiene los
+ * archivos en el almacén temporal y encola el trabajo; guardar los documentos e
+ * insertar la solicitud ocurre en el ejecutor de ingesta. El cliente consulta el
+ * avance con el id devuelto.
+ *
+ * La cola y los estados viven en memoria de esta instancia: si la aplicación se
+ * detiene, las ingestas aceptadas (202) que no terminaron se pierden, su id deja de
+ * existir (404) y los temporales quedan huérfanos en uploadDir/tmp. El cliente debe
+ * reenviar la solicitud si no alcanzó a ver COMPLETADA.
+ */
+@Service
+public class IngestaSolicitudService {
+
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String PROCESANDO = "PROCESANDO";
+    public static final String COMPLETADA = "COMPLETADA";
+    public static final String ERROR = "ERROR";
+
+    private final SolicitudService solicitudService;
+    private final FileStorageService fileStorageService;
+    private final ExecutorService ejecutorIngesta;
+
+    // Ingestas en cola o en proceso: nunca se desalojan. Están acotadas por la cola del ejecutor
+    private final Map<String, EstadoIngestaResponse> enCurso = new ConcurrentHashMap<>();
+
+    // Ingestas terminadas: consultables hasta que expiran o se desalojan
+    private final CacheAcotada<String, EstadoIngestaResponse> terminadas;
+
+    @Autowired
+    public IngestaSolicitudService(SolicitudService solicitudService,
+                                   FileStorageService fileStorageService,
+                                   @Qualifier("ejecutorIngesta") ExecutorService ejecutorIngesta,
+                                   IngestaProperties properties) {
+        this.solicitudService = solicitudService;
+        this.fileStorageService = fileStorageService;
+        this.ejecutorIngesta = ejecutorIngesta;
+        this.terminadas = new CacheAcotada<>("ingestas", properties.getCacheEstados());
+    }
+
+    /**
+     * Retiene los documentos y encola la creación de la solicitud. Con la cola llena
+     * descarta lo retenido y lanza ServicioSaturadoException (429).
+     */
+    public EstadoIngestaResponse recibir(Solicitud solicitud, MultipartFile... documentos) {
+        fileStorageService.validarTamanoTotal(documentos);
+
+        List<Path> temporales = new ArrayList<>(documentos.length);
+        List<String> nombres = new ArrayList<>(documentos.length);
+        try {
+            for (MultipartFile documento : documentos) {
+                nombres.add(StringUtils.cleanPath(documento.getOriginalFilename()));
+                temporales.add(fileStorageService.retenerTemporal(documento));
+            }
+        } catch (RuntimeException ex) {
+            temporales.forEach(fileStorageService::descartarTemporal);
+            throw ex;
+        }
+
+        String idIngesta = UUID.randomUUID().toString();
+        EstadoIngestaResponse estado = new EstadoIngestaResponse(
+                idIngesta, PENDIENTE, null, null, LocalDateTime.now(), null);
+        enCurso.put(idIngesta, estado);
+        try {
+            ejecutorIngesta.execute(() -> procesar(estado, solicitud, temporales, nombres));
+        } catch (RejectedExecutionException ex) {
+            enCurso.remove(idIngesta);
+            temporales.forEach(fileStorageService::descartarTemporal);
+            throw new ServicioSaturadoException("Hay demasiadas solicitudes en proceso, intente nuevamente en unos momentos.");
+        }
+        return estado;
+    }
+
+    public EstadoIngestaResponse obtenerEstado(String idIngesta) {
+        EstadoIngestaResponse estado = enCurso.get(idIngesta);
+        if (estado == null) {
+            estado = terminadas.obtener(idIngesta);
+        }
+        if (estado == null) {
+            throw new ResourceNotFoundException("No existe la ingesta con id: " + idIngesta);
+        }
+        return estado;
+    }
+
+    private void procesar(EstadoIngestaResponse recibido, Solicitud solicitud,
+                          List<Path> temporales, List<String> nombres) {
+        actualizar(recibido, PROCESANDO, null, null);
+
+        List<String> rutas = new ArrayList<>(temporales.size());
+        try {
+            for (int i = 0; i < temporales.size(); i++) {
+                rutas.add(fileStorageService.almacenarTemporal(temporales.get(i), nombres.get(i)).getRuta());
+            }
+            solicitud.setDocumentosAdjuntos(String.join(",", rutas));
+            Solicitud guardada = solicitudService.crearSolicitud(solicitud);
+            actualizar(recibido, COMPLETADA, guardada.getIdSolicitud(), null);
+        } catch (RuntimeException ex) {
+            // Sin solicitud nadie referencia los documentos ya guardados
+            rutas.forEach(fileStorageService::liberarArchivo);
+            temporales.forEach(fileStorageService::descartarTemporal);
+            actualizar(recibido, ERROR, null, ex.getMessage());
+        }
+    }
+
+    /**
+     * Publica un estado nuevo en lugar de modificar el existente, para que una consulta
+     * concurrente nunca serialice un objeto a medio actualizar.
+     */
+    private void actualizar(EstadoIngestaResponse recibido, String estado, Long idSolicitud, String mensaje) {
+        boolean terminado = COMPLETADA.equals(estado) || ERROR.equals(estado);
+        EstadoIngestaResponse nuevo = new EstadoIngestaResponse(
+                recibido.getIdIngesta(), estado, idSolicitud, mensaje,
+                recibido.getFechaRecepcion(), terminado ? LocalDateTime.now() : null);
+        if (!terminado) {
+            enCurso.put(recibido.getIdIngesta(), nuevo);
+            return;
+        }
+        // Primero a la caché y luego fuera de enCurso: una consulta intermedia lo encuentra en alguna
+        terminadas.guardar(recibido.getIdIngesta(), nuevo);
+        enCurso.remove(recibido.getIdIngesta());
+    }
+}
@@ -0,0 +1,266 @@
+package com.prestabanco.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.prestabanco.app.exception.BusinessException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lee un archivo CSV (con encabezado, comillas como en la exportación) o NDJSON
+ * de a un registro, sin cargarlo completo en memoria. Cada registro se entrega
+ * como un objeto JSON con los campos por nombre, listo para convertir con Jackson.
+ *
+ * Un registro no puede superar tamanoMaximo caracteres ni, en CSV, lineasMaximas
+ * líneas: así una comilla sin cerrar no arrastra el resto del archivo a memoria.
+ * El registro que se pasa se corta ahí, se entrega con su motivo de rechazo y la
+ * lectura sigue en la línea siguiente.
+ */
+class LectorRegistros {
+
+    private final Reader reader;
+    private final ObjectMapper objectMapper;
+    private final boolean csv;
+    private final int tamanoMaximo;
+    private final int lineasMaximas;
+    private final List<String> columnas;
+    private long numero;
+
+    // Buffer propio: readLine no permite acotar el largo de una línea
+    private final char[] buffer = new char[8192];
+    private int posicion;
+    private int limite;
+    // Se vio un '\r': un '\n' inmediato pertenece al mismo fin de línea
+    private boolean omitirSaltoLinea;
+    // La última línea leída se truncó en el máximo
+    private boolean lineaCortada;
+    // Motivo por el que el último registro leído se rechaza sin interpretarlo
+    private String motivoRechazo;
+
+    LectorRegistros(Reader reader, ObjectMapper objectMapper, boolean csv,
+                    int tamanoMaximo, int lineasMaximas) throws IOException {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+        this.csv = csv;
+        this.tamanoMaximo = Math.max(1, tamanoMaximo);
+        this.lineasMaximas = Math.max(1, lineasMaximas);
+        if (csv) {
+            String encabezado = leerTexto();
+            if (encabezado == null) {
+                throw new BusinessException("El archivo CSV está vacío: se esperaba una fila de encabezado.");
+            }
+            if (motivoRechazo != null) {
+                throw new BusinessException("Encabezado inválido: " + motivoRechazo);
+            }
+            this.columnas = separarCsv(encabezado).stream().map(String::trim).toList();
+        } else {
+            this.columnas = List.of();
+        }
+    }
+
+    /**
+     * Siguiente registro, o null al terminar el archivo. Las líneas vacías no cuentan.
+     */
+    Registro siguiente() throws IOException {
+        String texto = leerTexto();
+        return texto == null ? null : new Registro(++numero, texto, motivoRechazo);
+    }
+
+    /**
+     * Avanza hasta el registro indicado sin interpretarlo (retomar desde un punto de control).
+     * Retorna cuántos se saltaron, que puede ser menos si el archivo termina antes.
+     */
+    long saltarHasta(long registro) throws IOException {
+        long saltados = 0;
+        while (numero < registro && leerTexto() != null) {
+            numero++;
+            saltados++;
+        }
+        return saltados;
+    }
+
+    /**
+     * Texto de un registro. En CSV un campo entre comillas puede contener saltos
+     * de línea, así que se siguen leyendo líneas mientras haya comillas abiertas,
+     * contando solo las de cada línea nueva, hasta los máximos de tamaño y líneas.
+     */
+    private String leerTexto() throws IOException {
+        motivoRechazo = null;
+        String linea;
+        do {
+            linea = leerLinea(tamanoMaximo);
+            if (linea == null) return null;
+        } while (!lineaCortada && linea.isBlank());
+        if (lineaCortada) {
+            motivoRechazo = excedeTamano();
+            return linea;
+        }
+        int comillas = contarComillas(linea);
+        if (!csv || comillas % 2 == 0) {
+            return linea;
+        }
+        StringBuilder registro = new StringBuilder(linea);
+        for (int lineas = 1; ; lineas++) {
+            if (lineas == lineasMaximas) {
+                motivoRechazo = "Comillas sin cerrar: el registro supera " + lineasMaximas + " líneas.";
+                break;
+            }
+            linea = leerLinea(Math.max(0, tamanoMaximo - registro.length() - 1));
+            if (linea == null) {
+                motivoRechazo = "Comillas sin cerrar al final del archivo.";
+                break;
+            }
+            registro.append('\n').append(linea);
+            if (lineaCortada) {
+                motivoRechazo = excedeTamano();
+                break;
+            }
+            comillas += contarComillas(linea);
+            if (comillas % 2 == 0) break;
+        }
+        return registro.toString();
+    }
+
+    /**
+     * Siguiente línea sin su fin (\n, \r\n o \r), o null al terminar el archivo. Guarda
+     * a lo sumo maximo caracteres y descarta el resto de la línea, marcando lineaCortada.
+     */
+    private String leerLinea(int maximo) throws IOException {
+        lineaCortada = false;
+        StringBuilder linea = new StringBuilder();
+        boolean hayLinea = false;
+        while (true) {
+            if (posicion == limite) {
+                limite = Math.max(0, reader.read(buffer, 0, buffer.length));
+                posicion = 0;
+                if (limite == 0) {
+                    return hayLinea ? linea.toString() : null;
+                }
+            }
+            if (omitirSaltoLinea) {
+                omitirSaltoLinea = false;
+                if (buffer[posicion] == '\n') {
+                    posicion++;
+                    continue;
+                }
+            }
+            hayLinea = true;
+            int inicio = posicion;
+            while (posicion < limite && buffer[posicion] != '\n' && buffer[posicion] != '\r') {
+                posicion++;
+            }
+            int cabe = Math.min(posicion - inicio, maximo - linea.length());
+            if (cabe > 0) {
+                linea.append(buffer, inicio, cabe);
+            }
+            if (cabe < posicion - inicio) {
+                lineaCortada = true;
+            }
+            if (posicion < limite) {
+                omitirSaltoLinea = buffer[posicion] == '\r';
+                posicion++;
+                return linea.toString();
+            }
+        }
+    }
+
+    private String excedeTamano() {
+        return "El registro supera el máximo de " + tamanoMaximo + " caracteres.";
+    }
+
+    private static int contarComillas(String texto) {
+        int comillas = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) == '"') comillas++;
+        }
+        return comillas;
+    }
+
+    private static List<String> separarCsv(String registro) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < registro.length(); i++) {
+            char c = registro.charAt(i);
+            if (entreComillas) {
+                if (c == '"') {
+                    if (i + 1 < registro.length() && registro.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    final class Registro {
+        private final long numero;
+        private final String texto;
+        private final String motivoRechazo;
+
+        private Registro(long numero, String texto, String motivoRechazo) {
+            this.numero = numero;
+            this.texto = texto;
+            this.motivoRechazo = motivoRechazo;
+        }
+
+        long getNumero() {
+            return numero;
+        }
+
+        String getTexto() {
+            return texto;
+        }
+
+        /**
+         * Campos del registro por nombre. En CSV los valores vacíos se omiten
+         * para que Jackson los deje en null.
+         */
+        JsonNode campos() {
+            if (motivoRechazo != null) {
+                throw new BusinessException(motivoRechazo);
+            }
+            if (!csv) {
+                try {
+                    JsonNode nodo = objectMapper.readTree(texto);
+                    if (!nodo.isObject()) {
+                        throw new BusinessException("Se esperaba un objeto JSON por línea.");
+                    }
+                    return nodo;
+                } catch (JsonProcessingException ex) {
+                    throw new BusinessException("JSON inválido: " + ex.getOriginalMessage());
+                }
+            }
+            List<String> valores = separarCsv(texto);
+            if (valores.size() != columnas.size()) {
+                throw new BusinessException("Se esperaban " + columnas.size() + " columnas y hay " + valores.size() + ".");
+            }
+            ObjectNode nodo = objectMapper.createObjectNode();
+            for (int i = 0; i < valores.size(); i++) {
+                String valor = valores.get(i).trim();
+                if (!valor.isEmpty()) {
+                    nodo.put(columnas.get(i), valor);
+                }
+            }
+            return nodo;
+        }
+    }
+}
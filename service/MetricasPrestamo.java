@@ -0,0 +1,121 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.entity.TipoPrestamo;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas de los caminos críticos, publicadas por Micrometer (en Prometheus con
+ * management.endpoints.web.exposure.include=prometheus, en /actuator/prometheus).
+ *
+ * Todos los medidores se crean al iniciar o al compilar la política: registrar una
+ * medición es indexar un arreglo y llamar a record, sin armar tags por llamada. Los
+ * contadores de reglas leen los LongAdder que la política ya mantiene.
+ *
+ * Los tiempos por método de repositorio los publica Spring Boot Actuator como
+ * spring.data.repository.invocations (management.metrics.data.repository.autotime).
+ */
+@Component
+public class MetricasPrestamo {
+
+    public enum ResultadoEvaluacion {
+        APROBADA, RECHAZADA, INVALIDA
+    }
+
+    private static final String TIPO_DESCONOCIDO = "DESCONOCIDO";
+
+    private final MeterRegistry registry;
+    // [ordinal del tipo, o la última fila si es desconocido][ordinal del resultado]
+    private final Timer[][] evaluaciones;
+    private final Timer subidas;
+    private final DistributionSummary bytesSubidos;
+
+    @Autowired
+    public MetricasPrestamo(MeterRegistry registry) {
+        this.registry = registry;
+        TipoPrestamo[] tipos = TipoPrestamo.values();
+        ResultadoEvaluacion[] resultados = ResultadoEvaluacion.values();
+        this.evaluaciones = new Timer[tipos.length + 1][resultados.length];
+        for (int t = 0; t <= tipos.length; t++) {
+            String tipo = t < tipos.length ? tipos[t].name() : TIPO_DESCONOCIDO;
+            for (ResultadoEvaluacion resultado : resultados) {
+                evaluaciones[t][resultado.ordinal()] = Timer.builder("prestabanco.evaluacion")
+                        .description("Evaluación de solicitudes (validación por tipo y reglas R1..R7)")
+                        .tag("tipoPrestamo", tipo)
+                        .tag("resultado", resultado.name())
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofNanos(1_000))
+                        .maximumExpectedValue(Duration.ofSeconds(1))
+                        .register(registry);
+            }
+        }
+        this.subidas = Timer.builder("prestabanco.documentos.subida")
+                .description("Copia de un documento al almacén, desde el primer byte hasta el rename final")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(registry);
+        this.bytesSubidos = DistributionSummary.builder("prestabanco.documentos.bytes")
+                .description("Tamaño de los documentos guardados")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public void registrarEvaluacion(TipoPrestamo tipo, ResultadoEvaluacion resultado, long nanos) {
+        int fila = tipo == null ? evaluaciones.length - 1 : tipo.ordinal();
+        evaluaciones[fila][resultado.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void registrarSubida(long bytes, long nanos) {
+        subidas.record(nanos, TimeUnit.NANOSECONDS);
+        bytesSubidos.record(bytes);
+    }
+
+    /**
+     * Publica los contadores de una regla. Se llama una vez por código de regla; las
+     * recargas de la política reutilizan la misma estadística y no registran de nuevo.
+     */
+    void registrarRegla(String codigo, EstadisticaRegla estadistica) {
+        String grupo = codigo.indexOf('.') < 0 ? "GENERAL" : codigo.substring(0, codigo.indexOf('.'));
+        FunctionCounter.builder("prestabanco.reglas.rechazos", estadistica, EstadisticaRegla::getRechazos)
+                .description("Solicitudes que no cumplieron la regla")
+                .tag("regla", codigo)
+                .tag("grupo", grupo)
+                .register(registry);
+        FunctionCounter.builder("prestabanco.reglas.evaluaciones", estadistica, EstadisticaRegla::getEvaluaciones)
+                .description("Veces que se evaluó la regla")
+                .tag("regla", codigo)
+                .tag("grupo", grupo)
+                .register(registry);
+    }
+
+    /**
+     * Publica aciertos, fallos, salidas (desalojo o expiración) y tamaño de una caché.
+     */
+    void registrarCache(String nombre, CacheAcotada<?, ?> cache) {
+        FunctionCounter.builder("prestabanco.cache.aciertos", cache, CacheAcotada::getAciertos)
+                .description("Lecturas resueltas desde la caché")
+                .tag("cache", nombre)
+                .register(registry);
+        FunctionCounter.builder("prestabanco.cache.fallos", cache, CacheAcotada::getFallos)
+                .description("Lecturas que no encontraron la clave o la encontraron expirada")
+                .tag("cache", nombre)
+                .register(registry);
+        FunctionCounter.builder("prestabanco.cache.salidas", cache, CacheAcotada::getDesalojos)
+                .description("Entradas desalojadas por tamaño o vencidas por tiempo de vida")
+                .tag("cache", nombre)
+                .register(registry);
+        Gauge.builder("prestabanco.cache.tamano", cache, CacheAcotada::getTamano)
+                .description("Entradas en la caché")
+                .tag("cache", nombre)
+                .register(registry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.dto.CursorResponse;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reglas comunes de los listados paginados (por número y por cursor).
+ */
+final class Paginacion {
+
+    // Tope de elementos por página en los listados
+    static final int TAMANO_MAXIMO_PAGINA = 500;
+
+    private Paginacion() {
+    }
+
+    static int limitarTamano(int tamano) {
+        return Math.min(Math.max(1, tamano), TAMANO_MAXIMO_PAGINA);
+    }
+
+    /**
+     * Se pide un elemento extra para saber si hay más sin hacer otra consulta.
+     */
+    static <T> CursorResponse<T> armarCursor(List<T> bloque, int limite, Function<T, Long> id) {
+        if (bloque.size() <= limite) {
+            return new CursorResponse<>(bloque, null);
+        }
+        List<T> contenido = bloque.subList(0, limite);
+        return new CursorResponse<>(contenido, id.apply(contenido.get(limite - 1)));
+    }
+}
@@ -0,0 +1,50 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.config.PoliticaPrestamoProperties;
+import com.prestabanco.app.entity.TipoPrestamo;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Foto inmutable de la política vigente: reglas por tipo (indexadas por enum)
+ * y reglas generales R1..R7 en orden de evaluación.
+ */
+final class PoliticaCompilada {
+
+    private final long generacion;
+    private final PoliticaPrestamoProperties configuracion;
+    private final Map<TipoPrestamo, List<ReglaCompilada>> reglasPorTipo;
+    private final List<ReglaCompilada> reglasGenerales;
+
+    PoliticaCompilada(long generacion, PoliticaPrestamoProperties configuracion,
+                      EnumMap<TipoPrestamo, List<ReglaCompilada>> reglasPorTipo,
+                      List<ReglaCompilada> reglasGenerales) {
+        this.generacion = generacion;
+        this.configuracion = configuracion;
+        this.reglasPorTipo = reglasPorTipo;
+        this.reglasGenerales = List.copyOf(reglasGenerales);
+    }
+
+    long getGeneracion() {
+        return generacion;
+    }
+
+    PoliticaPrestamoProperties getConfiguracion() {
+        return configuracion;
+    }
+
+    boolean soporta(TipoPrestamo tipo) {
+        return reglasPorTipo.containsKey(tipo);
+    }
+
+    List<ReglaCompilada> reglasDeTipo(TipoPrestamo tipo) {
+        return reglasPorTipo.getOrDefault(tipo, Collections.emptyList());
+    }
+
+    List<ReglaCompilada> getReglasGenerales() {
+        return reglasGenerales;
+    }
+}
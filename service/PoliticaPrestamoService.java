@@ -0,0 +1,235 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.config.PoliticaPrestamoProperties;
+import com.prestabanco.app.config.PoliticaPrestamoProperties.CondicionesTipo;
+import com.prestabanco.app.dto.EstadisticaReglaResponse;
+import com.prestabanco.app.dto.ExplicacionEvaluacionResponse.ReglaIncumplida;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.entity.TipoPrestamo;
+import com.prestabanco.app.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Compila la configuración de políticas en reglas inmutables y las deja
+ * disponibles para la evaluación. Recargar solo reemplaza la referencia,
+ * por lo que las evaluaciones en curso terminan con la política anterior.
+ */
+@Service
+public class PoliticaPrestamoService {
+
+    private final Map<String, EstadisticaRegla> estadisticas = new ConcurrentHashMap<>();
+    private final AtomicLong generaciones = new AtomicLong();
+    private final MetricasPrestamo metricas;
+    private volatile PoliticaCompilada politica;
+
+    @Autowired
+    public PoliticaPrestamoService(PoliticaPrestamoProperties properties, MetricasPrestamo metricas) {
+        this.metricas = metricas;
+        this.politica = compilar(properties);
+    }
+
+    public PoliticaPrestamoProperties obtenerConfiguracion() {
+        return politica.getConfiguracion();
+    }
+
+    /**
+     * Reemplaza la política vigente sin reiniciar la aplicación.
+     */
+    public PoliticaPrestamoProperties recargar(PoliticaPrestamoProperties configuracion) {
+        this.politica = compilar(configuracion);
+        return configuracion;
+    }
+
+    public List<EstadisticaReglaResponse> obtenerEstadisticas() {
+        return estadisticas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> {
+                    EstadisticaRegla est = e.getValue();
+                    long evaluaciones = est.getEvaluaciones();
+                    return new EstadisticaReglaResponse(e.getKey(), evaluaciones, est.getRechazos(),
+                            evaluaciones == 0 ? 0 : (double) est.getNanosTotales() / evaluaciones);
+                })
+                .collect(Collectors.toList());
+    }
+
+    PoliticaCompilada getPolitica() {
+        return politica;
+    }
+
+    /**
+     * Valida las reglas particulares según el tipo de préstamo (Plazo máx, rango de tasas, % de financiamiento).
+     */
+    public void validarCondicionesPorTipo(Solicitud solicitud) {
+        if (solicitud.getTipoPrestamo() == null) return;
+
+        PoliticaCompilada vigente = politica;
+        TipoPrestamo tipo = TipoPrestamo.desdeNombre(solicitud.getTipoPrestamo());
+        if (tipo == null || !vigente.soporta(tipo)) {
+            throw new BusinessException("Tipo de préstamo desconocido o no soportado: "
+                    + solicitud.getTipoPrestamo().toUpperCase());
+        }
+
+        ContextoEvaluacion contexto = new ContextoEvaluacion(solicitud, solicitud.getUsuario());
+        for (ReglaCompilada regla : vigente.reglasDeTipo(tipo)) {
+            if (!regla.cumple(contexto)) {
+                throw new BusinessException(regla.getMensaje());
+            }
+        }
+    }
+
+    /**
+     * Recorre R1..R7 en orden y retorna la primera regla incumplida, o null si las cumple todas.
+     */
+    ReglaCompilada primeraReglaIncumplida(ContextoEvaluacion contexto) {
+        for (ReglaCompilada regla : politica.getReglasGenerales()) {
+            if (!regla.cumple(contexto)) {
+                return regla;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Todas las reglas incumplidas, primero las del tipo y luego R1..R7, sin cortar en
+     * la primera. El contexto debe traer los indicadores ya calculados.
+     */
+    List<ReglaIncumplida> reglasIncumplidas(ContextoEvaluacion contexto) {
+        PoliticaCompilada vigente = politica;
+        List<ReglaIncumplida> incumplidas = new ArrayList<>();
+        String nombreTipo = contexto.getSolicitud().getTipoPrestamo();
+        if (nombreTipo != null) {
+            TipoPrestamo tipo = TipoPrestamo.desdeNombre(nombreTipo);
+            if (tipo == null || !vigente.soporta(tipo)) {
+                incumplidas.add(new ReglaIncumplida("TIPO",
+                        "Tipo de préstamo desconocido o no soportado: " + nombreTipo.toUpperCase()));
+            } else {
+                agregarIncumplidas(vigente.reglasDeTipo(tipo), contexto, incumplidas);
+            }
+        }
+        agregarIncumplidas(vigente.getReglasGenerales(), contexto, incumplidas);
+        return incumplidas;
+    }
+
+    private static void agregarIncumplidas(List<ReglaCompilada> reglas, ContextoEvaluacion contexto,
+                                           List<ReglaIncumplida> incumplidas) {
+        for (ReglaCompilada regla : reglas) {
+            if (!regla.cumpleSinRegistrar(contexto)) {
+                incumplidas.add(new ReglaIncumplida(regla.getCodigo(), regla.getMensaje()));
+            }
+        }
+    }
+
+    private PoliticaCompilada compilar(PoliticaPrestamoProperties config) {
+        requerido(config, "política");
+        EnumMap<TipoPrestamo, List<ReglaCompilada>> reglasPorTipo = new EnumMap<>(TipoPrestamo.class);
+        if (config.getTipos() != null) {
+            config.getTipos().forEach((tipo, condiciones) -> reglasPorTipo.put(tipo, compilarTipo(tipo, condiciones)));
+        }
+
+        BigDecimal cuotaIngresoMax = requerido(config.getRelacionCuotaIngresoMaxima(), "relacionCuotaIngresoMaxima");
+        BigDecimal deudaIngresoMax = requerido(config.getRelacionDeudaIngresoMaxima(), "relacionDeudaIngresoMaxima");
+        String historialRequerido = requerido(config.getHistorialCrediticioRequerido(), "historialCrediticioRequerido");
+        int plazoMaximo = config.getPlazoMaximoAnios();
+        int edadMaxima = config.getEdadMaximaAlTermino();
+        int antiguedadMinima = config.getAntiguedadLaboralMinima();
+        String capacidadRequerida = requerido(config.getCapacidadAhorroRequerida(), "capacidadAhorroRequerida");
+
+        List<ReglaCompilada> generales = new ArrayList<>();
+        // R1: Relación cuota/ingreso
+        generales.add(regla("R1", "Relación cuota/ingreso excede el " + porcentaje(cuotaIngresoMax) + "%",
+                ctx -> ctx.getRelacionCuotaIngreso().compareTo(cuotaIngresoMax) <= 0));
+        // R2: Relación deuda/ingreso
+        generales.add(regla("R2", "Relación deuda/ingreso excede el " + porcentaje(deudaIngresoMax) + "%",
+                ctx -> ctx.getRelacionDeudaIngreso().compareTo(deudaIngresoMax) <= 0));
+        // R3: Historial crediticio mínimo
+        generales.add(regla("R3", "Calificación crediticia insuficiente",
+                ctx -> historialRequerido.equalsIgnoreCase(ctx.getUsuario().getHistorialCrediticio())));
+        // R4: Plazo máximo
+        generales.add(regla("R4", "Plazo solicitado excede los " + plazoMaximo + " años",
+                ctx -> ctx.getSolicitud().getPlazoSolicitado() == null
+                        || ctx.getSolicitud().getPlazoSolicitado() <= plazoMaximo));
+        // R5: Edad al término
+        generales.add(regla("R5", "Edad al término del préstamo excede los " + edadMaxima + " años",
+                ctx -> ctx.getEdadAlTermino() <= edadMaxima));
+        // R6: Antigüedad laboral mínima
+        generales.add(regla("R6", "Antigüedad laboral insuficiente",
+                ctx -> ctx.getUsuario().getAntiguedadLaboral() != null
+                        && ctx.getUsuario().getAntiguedadLaboral() >= antiguedadMinima));
+        // R7: Capacidad de ahorro
+        generales.add(regla("R7", "Capacidad de ahorro insuficiente",
+                ctx -> capacidadRequerida.equalsIgnoreCase(ctx.getUsuario().getCapacidadAhorro())));
+
+        return new PoliticaCompilada(generaciones.incrementAndGet(), config, reglasPorTipo, generales);
+    }
+
+    private List<ReglaCompilada> compilarTipo(TipoPrestamo tipo, CondicionesTipo condiciones) {
+        requerido(condiciones, "tipos." + tipo);
+        int plazoMaximo = condiciones.getPlazoMaximo();
+        if (plazoMaximo <= 0) {
+            throw new BusinessException("El plazo máximo debe ser mayor que cero para " + tipo.getDescripcion() + ".");
+        }
+        BigDecimal tasaMinima = requerido(condiciones.getTasaMinima(), tipo + ".tasaMinima");
+        BigDecimal tasaMaxima = requerido(condiciones.getTasaMaxima(), tipo + ".tasaMaxima");
+        BigDecimal porcentajeFinanciamiento = requerido(condiciones.getPorcentajeFinanciamiento(),
+                tipo + ".porcentajeFinanciamiento");
+        if (tasaMinima.compareTo(tasaMaxima) > 0) {
+            throw new BusinessException("Rango de tasas inválido para " + tipo.getDescripcion() + ".");
+        }
+
+        String prefijo = tipo.name() + ".";
+        List<ReglaCompilada> reglas = new ArrayList<>(3);
+        reglas.add(regla(prefijo + "PLAZO",
+                "El plazo excede los " + plazoMaximo + " años para " + tipo.getDescripcion() + ".",
+                ctx -> ctx.getSolicitud().getPlazoSolicitado() == null
+                        || ctx.getSolicitud().getPlazoSolicitado() <= plazoMaximo));
+        reglas.add(regla(prefijo + "TASA",
+                "Tasa fuera del rango [" + tasaMinima.toPlainString() + "%, " + tasaMaxima.toPlainString()
+                        + "%] para " + tipo.getDescripcion() + ".",
+                ctx -> {
+                    BigDecimal tasa = ctx.getSolicitud().getTasaInteres();
+                    return tasa != null && tasa.compareTo(tasaMinima) >= 0 && tasa.compareTo(tasaMaxima) <= 0;
+                }));
+        reglas.add(regla(prefijo + "FINANCIAMIENTO",
+                "El monto solicitado excede el " + porcentaje(porcentajeFinanciamiento) + "% del valor de la propiedad.",
+                ctx -> {
+                    BigDecimal valorPropiedad = ctx.getSolicitud().getValorPropiedad();
+                    BigDecimal monto = ctx.getSolicitud().getMontoSolicitado();
+                    if (valorPropiedad == null || valorPropiedad.signum() <= 0 || monto == null) {
+                        return true;
+                    }
+                    return monto.compareTo(valorPropiedad.multiply(porcentajeFinanciamiento)) <= 0;
+                }));
+        return reglas;
+    }
+
+    private ReglaCompilada regla(String codigo, String mensaje, Predicate<ContextoEvaluacion> condicion) {
+        EstadisticaRegla estadistica = estadisticas.computeIfAbsent(codigo, c -> {
+            EstadisticaRegla nueva = new EstadisticaRegla();
+            metricas.registrarRegla(c, nueva);
+            return nueva;
+        });
+        return new ReglaCompilada(codigo, mensaje, condicion, estadistica);
+    }
+
+    private static <T> T requerido(T valor, String campo) {
+        if (valor == null) {
+            throw new BusinessException("Falta el parámetro de política: " + campo);
+        }
+        return valor;
+    }
+
+    private static String porcentaje(BigDecimal fraccion) {
+        return fraccion.movePointRight(2).stripTrailingZeros().toPlainString();
+    }
+}
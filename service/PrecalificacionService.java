@@ -0,0 +1,187 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.config.PoliticaPrestamoProperties;
+import com.prestabanco.app.config.PoliticaPrestamoProperties.CondicionesTipo;
+import com.prestabanco.app.config.UsuarioProperties;
+import com.prestabanco.app.dto.EstadisticasCacheResponse;
+import com.prestabanco.app.dto.PrecalificacionResponse;
+import com.prestabanco.app.dto.PrecalificacionResponse.Opcion;
+import com.prestabanco.app.dto.PrecalificacionResponse.Tipo;
+import com.prestabanco.app.entity.TipoPrestamo;
+import com.prestabanco.app.entity.Usuario;
+import com.prestabanco.app.exception.BusinessException;
+import com.prestabanco.app.exception.ResourceNotFoundException;
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precalificación sin crear solicitudes: para cada tipo de préstamo y plazo,
+ * el mayor monto que cumpliría R1 (cuota/ingreso), R2 (deuda/ingreso), R4/R5
+ * (plazo y edad al término) y las condiciones del tipo. El monto sale de
+ * invertir la fórmula de la cuota con los factores de anualidad memorizados.
+ *
+ * R3, R6 y R7 no dependen del monto: se informan como observaciones.
+ */
+@Service
+public class PrecalificacionService {
+
+    // Plazos ofrecidos por defecto: múltiplos de este paso más el plazo máximo
+    private static final int PASO_PLAZO = 5;
+
+    private final UsuarioService usuarioService;
+    private final PoliticaPrestamoService politicaPrestamoService;
+    private final CalculadoraAmortizacion calculadoraAmortizacion;
+
+    // La clave incluye la versión del usuario y la generación de la política: un cambio en cualquiera no reutiliza entradas
+    private final CacheAcotada<ClavePrecalificacion, PrecalificacionResponse> cache;
+
+    @Autowired
+    public PrecalificacionService(UsuarioService usuarioService, PoliticaPrestamoService politicaPrestamoService,
+                                  CalculadoraAmortizacion calculadoraAmortizacion, UsuarioProperties properties) {
+        this.usuarioService = usuarioService;
+        this.politicaPrestamoService = politicaPrestamoService;
+        this.calculadoraAmortizacion = calculadoraAmortizacion;
+        this.cache = new CacheAcotada<>("precalificacion", properties.getCachePrecalificacion());
+    }
+
+    public PrecalificacionResponse precalificar(Long idUsuario, BigDecimal valorPropiedad, Integer plazo) {
+        if (valorPropiedad != null && valorPropiedad.signum() <= 0) {
+            throw new BusinessException("El valor de la propiedad debe ser mayor que cero.");
+        }
+        if (plazo != null && plazo <= 0) {
+            throw new BusinessException("El plazo debe ser mayor que cero.");
+        }
+        Usuario usuario = usuarioService.obtenerUsuarioPorId(idUsuario)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado para ID: " + idUsuario));
+        PoliticaCompilada politica = politicaPrestamoService.getPolitica();
+
+        ClavePrecalificacion clave = new ClavePrecalificacion(idUsuario, usuario.getVersion(), politica.getGeneracion(),
+                valorPropiedad == null ? null : valorPropiedad.stripTrailingZeros(), plazo);
+        return cache.obtener(clave, c -> calcular(usuario, politica.getConfiguracion(), valorPropiedad, plazo));
+    }
+
+    public EstadisticasCacheResponse estadisticasCache() {
+        return cache.estadisticas();
+    }
+
+    private PrecalificacionResponse calcular(Usuario usuario, PoliticaPrestamoProperties config,
+                                             BigDecimal valorPropiedad, Integer plazoSolicitado) {
+        BigDecimal ingresos = usuario.getIngresosMensuales();
+        BigDecimal deudas = usuario.getDeudasActuales() != null ? usuario.getDeudasActuales() : BigDecimal.ZERO;
+        int edad = usuario.getFechaNacimiento() == null ? 0
+                : Period.between(usuario.getFechaNacimiento(), LocalDate.now()).getYears();
+
+        List<String> observaciones = new ArrayList<>();
+        BigDecimal relacionDeudaIngreso = BigDecimal.ZERO;
+        BigDecimal cuotaMaxima = BigDecimal.ZERO;
+        if (ingresos == null || ingresos.signum() <= 0) {
+            observaciones.add("El usuario no tiene ingresos mensuales registrados");
+        } else {
+            // Mismos redondeos que SolicitudService.calcularIndicadores
+            relacionDeudaIngreso = deudas.divide(ingresos, 4, RoundingMode.HALF_UP);
+            if (relacionDeudaIngreso.compareTo(config.getRelacionDeudaIngresoMaxima()) > 0) {
+                observaciones.add("Relación deuda/ingreso excede el " + porcentaje(config.getRelacionDeudaIngresoMaxima()) + "%");
+            } else {
+                cuotaMaxima = ingresos.multiply(config.getRelacionCuotaIngresoMaxima()).setScale(2, RoundingMode.DOWN);
+            }
+        }
+        if (!config.getHistorialCrediticioRequerido().equalsIgnoreCase(usuario.getHistorialCrediticio())) {
+            observaciones.add("Calificación crediticia insuficiente");
+        }
+        if (usuario.getAntiguedadLaboral() == null || usuario.getAntiguedadLaboral() < config.getAntiguedadLaboralMinima()) {
+            observaciones.add("Antigüedad laboral insuficiente");
+        }
+        if (!config.getCapacidadAhorroRequerida().equalsIgnoreCase(usuario.getCapacidadAhorro())) {
+            observaciones.add("Capacidad de ahorro insuficiente");
+        }
+        int plazoPorEdad = config.getEdadMaximaAlTermino() - edad;
+        if (plazoPorEdad <= 0) {
+            observaciones.add("Edad al término del préstamo excede los " + config.getEdadMaximaAlTermino() + " años");
+        }
+
+        List<Tipo> tipos = new ArrayList<>();
+        if (config.getTipos() != null) {
+            for (Map.Entry<TipoPrestamo, CondicionesTipo> entrada : config.getTipos().entrySet()) {
+                tipos.add(calcularTipo(entrada.getKey(), entrada.getValue(), config, plazoPorEdad,
+                        cuotaMaxima, valorPropiedad, plazoSolicitado));
+            }
+        }
+
+        PrecalificacionResponse response = new PrecalificacionResponse();
+        response.setIdUsuario(usuario.getIdUsuario());
+        response.setEdad(edad);
+        response.setRelacionDeudaIngreso(relacionDeudaIngreso);
+        response.setCuotaMaximaMensual(cuotaMaxima);
+        response.setValorPropiedad(valorPropiedad);
+        response.setCalifica(observaciones.isEmpty() && cuotaMaxima.signum() > 0);
+        response.setObservaciones(observaciones);
+        response.setTipos(tipos);
+        return response;
+    }
+
+    private Tipo calcularTipo(TipoPrestamo tipoPrestamo, CondicionesTipo condiciones, PoliticaPrestamoProperties config,
+                              int plazoPorEdad, BigDecimal cuotaMaxima, BigDecimal valorPropiedad, Integer plazoSolicitado) {
+        int plazoMaximo = Math.max(0, Math.min(Math.min(condiciones.getPlazoMaximo(), config.getPlazoMaximoAnios()), plazoPorEdad));
+        BigDecimal tope = valorPropiedad == null ? null
+                : valorPropiedad.multiply(condiciones.getPorcentajeFinanciamiento()).setScale(2, RoundingMode.DOWN);
+
+        List<Opcion> opciones = new ArrayList<>();
+        for (int plazo : plazos(plazoMaximo, plazoSolicitado)) {
+            Opcion opcion = new Opcion();
+            opcion.setPlazo(plazo);
+            opcion.setMontoMaximoConTasaMinima(montoMaximo(cuotaMaxima, condiciones.getTasaMinima(), plazo, tope));
+            opcion.setMontoMaximoConTasaMaxima(montoMaximo(cuotaMaxima, condiciones.getTasaMaxima(), plazo, tope));
+            opciones.add(opcion);
+        }
+
+        Tipo tipo = new Tipo();
+        tipo.setTipoPrestamo(tipoPrestamo.getNombre());
+        tipo.setTasaMinima(condiciones.getTasaMinima());
+        tipo.setTasaMaxima(condiciones.getTasaMaxima());
+        tipo.setPlazoMaximo(plazoMaximo);
+        tipo.setMontoMaximoFinanciamiento(tope);
+        tipo.setOpciones(opciones);
+        return tipo;
+    }
+
+    private BigDecimal montoMaximo(BigDecimal cuotaMaxima, BigDecimal tasaAnual, int plazoAnios, BigDecimal tope) {
+        BigDecimal monto = calculadoraAmortizacion.factor(tasaAnual, plazoAnios * 12).montoMaximo(cuotaMaxima);
+        return tope != null && tope.compareTo(monto) < 0 ? tope : monto;
+    }
+
+    private static List<Integer> plazos(int plazoMaximo, Integer plazoSolicitado) {
+        if (plazoSolicitado != null) {
+            return plazoSolicitado <= plazoMaximo ? List.of(plazoSolicitado) : List.of();
+        }
+        List<Integer> plazos = new ArrayList<>();
+        for (int plazo = PASO_PLAZO; plazo < plazoMaximo; plazo += PASO_PLAZO) {
+            plazos.add(plazo);
+        }
+        if (plazoMaximo > 0) {
+            plazos.add(plazoMaximo);
+        }
+        return plazos;
+    }
+
+    private static String porcentaje(BigDecimal fraccion) {
+        return fraccion.movePointRight(2).stripTrailingZeros().toPlainString();
+    }
+
+    @Value
+    private static class ClavePrecalificacion {
+        Long idUsuario;
+        Long version;
+        long generacionPolitica;
+        BigDecimal valorPropiedad;
+        Integer plazo;
+    }
+}
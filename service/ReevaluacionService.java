@@ -0,0 +1,209 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.config.ReevaluacionProperties;
+import com.prestabanco.app.dto.ResultadoEvaluacionLote;
+import com.prestabanco.app.entity.EstadoSolicitud;
+import com.prestabanco.app.entity.Reevaluacion;
+import com.prestabanco.app.exception.ConflictoException;
+import com.prestabanco.app.exception.ResourceNotFoundException;
+import com.prestabanco.app.repository.ReevaluacionRepository;
+import com.prestabanco.app.repository.SolicitudRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Reevaluación programada de las solicitudes pendientes (las que aún admiten pasar
+ * a E6 o E7, es decir E1 a E5), para que reflejen cambios en los datos del cliente
+ * o en la política.
+ *
+ * Recorre las solicitudes por idSolicitud en bloques de reevaluacion.tamano-bloque
+ * (keyset: cada consulta parte del último id, sin OFFSET) y evalúa cada bloque con
+ * la misma lógica que la evaluación en lote: en paralelo, en una transacción corta
+ * y con los UPDATE en batch. Solo se bloquean las filas del bloque en curso y entre
+ * bloques se espera lo necesario para no pasar de reevaluacion.carga-maxima.
+ *
+ * Tras cada bloque se guarda el punto de control. Si el proceso se corta entre el
+ * commit de un bloque y el del punto de control, ese bloque se vuelve a consultar,
+ * pero las solicitudes ya evaluadas salieron de E1..E5 y no se repiten.
+ *
+ * Con varias instancias, el cron debe habilitarse en una sola.
+ */
+@Service
+public class ReevaluacionService {
+
+    private static final Set<EstadoSolicitud> PENDIENTES = Arrays.stream(EstadoSolicitud.values())
+            .filter(EstadoSolicitud::admiteEvaluacion)
+            .collect(Collectors.toCollection(() -> EnumSet.noneOf(EstadoSolicitud.class)));
+
+    @Autowired
+    private SolicitudRepository solicitudRepository;
+
+    @Autowired
+    private ReevaluacionRepository reevaluacionRepository;
+
+    @Autowired
+    private EvaluacionLoteService evaluacionLoteService;
+
+    @Autowired
+    private ReevaluacionProperties properties;
+
+    @Autowired
+    @Qualifier("ejecutorReevaluacion")
+    private ExecutorService ejecutorReevaluacion;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+
+    /**
+     * Disparo del cron: la pasada corre en su propio hilo. Si la anterior sigue
+     * en curso (no alcanzó a terminar ni a pausarse) no se inicia otra.
+     */
+    @Scheduled(cron = "#{@reevaluacionProperties.cron}")
+    public void programada() {
+        if (enCurso.compareAndSet(false, true)) {
+            ejecutorReevaluacion.execute(this::ejecutarPasada);
+        }
+    }
+
+    /**
+     * Inicia (o retoma) una pasada fuera de horario, ej. desde operaciones.
+     */
+    public Reevaluacion iniciar() {
+        if (!enCurso.compareAndSet(false, true)) {
+            throw new ConflictoException("Ya hay una reevaluación en curso.");
+        }
+        ejecutorReevaluacion.execute(this::ejecutarPasada);
+        return reevaluacionRepository.findById(Reevaluacion.PENDIENTES).orElseGet(Reevaluacion::new);
+    }
+
+    public Reevaluacion obtenerEstado() {
+        return reevaluacionRepository.findById(Reevaluacion.PENDIENTES)
+                .orElseThrow(() -> new ResourceNotFoundException("La reevaluación aún no se ha ejecutado."));
+    }
+
+    private void ejecutarPasada() {
+        Reevaluacion corrida = null;
+        try {
+            corrida = reevaluacionRepository.findById(Reevaluacion.PENDIENTES).orElse(null);
+            if (corrida == null || Reevaluacion.COMPLETADA.equals(corrida.getEstado())) {
+                corrida = nuevaPasada(corrida);
+            }
+            corrida.setEstado(Reevaluacion.EN_CURSO);
+            corrida.setMensajeError(null);
+            corrida = reevaluacionRepository.save(corrida);
+
+            LocalDateTime limite = limite(LocalDateTime.now());
+            int tamanoBloque = Math.max(1, properties.getTamanoBloque());
+            while (true) {
+                if (limite != null && LocalDateTime.now().isAfter(limite)) {
+                    corrida.setEstado(Reevaluacion.PAUSADA);
+                    break;
+                }
+                List<Long> ids = solicitudRepository.findIdsByEstadoInDespuesDe(
+                        PENDIENTES, corrida.getUltimoIdSolicitud(), PageRequest.of(0, tamanoBloque));
+                if (ids.isEmpty()) {
+                    corrida.setEstado(Reevaluacion.COMPLETADA);
+                    corrida.setFechaFin(LocalDateTime.now());
+                    break;
+                }
+
+                long inicio = System.nanoTime();
+                List<ResultadoEvaluacionLote> resultados = evaluacionLoteService.evaluarBloqueConReintento(ids);
+                long duracionNanos = System.nanoTime() - inicio;
+
+                acumular(corrida, resultados);
+                corrida.setUltimoIdSolicitud(ids.get(ids.size() - 1));
+                corrida.setFechaActualizacion(LocalDateTime.now());
+                corrida = reevaluacionRepository.save(corrida);
+
+                if (!esperar(duracionNanos)) {
+                    // Interrumpido (apagado de la aplicación): se retoma en la próxima ejecución
+                    corrida.setEstado(Reevaluacion.PAUSADA);
+                    break;
+                }
+            }
+            corrida.setFechaActualizacion(LocalDateTime.now());
+            reevaluacionRepository.save(corrida);
+        } catch (RuntimeException ex) {
+            if (corrida != null) {
+                corrida.setEstado(Reevaluacion.ERROR);
+                corrida.setMensajeError(ex.getMessage());
+                corrida.setFechaActualizacion(LocalDateTime.now());
+                reevaluacionRepository.save(corrida);
+            }
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    private static Reevaluacion nuevaPasada(Reevaluacion anterior) {
+        Reevaluacion corrida = anterior == null ? new Reevaluacion() : anterior;
+        corrida.setIdReevaluacion(Reevaluacion.PENDIENTES);
+        corrida.setUltimoIdSolicitud(0);
+        corrida.setProcesadas(0);
+        corrida.setAprobadas(0);
+        corrida.setRechazadas(0);
+        corrida.setConflictos(0);
+        corrida.setErrores(0);
+        corrida.setFechaInicio(LocalDateTime.now());
+        corrida.setFechaFin(null);
+        return corrida;
+    }
+
+    private static void acumular(Reevaluacion corrida, List<ResultadoEvaluacionLote> resultados) {
+        for (ResultadoEvaluacionLote resultado : resultados) {
+            switch (resultado.getResultado()) {
+                case "APROBADA" -> corrida.setAprobadas(corrida.getAprobadas() + 1);
+                case "RECHAZADA" -> corrida.setRechazadas(corrida.getRechazadas() + 1);
+                case "CONFLICTO" -> corrida.setConflictos(corrida.getConflictos() + 1);
+                default -> corrida.setErrores(corrida.getErrores() + 1);
+            }
+        }
+        corrida.setProcesadas(corrida.getProcesadas() + resultados.size());
+    }
+
+    /**
+     * Próximo horaFin a partir del inicio: con inicio a las 22:00 y fin a las 06:00
+     * la pasada se pausa a las 06:00 del día siguiente.
+     */
+    private LocalDateTime limite(LocalDateTime inicio) {
+        LocalTime horaFin = properties.getHoraFin();
+        if (horaFin == null) {
+            return null;
+        }
+        LocalDateTime limite = inicio.toLocalDate().atTime(horaFin);
+        return limite.isAfter(inicio) ? limite : limite.plusDays(1);
+    }
+
+    /**
+     * Pausa para que la pasada ocupe la base a lo sumo la fracción cargaMaxima del tiempo.
+     * Retorna false si el hilo fue interrumpido.
+     */
+    private boolean esperar(long duracionBloqueNanos) {
+        double carga = properties.getCargaMaxima();
+        if (carga >= 1 || carga <= 0) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        long pausaNanos = (long) (duracionBloqueNanos * (1 - carga) / carga);
+        try {
+            TimeUnit.NANOSECONDS.sleep(pausaNanos);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.prestabanco.app.service;
+
+import java.util.function.Predicate;
+
+/**
+ * Regla inmutable con sus umbrales ya parseados y su mensaje de rechazo armado
+ * al compilar la política, para no crear objetos en cada evaluación.
+ */
+final class ReglaCompilada {
+
+    private final String codigo;
+    private final String mensaje;
+    private final Predicate<ContextoEvaluacion> condicion;
+    private final EstadisticaRegla estadistica;
+
+    ReglaCompilada(String codigo, String mensaje, Predicate<ContextoEvaluacion> condicion,
+                   EstadisticaRegla estadistica) {
+        this.codigo = codigo;
+        this.mensaje = mensaje;
+        this.condicion = condicion;
+        this.estadistica = estadistica;
+    }
+
+    boolean cumple(ContextoEvaluacion contexto) {
+        long inicio = System.nanoTime();
+        boolean cumple = condicion.test(contexto);
+        estadistica.registrar(System.nanoTime() - inicio, cumple);
+        return cumple;
+    }
+
+    /**
+     * Igual que cumple pero sin sumar a las estadísticas: para explicaciones que no son evaluaciones reales.
+     */
+    boolean cumpleSinRegistrar(ContextoEvaluacion contexto) {
+        return condicion.test(contexto);
+    }
+
+    String getCodigo() {
+        return codigo;
+    }
+
+    String getMensaje() {
+        return mensaje;
+    }
+}
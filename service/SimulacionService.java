@@ -0,0 +1,239 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.config.SimulacionProperties;
+import com.prestabanco.app.dto.CuotaAmortizacion;
+import com.prestabanco.app.dto.EstadisticasCacheResponse;
+import com.prestabanco.app.dto.MatrizSimulacionRequest;
+import com.prestabanco.app.dto.MatrizSimulacionResponse;
+import com.prestabanco.app.dto.SimulacionRequest;
+import com.prestabanco.app.dto.SimulacionResponse;
+import com.prestabanco.app.exception.BusinessException;
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class SimulacionService {
+
+    // Filas escritas entre cada flush hacia el cliente
+    private static final int FILAS_POR_FLUSH = 64;
+
+    // Tope de celdas por matriz de sensibilidad
+    private static final int MAX_CELDAS_MATRIZ = 2_000;
+
+    private final CalculadoraAmortizacion calculadoraAmortizacion;
+    private final PoliticaPrestamoService politicaPrestamoService;
+
+    // Cuotas por (monto, plazo, tasa) normalizados; el tipo de préstamo y los costos no influyen
+    private final CacheAcotada<ClaveSimulacion, BigDecimal> cacheCuotas;
+
+    @Autowired
+    public SimulacionService(CalculadoraAmortizacion calculadoraAmortizacion,
+                             PoliticaPrestamoService politicaPrestamoService, SimulacionProperties properties) {
+        this.calculadoraAmortizacion = calculadoraAmortizacion;
+        this.politicaPrestamoService = politicaPrestamoService;
+        this.cacheCuotas = new CacheAcotada<>("simulacion", properties.getCache());
+    }
+
+    /**
+     * Simular un préstamo para ver cuota mensual, total pagado, etc.
+     * Incluye cálculo opcional de costos adicionales (seguros, comisiones).
+     */
+    public SimulacionResponse simular(SimulacionRequest request) {
+        BigDecimal monto = request.getMontoDeseado();
+        BigDecimal tasaAnual = request.getTasaInteres();
+        if (monto == null || tasaAnual == null) {
+            throw new BusinessException("montoDeseado y tasaInteres son obligatorios para simular.");
+        }
+        Integer plazoAnios = request.getPlazo() == null ? 0 : request.getPlazo();
+        int plazoMeses = plazoAnios * 12;
+
+        // Calcular cuota mensual
+        ClaveSimulacion clave = new ClaveSimulacion(monto.stripTrailingZeros(), plazoMeses, tasaAnual.stripTrailingZeros());
+        BigDecimal cuotaMensual = cacheCuotas.obtener(clave,
+                c -> calculadoraAmortizacion.calcularCuotaMensual(monto, plazoMeses, tasaAnual));
+
+        return construirRespuesta(monto, plazoMeses, cuotaMensual, request.getSeguros(), request.getComisiones());
+    }
+
+    /**
+     * Simula todas las combinaciones tasa × plazo de una vez. Cada fila de tasa se
+     * calcula en paralelo y las celdas reutilizan los factores (1+r)^n memorizados
+     * por la calculadora, compartidos con /simular y la evaluación.
+     */
+    public MatrizSimulacionResponse simularMatriz(MatrizSimulacionRequest request) {
+        BigDecimal monto = request.getMontoDeseado();
+        if (monto == null || monto.signum() <= 0) {
+            throw new BusinessException("El monto debe ser mayor que cero.");
+        }
+        List<Integer> plazos = rangoPlazos(request.getPlazoMinimo(), request.getPlazoMaximo(), request.getPasoPlazo());
+        List<BigDecimal> tasas = rangoTasas(request.getTasaMinima(), request.getTasaMaxima(), request.getPasoTasa());
+        if ((long) plazos.size() * tasas.size() > MAX_CELDAS_MATRIZ) {
+            throw new BusinessException("La matriz excede el máximo de " + MAX_CELDAS_MATRIZ + " celdas.");
+        }
+
+        List<List<SimulacionResponse>> celdas = tasas.parallelStream()
+                .map(tasa -> {
+                    List<SimulacionResponse> fila = new ArrayList<>(plazos.size());
+                    for (Integer plazo : plazos) {
+                        int plazoMeses = plazo * 12;
+                        BigDecimal cuota = calculadoraAmortizacion.calcularCuotaMensual(monto, plazoMeses, tasa);
+                        fila.add(construirRespuesta(monto, plazoMeses, cuota, request.getSeguros(), request.getComisiones()));
+                    }
+                    return fila;
+                })
+                .collect(Collectors.toList());
+
+        MatrizSimulacionResponse response = new MatrizSimulacionResponse();
+        response.setMontoDeseado(monto);
+        response.setPlazos(plazos);
+        response.setTasas(tasas);
+        response.setCeldas(celdas);
+        return response;
+    }
+
+    private SimulacionResponse construirRespuesta(BigDecimal monto, int plazoMeses, BigDecimal cuotaMensual,
+                                                  BigDecimal seguros, BigDecimal comisiones) {
+        // Calcular total pagado e intereses
+        BigDecimal totalPagado = cuotaMensual.multiply(new BigDecimal(plazoMeses));
+        BigDecimal totalIntereses = totalPagado.subtract(monto);
+
+        // Calcular costos adicionales (opcional)
+        BigDecimal costosAdicionales = BigDecimal.ZERO;
+        if (seguros != null) {
+            costosAdicionales = costosAdicionales.add(seguros);
+        }
+        if (comisiones != null) {
+            costosAdicionales = costosAdicionales.add(comisiones);
+        }
+
+        BigDecimal totalFinal = totalPagado.add(costosAdicionales);
+
+        SimulacionResponse response = new SimulacionResponse();
+        response.setCuotaMensual(cuotaMensual);
+        response.setTotalPagado(totalPagado);
+        response.setTotalIntereses(totalIntereses);
+        response.setCostosAdicionales(costosAdicionales);
+        response.setTotalFinal(totalFinal);
+
+        return response;
+    }
+
+    /**
+     * Plazos en años, acotados por el plazo máximo de la política (R4). La cantidad se
+     * calcula antes de armar la lista, así un rango enorme se rechaza sin reservar memoria.
+     */
+    private List<Integer> rangoPlazos(Integer minimo, Integer maximo, Integer paso) {
+        if (minimo == null || maximo == null || minimo <= 0 || maximo < minimo) {
+            throw new BusinessException("Rango de plazos inválido.");
+        }
+        int plazoMaximoAnios = politicaPrestamoService.obtenerConfiguracion().getPlazoMaximoAnios();
+        if (maximo > plazoMaximoAnios) {
+            throw new BusinessException("El plazo máximo no puede superar " + plazoMaximoAnios + " años.");
+        }
+        int incremento = paso == null ? 1 : paso;
+        if (incremento <= 0) {
+            throw new BusinessException("El paso de plazo debe ser mayor que cero.");
+        }
+        long cantidad = ((long) maximo - minimo) / incremento + 1;
+        if (cantidad > MAX_CELDAS_MATRIZ) {
+            throw new BusinessException("La matriz excede el máximo de " + MAX_CELDAS_MATRIZ + " celdas.");
+        }
+        List<Integer> plazos = new ArrayList<>((int) cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            plazos.add(minimo + i * incremento);
+        }
+        return plazos;
+    }
+
+    private static List<BigDecimal> rangoTasas(BigDecimal minima, BigDecimal maxima, BigDecimal paso) {
+        if (minima == null || maxima == null || minima.signum() < 0 || maxima.compareTo(minima) < 0) {
+            throw new BusinessException("Rango de tasas inválido.");
+        }
+        if (paso == null || paso.signum() <= 0) {
+            throw new BusinessException("El paso de tasa debe ser mayor que cero.");
+        }
+        List<BigDecimal> tasas = new ArrayList<>();
+        for (BigDecimal tasa = minima; tasa.compareTo(maxima) <= 0; tasa = tasa.add(paso)) {
+            tasas.add(tasa);
+            if (tasas.size() > MAX_CELDAS_MATRIZ) {
+                break;
+            }
+        }
+        return tasas;
+    }
+
+    public EstadisticasCacheResponse estadisticasCache() {
+        return cacheCuotas.estadisticas();
+    }
+
+    public TablaAmortizacion generarTabla(SimulacionRequest request) {
+        int plazoMeses = request.getPlazo() == null ? 0 : request.getPlazo() * 12;
+        return calculadoraAmortizacion.tablaAmortizacion(
+                request.getMontoDeseado(), plazoMeses, request.getTasaInteres(), request.getPrepagos());
+    }
+
+    /**
+     * Escribe la tabla fila a fila en formato "ndjson" o "csv" a medida que se genera.
+     */
+    public void escribirTabla(TablaAmortizacion tabla, String formato, OutputStream salida) throws IOException {
+        boolean csv = FormatoRegistros.esCsv(formato);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write("mes,cuota,interes,capital,prepago,saldo\n");
+        }
+        int filas = 0;
+        for (CuotaAmortizacion fila : tabla) {
+            if (csv) {
+                writer.write(Integer.toString(fila.getMes()));
+                writer.write(',');
+                writer.write(fila.getCuota().toPlainString());
+                writer.write(',');
+                writer.write(fila.getInteres().toPlainString());
+                writer.write(',');
+                writer.write(fila.getCapital().toPlainString());
+                writer.write(',');
+                writer.write(fila.getPrepago().toPlainString());
+                writer.write(',');
+                writer.write(fila.getSaldo().toPlainString());
+            } else {
+                writer.write("{\"mes\":");
+                writer.write(Integer.toString(fila.getMes()));
+                writer.write(",\"cuota\":");
+                writer.write(fila.getCuota().toPlainString());
+                writer.write(",\"interes\":");
+                writer.write(fila.getInteres().toPlainString());
+                writer.write(",\"capital\":");
+                writer.write(fila.getCapital().toPlainString());
+                writer.write(",\"prepago\":");
+                writer.write(fila.getPrepago().toPlainString());
+                writer.write(",\"saldo\":");
+                writer.write(fila.getSaldo().toPlainString());
+                writer.write('}');
+            }
+            writer.write('\n');
+            if (++filas % FILAS_POR_FLUSH == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    @Value
+    private static class ClaveSimulacion {
+        BigDecimal monto;
+        int plazoMeses;
+        BigDecimal tasaAnual;
+    }
+}
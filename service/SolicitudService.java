@@ -1,40 +1,89 @@
 package com.prestabanco.app.service;
 
+import com.prestabanco.app.dto.CursorResponse;
+import com.prestabanco.app.dto.ExplicacionEvaluacionResponse;
+import com.prestabanco.app.dto.ExplicacionEvaluacionResponse.ReglaIncumplida;
+import com.prestabanco.app.dto.PaginaResponse;
+import com.prestabanco.app.dto.SolicitudResumen;
+import com.prestabanco.app.entity.EstadoSolicitud;
 import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.entity.TipoPrestamo;
 import com.prestabanco.app.entity.Usuario;
 import com.prestabanco.app.exception.BusinessException;
+import com.prestabanco.app.exception.ConflictoException;
 import com.prestabanco.app.exception.ResourceNotFoundException;
 import com.prestabanco.app.repository.SolicitudRepository;
 import com.prestabanco.app.repository.UsuarioRepository;
+import com.prestabanco.app.service.MetricasPrestamo.ResultadoEvaluacion;
+import org.hibernate.Hibernate;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.math.MathContext;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class SolicitudService {
 
+    // Tope de solicitudes por llamada a la explicación en lote
+    private static final int MAXIMO_EXPLICACIONES = 1_000;
+
     @Autowired
     private SolicitudRepository solicitudRepository;
 
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private PoliticaPrestamoService politicaPrestamoService;
+
+    @Autowired
+    private CalculadoraAmortizacion calculadoraAmortizacion;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private MetricasPrestamo metricasPrestamo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public Solicitud crearSolicitud(Solicitud solicitud) {
         solicitud.setFechaSolicitud(LocalDateTime.now());
         // Asignamos por defecto E1: Revisión inicial
-        solicitud.setEstadoSolicitud("E1_REVISION_INICIAL");
+        solicitud.setEstadoSolicitud(EstadoSolicitud.E1_REVISION_INICIAL);
         return solicitudRepository.save(solicitud);
     }
 
     public Optional<Solicitud> obtenerSolicitudPorId(Long idSolicitud) {
+        return solicitudRepository.findConUsuarioByIdSolicitud(idSolicitud);
+    }
+
+    /**
+     * Solicitud sin su usuario, para evaluarla: el usuario se toma de la caché de usuarios.
+     */
+    public Optional<Solicitud> obtenerSolicitudParaEvaluar(Long idSolicitud) {
         return solicitudRepository.findById(idSolicitud);
     }
 
@@ -46,214 +95,293 @@ public class SolicitudService {
         return solicitudRepository.findAll();
     }
 
-    public Solicitud actualizarSolicitud(Solicitud solicitud) {
-        return solicitudRepository.save(solicitud);
+    /**
+     * Página de solicitudes ordenada por id, con filtros opcionales por estado,
+     * tipo de préstamo y rango de fechas (ambos días inclusive).
+     */
+    public PaginaResponse<SolicitudResumen> obtenerPaginaDeSolicitudes(int pagina, int tamano, String estado, String tipo,
+                                                                LocalDate desde, LocalDate hasta) {
+        Pageable pageable = PageRequest.of(Math.max(0, pagina), Paginacion.limitarTamano(tamano), Sort.by("idSolicitud"));
+        return PaginaResponse.desde(solicitudRepository.buscar(
+                estadoFiltro(estado), tipo, inicioDelDia(desde), finDelDia(hasta), pageable));
     }
 
     /**
-     * Invocado normalmente desde un endpoint /api/solicitudes/{id}/evaluar
-     * Aplica las validaciones de negocio para ver si se APRUEBA o RECHAZA.
+     * Siguiente bloque de solicitudes con id mayor a despuesDe. A diferencia de la
+     * paginación por número, el costo no crece con la profundidad del recorrido.
      */
-    public String evaluarSolicitud(Solicitud solicitud) {
-        // 1) Validaciones por tipo de préstamo
-        validarCondicionesPorTipo(solicitud);
-
-        // 2) Reglas del enunciado (R1..R7)
+    public CursorResponse<SolicitudResumen> obtenerSolicitudesDespuesDe(Long despuesDe, int tamano, String estado, String tipo,
+                                                                 LocalDate desde, LocalDate hasta) {
+        int limite = Paginacion.limitarTamano(tamano);
+        List<SolicitudResumen> bloque = solicitudRepository.buscarDespuesDe(despuesDe == null ? 0L : despuesDe,
+                estadoFiltro(estado), tipo, inicioDelDia(desde), finDelDia(hasta), PageRequest.of(0, limite + 1));
+        return Paginacion.armarCursor(bloque, limite, SolicitudResumen::getIdSolicitud);
+    }
 
-        Usuario usuario = solicitud.getUsuario();
-        if (usuario == null) {
-            throw new BusinessException("No hay un usuario asociado a la solicitud.");
+    /**
+     * Convierte el filtro recibido por la API ("E3" o "E3_EN_EVALUACION"); vacío no filtra.
+     */
+    static EstadoSolicitud estadoFiltro(String estado) {
+        if (estado == null || estado.isBlank()) {
+            return null;
         }
+        return parsearEstado(estado);
+    }
 
-        // R1: Relación cuota/ingreso <= 40%
-        BigDecimal cuotaMensual = calcularCuotaMensual(
-                solicitud.getMontoSolicitado(),
-                solicitud.getPlazoSolicitado(),
-                solicitud.getTasaInteres()
-        );
-        BigDecimal relacionCuotaIngreso = BigDecimal.ZERO;
-        if (usuario.getIngresosMensuales() != null && usuario.getIngresosMensuales().compareTo(BigDecimal.ZERO) > 0) {
-            relacionCuotaIngreso = cuotaMensual.divide(usuario.getIngresosMensuales(), 4, RoundingMode.HALF_UP);
+    static EstadoSolicitud parsearEstado(String estado) {
+        EstadoSolicitud resultado = EstadoSolicitud.desdeNombre(estado);
+        if (resultado == null) {
+            throw new BusinessException("Estado de solicitud desconocido: " + estado);
         }
-        solicitud.setRelacionCuotaIngreso(relacionCuotaIngreso);
+        return resultado;
+    }
 
-        if (relacionCuotaIngreso.compareTo(new BigDecimal("0.35")) > 0) {
-            solicitud.setEstadoSolicitud("E7_RECHAZADA");
-            solicitud.setComentariosSeguimiento("Relación cuota/ingreso excede el 35%");
-            solicitudRepository.save(solicitud);
-            return "RECHAZADA";
-        }
+    private static LocalDateTime inicioDelDia(LocalDate fecha) {
+        return fecha == null ? null : fecha.atStartOfDay();
+    }
+
+    private static LocalDateTime finDelDia(LocalDate fecha) {
+        return fecha == null ? null : fecha.plusDays(1).atStartOfDay();
+    }
 
-        // R2: Relación deuda/ingreso <= 50%
-        BigDecimal relacionDeudaIngreso = calcularRelacionDeudaIngreso(usuario);
-        solicitud.setRelacionDeudaIngreso(relacionDeudaIngreso);
+    public Solicitud actualizarSolicitud(Solicitud solicitud) {
+        return guardar(solicitud);
+    }
 
-        if (relacionDeudaIngreso.compareTo(new BigDecimal("0.50")) > 0) {
-            solicitud.setEstadoSolicitud("E7_RECHAZADA");
-            solicitud.setComentariosSeguimiento("Relación deuda/ingreso excede el 50%");
-            solicitudRepository.save(solicitud);
-            return "RECHAZADA";
+    /**
+     * Transición manual de estado. Solo se permiten los cambios definidos en
+     * {@link EstadoSolicitud}; si se indica versionEsperada, además debe coincidir
+     * con la versión actual (la que el ejecutivo tenía en pantalla).
+     */
+    public Solicitud cambiarEstado(Long idSolicitud, String nuevoEstado, Long versionEsperada) {
+        EstadoSolicitud destino = parsearEstado(nuevoEstado);
+        Solicitud solicitud = solicitudRepository.findConUsuarioByIdSolicitud(idSolicitud)
+                .orElseThrow(() -> new ResourceNotFoundException("Solicitud no encontrada"));
+        verificarVersion(solicitud, versionEsperada);
+
+        EstadoSolicitud actual = estadoActual(solicitud);
+        if (!actual.puedeCambiarA(destino)) {
+            throw new ConflictoException("No se permite pasar de " + actual + " a " + destino
+                    + ". Estados permitidos: " + actual.getSiguientes());
+        }
+        solicitud.setEstadoSolicitud(destino);
+        if (destino == EstadoSolicitud.E9_EN_DESEMBOLSO) {
+            solicitud.setFechaDesembolso(LocalDateTime.now());
         }
+        return guardar(solicitud);
+    }
 
-        // R3: Historial crediticio mínimo "BUENO"
-        if (!"BUENO".equalsIgnoreCase(usuario.getHistorialCrediticio())) {
-            solicitud.setEstadoSolicitud("E7_RECHAZADA");
-            solicitud.setComentariosSeguimiento("Calificación crediticia insuficiente");
-            solicitudRepository.save(solicitud);
-            return "RECHAZADA";
+    /**
+     * Rechaza la operación si el cliente trabajó sobre una versión anterior de la solicitud.
+     * Sin versionEsperada solo protege el bloqueo optimista al guardar.
+     */
+    public void verificarVersion(Solicitud solicitud, Long versionEsperada) {
+        if (versionEsperada != null && !versionEsperada.equals(solicitud.getVersion())) {
+            throw new ConflictoException("La solicitud " + solicitud.getIdSolicitud()
+                    + " fue modificada (versión actual " + solicitud.getVersion() + "). Vuelva a cargarla.");
         }
+    }
 
-        // R4: Plazo <= 30 años
-        if (solicitud.getPlazoSolicitado() != null && solicitud.getPlazoSolicitado() > 30) {
-            solicitud.setEstadoSolicitud("E7_RECHAZADA");
-            solicitud.setComentariosSeguimiento("Plazo solicitado excede los 30 años");
-            solicitudRepository.save(solicitud);
-            return "RECHAZADA";
+    private Solicitud guardar(Solicitud solicitud) {
+        try {
+            return solicitudRepository.save(solicitud);
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            throw new ConflictoException("La solicitud " + solicitud.getIdSolicitud()
+                    + " fue modificada por otro usuario. Vuelva a cargarla.");
         }
+    }
 
-        // R5: Edad al término <= 75 años
-        int edadActual = 0;
-        if (usuario.getFechaNacimiento() != null) {
-            edadActual = Period.between(usuario.getFechaNacimiento(), LocalDate.now()).getYears();
+    // Registros sin estado (anteriores al enum) se tratan como recién ingresados
+    private static EstadoSolicitud estadoActual(Solicitud solicitud) {
+        return solicitud.getEstadoSolicitud() == null ? EstadoSolicitud.E1_REVISION_INICIAL : solicitud.getEstadoSolicitud();
+    }
+
+    /**
+     * Invocado normalmente desde un endpoint /api/solicitudes/{id}/evaluar
+     * Aplica las validaciones de negocio para ver si se APRUEBA o RECHAZA.
+     */
+    public String evaluarSolicitud(Solicitud solicitud) {
+        String resultado = aplicarEvaluacion(solicitud);
+        guardar(solicitud);
+        return resultado;
+    }
+
+    /**
+     * Igual que evaluarSolicitud pero sin guardar: deja estado y comentarios en la
+     * entidad para que el llamador (ej. la evaluación en lote) persista cuando convenga.
+     */
+    public String aplicarEvaluacion(Solicitud solicitud) {
+        long inicio = System.nanoTime();
+        ResultadoEvaluacion resultado = ResultadoEvaluacion.INVALIDA;
+        try {
+            String estado = evaluar(solicitud);
+            resultado = "APROBADA".equals(estado) ? ResultadoEvaluacion.APROBADA : ResultadoEvaluacion.RECHAZADA;
+            return estado;
+        } finally {
+            metricasPrestamo.registrarEvaluacion(TipoPrestamo.desdeNombre(solicitud.getTipoPrestamo()),
+                    resultado, System.nanoTime() - inicio);
         }
-        int edadAlTermino = edadActual + (solicitud.getPlazoSolicitado() == null ? 0 : solicitud.getPlazoSolicitado());
-        solicitud.setEdadSolicitanteAlTermino(edadAlTermino);
+    }
 
-        if (edadAlTermino > 75) {
-            solicitud.setEstadoSolicitud("E7_RECHAZADA");
-            solicitud.setComentariosSeguimiento("Edad al término del préstamo excede los 75 años");
-            solicitudRepository.save(solicitud);
-            return "RECHAZADA";
+    private String evaluar(Solicitud solicitud) {
+        // 0) Solo se evalúan solicitudes desde las que E6 y E7 son transiciones válidas
+        EstadoSolicitud actual = estadoActual(solicitud);
+        if (!actual.admiteEvaluacion()) {
+            throw new ConflictoException("La solicitud " + solicitud.getIdSolicitud()
+                    + " está en " + actual + " y no puede evaluarse.");
         }
 
-        // R6: Antigüedad laboral mínima (ej. 2 años)
-        if (usuario.getAntiguedadLaboral() == null || usuario.getAntiguedadLaboral() < 2) {
-            solicitud.setEstadoSolicitud("E7_RECHAZADA");
-            solicitud.setComentariosSeguimiento("Antigüedad laboral insuficiente");
-            solicitudRepository.save(solicitud);
-            return "RECHAZADA";
+        // 1) Validaciones por tipo de préstamo
+        politicaPrestamoService.validarCondicionesPorTipo(solicitud);
+
+        // 2) Reglas del enunciado (R1..R7)
+
+        Usuario usuario = usuarioDe(solicitud);
+        if (usuario == null) {
+            throw new BusinessException("No hay un usuario asociado a la solicitud.");
         }
 
-        // R7: Capacidad de ahorro "ADECUADA"
-        if (!"ADECUADA".equalsIgnoreCase(usuario.getCapacidadAhorro())) {
-            solicitud.setEstadoSolicitud("E7_RECHAZADA");
-            solicitud.setComentariosSeguimiento("Capacidad de ahorro insuficiente");
-            solicitudRepository.save(solicitud);
-            return "RECHAZADA";
+        ContextoEvaluacion contexto = calcularIndicadores(solicitud, usuario);
+        solicitud.setRelacionCuotaIngreso(contexto.getRelacionCuotaIngreso());
+        solicitud.setRelacionDeudaIngreso(contexto.getRelacionDeudaIngreso());
+        solicitud.setEdadSolicitanteAlTermino(contexto.getEdadAlTermino());
+
+        ReglaCompilada incumplida = politicaPrestamoService.primeraReglaIncumplida(contexto);
+        if (incumplida != null) {
+            return rechazar(solicitud, incumplida.getMensaje());
         }
 
         // Si pasa todas las evaluaciones:
-        solicitud.setEstadoSolicitud("E6_APROBADA");
+        solicitud.setEstadoSolicitud(EstadoSolicitud.E6_APROBADA);
         solicitud.setFechaAprobacionRechazo(LocalDateTime.now());
         solicitud.setComentariosSeguimiento("Solicitud aprobada");
-        solicitudRepository.save(solicitud);
         return "APROBADA";
     }
 
     /**
-     * Valida las reglas particulares según el tipo de préstamo (Plazo máx, rango de tasas, % de financiamiento).
+     * Usuario de la solicitud. Si la consulta ya lo trajo se usa ese; si quedó como
+     * proxy sin inicializar se resuelve por la caché de usuarios, sin ir a la base
+     * (y sin depender de la sesión, que en la evaluación en lote es de otro hilo).
      */
-    private void validarCondicionesPorTipo(Solicitud solicitud) {
-        if (solicitud.getTipoPrestamo() == null) return;
-
-        String tipo = solicitud.getTipoPrestamo().toUpperCase();
-        BigDecimal valorPropiedad = solicitud.getValorPropiedad();
-        BigDecimal montoSolicitado = solicitud.getMontoSolicitado();
-        BigDecimal tasa = solicitud.getTasaInteres();
-        Integer plazo = solicitud.getPlazoSolicitado();
-
-        switch (tipo) {
-            case "PRIMERA VIVIENDA":
-                // Plazo máximo 30
-                if (plazo != null && plazo > 30) {
-                    throw new BusinessException("El plazo excede los 30 años para Primera Vivienda.");
-                }
-                // Tasa de interés entre 3.5% y 5.0%
-                if (tasa.compareTo(new BigDecimal("3.5")) < 0
-                        || tasa.compareTo(new BigDecimal("5.0")) > 0) {
-                    throw new BusinessException("Tasa fuera del rango [3.5%, 5.0%] para Primera Vivienda.");
-                }
-                // Monto máximo 80% del valor de la propiedad
-                if (valorPropiedad != null && valorPropiedad.compareTo(BigDecimal.ZERO) > 0) {
-                    BigDecimal maxFin = valorPropiedad.multiply(new BigDecimal("0.80"));
-                    if (montoSolicitado.compareTo(maxFin) > 0) {
-                        throw new BusinessException("El monto solicitado excede el 80% del valor de la propiedad.");
-                    }
-                }
-                break;
-
-            case "SEGUNDA VIVIENDA":
-                // Plazo máximo 20, tasa 4.0%-6.0%, 70% del valor de la propiedad
-                if (plazo != null && plazo > 20) {
-                    throw new BusinessException("El plazo excede los 20 años para Segunda Vivienda.");
-                }
-                if (tasa.compareTo(new BigDecimal("4.0")) < 0
-                        || tasa.compareTo(new BigDecimal("6.0")) > 0) {
-                    throw new BusinessException("Tasa fuera del rango [4.0%, 6.0%] para Segunda Vivienda.");
-                }
-                if (valorPropiedad != null && valorPropiedad.compareTo(BigDecimal.ZERO) > 0) {
-                    BigDecimal maxFin = valorPropiedad.multiply(new BigDecimal("0.70"));
-                    if (montoSolicitado.compareTo(maxFin) > 0) {
-                        throw new BusinessException("Excede el 70% del valor de la propiedad.");
-                    }
-                }
-                break;
-
-            case "PROPIEDADES COMERCIALES":
-                // Plazo máx 25, tasa 5.0%-7.0%, 60% del valor
-                if (plazo != null && plazo > 25) {
-                    throw new BusinessException("El plazo excede los 25 años para Propiedades Comerciales.");
-                }
-                if (tasa.compareTo(new BigDecimal("5.0")) < 0
-                        || tasa.compareTo(new BigDecimal("7.0")) > 0) {
-                    throw new BusinessException("Tasa fuera del rango [5.0%, 7.0%] para Propiedades Comerciales.");
-                }
-                if (valorPropiedad != null && valorPropiedad.compareTo(BigDecimal.ZERO) > 0) {
-                    BigDecimal maxFin = valorPropiedad.multiply(new BigDecimal("0.60"));
-                    if (montoSolicitado.compareTo(maxFin) > 0) {
-                        throw new BusinessException("Excede el 60% del valor de la propiedad.");
-                    }
-                }
-                break;
-
-            case "REMODELACIÓN":
-                // Plazo máx 15, tasa 4.5%-6.0%, 50% del valor actual
-                if (plazo != null && plazo > 15) {
-                    throw new BusinessException("El plazo excede los 15 años para Remodelación.");
-                }
-                if (tasa.compareTo(new BigDecimal("4.5")) < 0
-                        || tasa.compareTo(new BigDecimal("6.0")) > 0) {
-                    throw new BusinessException("Tasa fuera del rango [4.5%, 6.0%] para Remodelación.");
-                }
-                if (valorPropiedad != null && valorPropiedad.compareTo(BigDecimal.ZERO) > 0) {
-                    BigDecimal maxFin = valorPropiedad.multiply(new BigDecimal("0.50"));
-                    if (montoSolicitado.compareTo(maxFin) > 0) {
-                        throw new BusinessException("Excede el 50% del valor de la propiedad.");
-                    }
-                }
-                break;
-
-            default:
-                // No coincide con los 4 tipos principales, se asume genérico o se lanza error
-                throw new BusinessException("Tipo de préstamo desconocido o no soportado: " + tipo);
+    private Usuario usuarioDe(Solicitud solicitud) {
+        Usuario usuario = solicitud.getUsuario();
+        if (usuario == null || Hibernate.isInitialized(usuario)) {
+            return usuario;
         }
+        return usuarioService.obtenerUsuarioPorId(idUsuarioDe(solicitud)).orElse(null);
     }
 
-    private BigDecimal calcularCuotaMensual(BigDecimal monto, Integer plazoAnios, BigDecimal tasaAnual) {
-        if (plazoAnios == null || plazoAnios == 0) return BigDecimal.ZERO;
-        if (tasaAnual == null) return BigDecimal.ZERO;
+    /**
+     * Id del usuario de la solicitud sin inicializar el proxy.
+     */
+    static Long idUsuarioDe(Solicitud solicitud) {
+        Usuario usuario = solicitud.getUsuario();
+        if (usuario == null) {
+            return null;
+        }
+        LazyInitializer proxy = HibernateProxy.extractLazyInitializer(usuario);
+        return proxy == null ? usuario.getIdUsuario() : (Long) proxy.getInternalIdentifier();
+    }
+
+    /**
+     * Evaluación en seco: corre las validaciones del tipo y R1..R7 completas y
+     * devuelve todas las reglas incumplidas con los indicadores calculados. No
+     * modifica la solicitud ni escribe en la base.
+     */
+    public ExplicacionEvaluacionResponse explicarEvaluacion(Long idSolicitud) {
+        Solicitud solicitud = solicitudRepository.findConUsuarioByIdSolicitud(idSolicitud)
+                .orElseThrow(() -> new ResourceNotFoundException("Solicitud no encontrada"));
+        return explicar(solicitud);
+    }
+
+    /**
+     * Explicación para varias solicitudes, cargadas con su usuario en una sola consulta.
+     * Se responde en el orden recibido; las inexistentes salen como NO_ENCONTRADA.
+     */
+    public List<ExplicacionEvaluacionResponse> explicarEvaluaciones(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BusinessException("Debe indicar al menos un id de solicitud.");
+        }
+        List<Long> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (unicos.size() > MAXIMO_EXPLICACIONES) {
+            throw new BusinessException("Se pueden explicar hasta " + MAXIMO_EXPLICACIONES + " solicitudes por llamada.");
+        }
+        Map<Long, Solicitud> porId = solicitudRepository.findAllConUsuarioByIdIn(unicos).stream()
+                .collect(Collectors.toMap(Solicitud::getIdSolicitud, Function.identity()));
+        List<ExplicacionEvaluacionResponse> explicaciones = new ArrayList<>(unicos.size());
+        for (Long id : unicos) {
+            Solicitud solicitud = porId.get(id);
+            if (solicitud == null) {
+                ExplicacionEvaluacionResponse noEncontrada = new ExplicacionEvaluacionResponse();
+                noEncontrada.setIdSolicitud(id);
+                noEncontrada.setResultado("NO_ENCONTRADA");
+                noEncontrada.setReglasIncumplidas(List.of());
+                explicaciones.add(noEncontrada);
+            } else {
+                explicaciones.add(explicar(solicitud));
+            }
+        }
+        return explicaciones;
+    }
+
+    private ExplicacionEvaluacionResponse explicar(Solicitud solicitud) {
+        ExplicacionEvaluacionResponse explicacion = new ExplicacionEvaluacionResponse();
+        explicacion.setIdSolicitud(solicitud.getIdSolicitud());
+        explicacion.setEstadoSolicitud(solicitud.getEstadoSolicitud());
+        explicacion.setAdmiteEvaluacion(estadoActual(solicitud).admiteEvaluacion());
+
+        List<ReglaIncumplida> incumplidas;
+        Usuario usuario = solicitud.getUsuario();
+        if (usuario == null) {
+            incumplidas = List.of(new ReglaIncumplida("USUARIO", "No hay un usuario asociado a la solicitud."));
+        } else {
+            ContextoEvaluacion contexto = calcularIndicadores(solicitud, usuario);
+            explicacion.setCuotaMensual(contexto.getCuotaMensual());
+            explicacion.setRelacionCuotaIngreso(contexto.getRelacionCuotaIngreso());
+            explicacion.setRelacionDeudaIngreso(contexto.getRelacionDeudaIngreso());
+            explicacion.setEdadSolicitanteAlTermino(contexto.getEdadAlTermino());
+            incumplidas = politicaPrestamoService.reglasIncumplidas(contexto);
+        }
+        explicacion.setReglasIncumplidas(incumplidas);
+        explicacion.setResultado(incumplidas.isEmpty() ? "APROBADA" : "RECHAZADA");
+        return explicacion;
+    }
+
+    /**
+     * Calcula una sola vez los indicadores que usan las reglas:
+     * cuota mensual, relación cuota/ingreso, relación deuda/ingreso y edad al término.
+     */
+    ContextoEvaluacion calcularIndicadores(Solicitud solicitud, Usuario usuario) {
+        BigDecimal cuotaMensual = calcularCuotaMensual(
+                solicitud.getMontoSolicitado(),
+                solicitud.getPlazoSolicitado(),
+                solicitud.getTasaInteres()
+        );
+        BigDecimal relacionCuotaIngreso = BigDecimal.ZERO;
+        if (usuario.getIngresosMensuales() != null && usuario.getIngresosMensuales().compareTo(BigDecimal.ZERO) > 0) {
+            relacionCuotaIngreso = cuotaMensual.divide(usuario.getIngresosMensuales(), 4, RoundingMode.HALF_UP);
+        }
 
-        int plazoMeses = plazoAnios * 12;
-        // Dividir la tasaAnual entre 12*100 para convertir a decimal mensual
-        BigDecimal tasaMensual = tasaAnual.divide(BigDecimal.valueOf(12 * 100), 10, RoundingMode.HALF_UP);
+        int edadActual = 0;
+        if (usuario.getFechaNacimiento() != null) {
+            edadActual = Period.between(usuario.getFechaNacimiento(), LocalDate.now()).getYears();
+        }
+        int edadAlTermino = edadActual + (solicitud.getPlazoSolicitado() == null ? 0 : solicitud.getPlazoSolicitado());
 
-        BigDecimal unoMasR = BigDecimal.ONE.add(tasaMensual);
-        BigDecimal potencia = unoMasR.pow(plazoMeses, MathContext.DECIMAL128);
+        ContextoEvaluacion contexto = new ContextoEvaluacion(solicitud, usuario);
+        contexto.setIndicadores(cuotaMensual, relacionCuotaIngreso, calcularRelacionDeudaIngreso(usuario), edadAlTermino);
+        return contexto;
+    }
 
-        BigDecimal cuotaMensual = monto.multiply(tasaMensual.multiply(potencia))
-                .divide(potencia.subtract(BigDecimal.ONE), 2, RoundingMode.HALF_UP);
+    private String rechazar(Solicitud solicitud, String comentario) {
+        solicitud.setEstadoSolicitud(EstadoSolicitud.E7_RECHAZADA);
+        solicitud.setComentariosSeguimiento(comentario);
+        return "RECHAZADA";
+    }
 
-        return cuotaMensual;
+    private BigDecimal calcularCuotaMensual(BigDecimal monto, Integer plazoAnios, BigDecimal tasaAnual) {
+        if (plazoAnios == null || plazoAnios == 0) return BigDecimal.ZERO;
+        return calculadoraAmortizacion.calcularCuotaMensual(monto, plazoAnios * 12, tasaAnual);
     }
 
     private BigDecimal calcularRelacionDeudaIngreso(Usuario usuario) {
@@ -266,11 +394,19 @@ public class SolicitudService {
     }
 
     public void eliminarSolicitud(Long idSolicitud) {
-        Optional<Solicitud> solOpt = solicitudRepository.findById(idSolicitud);
-        if (solOpt.isEmpty()) {
-            throw new ResourceNotFoundException("No existe la solicitud con id: " + idSolicitud);
-        }
-        solicitudRepository.delete(solOpt.get());
+        transactionTemplate.executeWithoutResult(status -> {
+            Optional<Solicitud> solOpt = solicitudRepository.findById(idSolicitud);
+            if (solOpt.isEmpty()) {
+                throw new ResourceNotFoundException("No existe la solicitud con id: " + idSolicitud);
+            }
+            Solicitud solicitud = solOpt.get();
+            solicitudRepository.delete(solicitud);
+            // Los documentos se comparten por contenido; solo se borran al quedar sin referencias,
+            // y recién con el borrado confirmado
+            if (solicitud.getDocumentosAdjuntos() != null) {
+                fileStorageService.liberarAlConfirmar(List.of(solicitud.getDocumentosAdjuntos().split(",")));
+            }
+        });
     }
 
 }
\ No newline at end of file
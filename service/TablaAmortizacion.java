@@ -0,0 +1,96 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.dto.CuotaAmortizacion;
+import com.prestabanco.app.dto.Prepago;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Tabla de amortización (sistema francés) generada mes a mes bajo demanda:
+ * solo guarda el saldo y el mes actual, nunca la tabla completa.
+ *
+ * Con prepagos la cuota se mantiene y el plazo se acorta.
+ */
+public class TablaAmortizacion implements Iterable<CuotaAmortizacion> {
+
+    private static final BigDecimal CERO = BigDecimal.ZERO.setScale(2);
+
+    private final BigDecimal monto;
+    private final int plazoMeses;
+    private final BigDecimal tasaMensual;
+    private final BigDecimal cuotaMensual;
+    private final List<Prepago> prepagos;
+
+    TablaAmortizacion(BigDecimal monto, CalculadoraAmortizacion.FactorAnualidad factor, List<Prepago> prepagos) {
+        this.monto = monto;
+        this.plazoMeses = factor.getPlazoMeses();
+        this.tasaMensual = factor.getTasaMensual();
+        this.cuotaMensual = factor.isNulo()
+                ? monto.divide(BigDecimal.valueOf(plazoMeses), 2, RoundingMode.HALF_UP)
+                : factor.cuota(monto);
+        this.prepagos = ordenar(prepagos);
+    }
+
+    public BigDecimal getCuotaMensual() {
+        return cuotaMensual;
+    }
+
+    @Override
+    public Iterator<CuotaAmortizacion> iterator() {
+        return new Iterator<>() {
+            private BigDecimal saldo = monto.setScale(2, RoundingMode.HALF_UP);
+            private int mes = 0;
+            private int siguientePrepago = 0;
+
+            @Override
+            public boolean hasNext() {
+                return mes < plazoMeses && saldo.signum() > 0;
+            }
+
+            @Override
+            public CuotaAmortizacion next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                mes++;
+                BigDecimal interes = saldo.multiply(tasaMensual).setScale(2, RoundingMode.HALF_UP);
+                BigDecimal capital = cuotaMensual.subtract(interes);
+                if (mes == plazoMeses || capital.compareTo(saldo) > 0) {
+                    // Última cuota: se ajusta para dejar el saldo en cero
+                    capital = saldo;
+                }
+                saldo = saldo.subtract(capital);
+
+                BigDecimal abono = CERO;
+                while (siguientePrepago < prepagos.size() && prepagos.get(siguientePrepago).getMes() <= mes) {
+                    Prepago prepago = prepagos.get(siguientePrepago++);
+                    if (prepago.getMes() == mes) {
+                        abono = abono.add(prepago.getMonto().min(saldo.subtract(abono)));
+                    }
+                }
+                saldo = saldo.subtract(abono);
+
+                return new CuotaAmortizacion(mes, capital.add(interes), interes, capital, abono, saldo);
+            }
+        };
+    }
+
+    private static List<Prepago> ordenar(List<Prepago> prepagos) {
+        List<Prepago> validos = new ArrayList<>();
+        if (prepagos != null) {
+            for (Prepago prepago : prepagos) {
+                if (prepago.getMes() != null && prepago.getMonto() != null && prepago.getMonto().signum() > 0) {
+                    validos.add(prepago);
+                }
+            }
+        }
+        validos.sort(Comparator.comparing(Prepago::getMes));
+        return validos;
+    }
+}
@@ -1,33 +1,226 @@
 package com.prestabanco.app.service;
 
+import com.prestabanco.app.config.UsuarioProperties;
+import com.prestabanco.app.dto.CursorResponse;
+import com.prestabanco.app.dto.EstadisticasCacheResponse;
+import com.prestabanco.app.dto.PaginaResponse;
 import com.prestabanco.app.entity.Usuario;
+import com.prestabanco.app.exception.BusinessException;
+import com.prestabanco.app.exception.ResourceNotFoundException;
 import com.prestabanco.app.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @Service
 public class UsuarioService {
 
+    private final UsuarioRepository usuarioRepository;
+
+    // nombreCompleto -> idUsuario y "tipo|numero" de identificación -> idUsuario
+    private final CacheAcotada<String, Long> idPorNombre;
+    private final CacheAcotada<String, Long> idPorIdentificacion;
+
+    // idUsuario -> usuario. Las instancias se comparten entre hilos: quien las lee no debe modificarlas
+    private final CacheAcotada<Long, Usuario> usuarioPorId;
+
+    // Aumenta antes y después de cada escritura. Una carga que se cruzó con una escritura
+    // no queda en la caché: se vuelve a comparar después de guardar y, si cambió, se invalida
+    private final AtomicLong escrituras = new AtomicLong();
+
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    public UsuarioService(UsuarioRepository usuarioRepository, UsuarioProperties properties,
+                          MetricasPrestamo metricasPrestamo) {
+        this.usuarioRepository = usuarioRepository;
+        this.idPorNombre = new CacheAcotada<>("usuarios-por-nombre", properties.getCacheIdentificadores());
+        this.idPorIdentificacion = new CacheAcotada<>("usuarios-por-identificacion", properties.getCacheIdentificadores());
+        this.usuarioPorId = new CacheAcotada<>("usuarios-por-id", properties.getCacheUsuarios());
+        metricasPrestamo.registrarCache("usuarios-por-nombre", idPorNombre);
+        metricasPrestamo.registrarCache("usuarios-por-identificacion", idPorIdentificacion);
+        metricasPrestamo.registrarCache("usuarios-por-id", usuarioPorId);
+    }
 
     public Usuario registrarUsuario(Usuario usuario) {
+        validarIdentificacionDisponible(usuario);
+        // Registrar con id existente reemplaza al usuario: se invalidan también sus claves anteriores
+        Optional<Usuario> existente = usuario.getIdUsuario() == null
+                ? Optional.empty() : usuarioRepository.findById(usuario.getIdUsuario());
+        existente.ifPresent(anterior -> usuario.setVersion(anterior.getVersion()));
         usuario.setFechaRegistro(LocalDateTime.now());
-        return usuarioRepository.save(usuario);
+        escrituras.incrementAndGet();
+        Usuario guardado = usuarioRepository.save(usuario);
+        escrituras.incrementAndGet();
+        existente.ifPresent(this::invalidar);
+        invalidar(guardado);
+        return guardado;
+    }
+
+    public Usuario actualizarUsuario(Long idUsuario, Usuario datos) {
+        Usuario existente = usuarioRepository.findById(idUsuario)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado para ID: " + idUsuario));
+        datos.setIdUsuario(idUsuario);
+        datos.setFechaRegistro(existente.getFechaRegistro());
+        // El cuerpo recibido no trae versión: se reemplaza sobre la vigente
+        datos.setVersion(existente.getVersion());
+        validarIdentificacionDisponible(datos);
+
+        escrituras.incrementAndGet();
+        Usuario guardado = usuarioRepository.save(datos);
+        escrituras.incrementAndGet();
+        // Después del segundo aumento, como toda invalidación: ver guardarSiNoHuboEscrituras
+        invalidar(existente);
+        invalidar(guardado);
+        return guardado;
     }
 
+    /**
+     * Lectura por caché: registrar y actualizar invalidan la entrada, así que una
+     * evaluación posterior a la actualización ya ve los datos nuevos.
+     */
     public Optional<Usuario> obtenerUsuarioPorId(Long idUsuario) {
-        return usuarioRepository.findById(idUsuario);
+        if (idUsuario == null) {
+            return Optional.empty();
+        }
+        Usuario usuario = usuarioPorId.obtener(idUsuario);
+        if (usuario != null) {
+            return Optional.of(usuario);
+        }
+        long escriturasAntes = escrituras.get();
+        Optional<Usuario> cargado = usuarioRepository.findById(idUsuario);
+        cargado.ifPresent(leido -> guardarSiNoHuboEscrituras(List.of(leido), escriturasAntes));
+        return cargado;
+    }
+
+    /**
+     * Deja en la caché, con una sola consulta, los usuarios indicados que aún no estén.
+     * La evaluación en lote la llama antes de repartir un bloque entre hilos.
+     */
+    public void precargarUsuarios(Collection<Long> ids) {
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : ids) {
+            if (usuarioPorId.obtener(id) == null) {
+                faltantes.add(id);
+            }
+        }
+        if (faltantes.isEmpty()) {
+            return;
+        }
+        long escriturasAntes = escrituras.get();
+        guardarSiNoHuboEscrituras(usuarioRepository.findAllById(faltantes), escriturasAntes);
     }
 
+    /**
+     * Guarda usuarios leídos desde escriturasAntes si ninguna escritura se cruzó con la carga.
+     * Comparar solo antes de guardar no alcanza: una escritura completa (con su invalidación)
+     * puede caer entre la comparación y el guardado y dejar la versión anterior en la caché.
+     * Por eso se compara de nuevo después: si el contador no cambió, cualquier escritura
+     * posterior invalida recién después de este guardado; si cambió, se quita lo guardado.
+     */
+    private void guardarSiNoHuboEscrituras(List<Usuario> cargados, long escriturasAntes) {
+        if (cargados.isEmpty() || escrituras.get() != escriturasAntes) {
+            return;
+        }
+        cargados.forEach(usuario -> usuarioPorId.guardar(usuario.getIdUsuario(), usuario));
+        if (escrituras.get() != escriturasAntes) {
+            cargados.forEach(usuario -> usuarioPorId.invalidar(usuario.getIdUsuario()));
+        }
+    }
+
+    /**
+     * Resuelve el id por caché (o por el índice de nombreCompleto) y luego
+     * el usuario por id, también desde la caché.
+     */
     public Optional<Usuario> obtenerUsuarioPorNombreCompleto(String nombreCompleto) {
-        return usuarioRepository.findByNombreCompleto(nombreCompleto);
+        return cargarPorClave(idPorNombre, nombreCompleto, usuarioRepository::findIdByNombreCompleto,
+                usuario -> nombreCompleto.equals(usuario.getNombreCompleto()));
+    }
+
+    public Optional<Usuario> obtenerUsuarioPorIdentificacion(String tipoIdentificacion, String numeroIdentificacion) {
+        return cargarPorClave(idPorIdentificacion, claveIdentificacion(tipoIdentificacion, numeroIdentificacion),
+                c -> usuarioRepository.findIdByIdentificacion(tipoIdentificacion, numeroIdentificacion).orElse(null),
+                usuario -> tipoIdentificacion.equals(usuario.getTipoIdentificacion())
+                        && numeroIdentificacion.equals(usuario.getNumeroIdentificacion()));
     }
 
     public List<Usuario> obtenerTodosLosUsuarios() {
         return usuarioRepository.findAll();
     }
+
+    public PaginaResponse<Usuario> obtenerPaginaDeUsuarios(int pagina, int tamano) {
+        return PaginaResponse.desde(usuarioRepository.findAll(
+                PageRequest.of(Math.max(0, pagina), Paginacion.limitarTamano(tamano), Sort.by("idUsuario"))));
+    }
+
+    public CursorResponse<Usuario> obtenerUsuariosDespuesDe(Long despuesDe, int tamano) {
+        int limite = Paginacion.limitarTamano(tamano);
+        List<Usuario> bloque = usuarioRepository.findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(
+                despuesDe == null ? 0L : despuesDe, PageRequest.of(0, limite + 1));
+        return Paginacion.armarCursor(bloque, limite, Usuario::getIdUsuario);
+    }
+
+    public List<EstadisticasCacheResponse> estadisticasCache() {
+        return List.of(idPorNombre.estadisticas(), idPorIdentificacion.estadisticas(), usuarioPorId.estadisticas());
+    }
+
+    /**
+     * Id por la caché de la clave y luego el usuario por id. Una carga de la clave que se
+     * cruzó con una escritura se quita igual que en guardarSiNoHuboEscrituras, y un usuario
+     * que ya no existe o que ya no tiene esa clave invalida la entrada y no se devuelve.
+     */
+    private Optional<Usuario> cargarPorClave(CacheAcotada<String, Long> cache, String clave,
+                                             Function<String, Long> buscarId, Predicate<Usuario> coincide) {
+        long escriturasAntes = escrituras.get();
+        boolean[] leidaDeLaBase = {false};
+        Long idUsuario = cache.obtener(clave, c -> {
+            leidaDeLaBase[0] = true;
+            return buscarId.apply(c);
+        });
+        if (idUsuario == null) {
+            return Optional.empty();
+        }
+        if (leidaDeLaBase[0] && escrituras.get() != escriturasAntes) {
+            cache.invalidar(clave);
+        }
+        Optional<Usuario> usuario = obtenerUsuarioPorId(idUsuario).filter(coincide);
+        if (usuario.isEmpty()) {
+            cache.invalidar(clave);
+        }
+        return usuario;
+    }
+
+    private void validarIdentificacionDisponible(Usuario usuario) {
+        if (usuario.getTipoIdentificacion() == null || usuario.getNumeroIdentificacion() == null) return;
+        usuarioRepository.findIdByIdentificacion(usuario.getTipoIdentificacion(), usuario.getNumeroIdentificacion())
+                .filter(id -> !id.equals(usuario.getIdUsuario()))
+                .ifPresent(id -> {
+                    throw new BusinessException("Ya existe un usuario con identificación "
+                            + usuario.getTipoIdentificacion() + " " + usuario.getNumeroIdentificacion());
+                });
+    }
+
+    private void invalidar(Usuario usuario) {
+        if (usuario.getIdUsuario() != null) {
+            usuarioPorId.invalidar(usuario.getIdUsuario());
+        }
+        if (usuario.getNombreCompleto() != null) {
+            idPorNombre.invalidar(usuario.getNombreCompleto());
+        }
+        if (usuario.getTipoIdentificacion() != null && usuario.getNumeroIdentificacion() != null) {
+            idPorIdentificacion.invalidar(
+                    claveIdentificacion(usuario.getTipoIdentificacion(), usuario.getNumeroIdentificacion()));
+        }
+    }
+
+    private static String claveIdentificacion(String tipoIdentificacion, String numeroIdentificacion) {
+        return tipoIdentificacion + "|" + numeroIdentificacion;
+    }
 }
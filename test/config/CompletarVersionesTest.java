@@ -0,0 +1,126 @@
+package com.prestabanco.app.config;
+
+import com.prestabanco.app.entity.EstadoSolicitud;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.entity.Usuario;
+import com.prestabanco.app.repository.SolicitudRepository;
+import com.prestabanco.app.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Filas guardadas antes de la columna version: el esquema la agrega con default 0 y
+ * el arranque completa las que ya la tenían en null, para que save() las actualice
+ * en lugar de intentar insertarlas.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:versiones;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "file.upload-dir=${java.io.tmpdir}/prestabanco-pruebas"
+})
+@AutoConfigureMockMvc
+class CompletarVersionesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private SolicitudRepository solicitudRepository;
+
+    @Autowired
+    @Qualifier("completarVersiones")
+    private SmartInitializingSingleton completarVersiones;
+
+    @Test
+    void columnaVersionNoNulaConDefaultCero() {
+        for (String tabla : new String[]{"USUARIOS", "SOLICITUDES"}) {
+            Map<String, Object> columna = jdbcTemplate.queryForMap(
+                    "select is_nullable, column_default from information_schema.columns"
+                            + " where table_name = ? and column_name = 'VERSION'", tabla);
+            assertEquals("NO", columna.get("IS_NULLABLE"), tabla);
+            assertEquals("0", columna.get("COLUMN_DEFAULT"), tabla);
+        }
+    }
+
+    @Test
+    void filasConVersionNullSeCompletanYSeActualizan() throws Exception {
+        Usuario usuario = usuarioRepository.save(nuevoUsuario());
+        Solicitud solicitud = solicitudRepository.save(nuevaSolicitud(usuario));
+        // Como en una base donde la columna se agregó sin default
+        jdbcTemplate.execute("alter table usuarios alter column version set null");
+        jdbcTemplate.execute("alter table solicitudes alter column version set null");
+        try {
+            jdbcTemplate.update("update usuarios set version = null where id_usuario = ?", usuario.getIdUsuario());
+            jdbcTemplate.update("update solicitudes set version = null where id_solicitud = ?", solicitud.getIdSolicitud());
+
+            completarVersiones.afterSingletonsInstantiated();
+
+            assertEquals(0L, version("usuarios", "id_usuario", usuario.getIdUsuario()));
+            assertEquals(0L, version("solicitudes", "id_solicitud", solicitud.getIdSolicitud()));
+
+            mockMvc.perform(put("/api/usuarios/{id}", usuario.getIdUsuario())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"nombreCompleto\":\"Cliente versiones\",\"ingresosMensuales\":2500000}"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(put("/api/solicitudes/{id}/cambiar-estado", solicitud.getIdSolicitud())
+                            .param("nuevoEstado", "E2_PENDIENTE_DOCUMENTACION")
+                            .param("version", "0"))
+                    .andExpect(status().isOk());
+
+            assertEquals(1L, version("usuarios", "id_usuario", usuario.getIdUsuario()));
+            assertEquals(1L, version("solicitudes", "id_solicitud", solicitud.getIdSolicitud()));
+        } finally {
+            jdbcTemplate.execute("alter table usuarios alter column version set not null");
+            jdbcTemplate.execute("alter table solicitudes alter column version set not null");
+        }
+    }
+
+    private Long version(String tabla, String columnaId, Long id) {
+        return jdbcTemplate.queryForObject(
+                "select version from " + tabla + " where " + columnaId + " = ?", Long.class, id);
+    }
+
+    private static Usuario nuevoUsuario() {
+        Usuario usuario = new Usuario();
+        usuario.setNombreCompleto("Cliente versiones");
+        usuario.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        usuario.setIngresosMensuales(new BigDecimal("3000000"));
+        usuario.setFechaRegistro(LocalDateTime.now());
+        return usuario;
+    }
+
+    private static Solicitud nuevaSolicitud(Usuario usuario) {
+        Solicitud solicitud = new Solicitud();
+        solicitud.setUsuario(usuario);
+        solicitud.setFechaSolicitud(LocalDateTime.now());
+        solicitud.setTipoPrestamo("PRIMERA VIVIENDA");
+        solicitud.setMontoSolicitado(new BigDecimal("80000000"));
+        solicitud.setPlazoSolicitado(20);
+        solicitud.setTasaInteres(new BigDecimal("4.5"));
+        solicitud.setValorPropiedad(new BigDecimal("120000000"));
+        solicitud.setEstadoSolicitud(EstadoSolicitud.E1_REVISION_INICIAL);
+        return solicitud;
+    }
+}
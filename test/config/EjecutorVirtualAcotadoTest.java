@@ -0,0 +1,100 @@
+package com.prestabanco.app.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Límites del ejecutor de hilos virtuales. Un pool sin tope de hilos de plataforma
+ * hace de newThreadPerTaskExecutor, que requiere Java 21.
+ */
+class EjecutorVirtualAcotadoTest {
+
+    private final ExecutorService hiloPorTarea = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void apagar() {
+        hiloPorTarea.shutdownNow();
+    }
+
+    @Test
+    void nuncaCorrenMasTareasQueConexiones() throws InterruptedException {
+        int permisos = 3;
+        int tareas = 40;
+        EjecutorVirtualAcotado ejecutor = new EjecutorVirtualAcotado(
+                hiloPorTarea, new Semaphore(permisos), tareas, false);
+        AtomicInteger corriendo = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        CountDownLatch terminadas = new CountDownLatch(tareas);
+
+        for (int i = 0; i < tareas; i++) {
+            ejecutor.execute(() -> {
+                maximo.accumulateAndGet(corriendo.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    corriendo.decrementAndGet();
+                    terminadas.countDown();
+                }
+            });
+        }
+
+        assertTrue(terminadas.await(10, TimeUnit.SECONDS));
+        assertEquals(permisos, maximo.get());
+    }
+
+    @Test
+    void conLaAdmisionLlenaRechaza() throws InterruptedException {
+        Semaphore conexiones = new Semaphore(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Runnable bloqueante = () -> {
+            try {
+                liberar.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        EjecutorVirtualAcotado rechaza = new EjecutorVirtualAcotado(hiloPorTarea, conexiones, 2, false);
+        rechaza.execute(bloqueante);
+        rechaza.execute(bloqueante);
+        assertThrows(RejectedExecutionException.class, () -> rechaza.execute(() -> { }));
+
+        liberar.countDown();
+        rechaza.shutdown();
+        assertTrue(rechaza.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void conLaAdmisionLlenaEjecutaEnElLlamador() {
+        CountDownLatch ocupar = new CountDownLatch(1);
+        EjecutorVirtualAcotado enLlamador = new EjecutorVirtualAcotado(hiloPorTarea, new Semaphore(2), 1, true);
+        enLlamador.execute(() -> {
+            try {
+                ocupar.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // Sin admisión la tarea corre en este hilo, con la otra conexión libre
+        AtomicReference<Thread> hilo = new AtomicReference<>();
+        enLlamador.execute(() -> hilo.set(Thread.currentThread()));
+        assertSame(Thread.currentThread(), hilo.get());
+        ocupar.countDown();
+    }
+}
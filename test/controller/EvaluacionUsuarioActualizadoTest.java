@@ -0,0 +1,154 @@
+package com.prestabanco.app.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestabanco.app.entity.EstadoSolicitud;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.entity.Usuario;
+import com.prestabanco.app.repository.SolicitudRepository;
+import com.prestabanco.app.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * La evaluación de una solicitud usa los datos vigentes del usuario aunque la caché
+ * por id ya lo tuviera antes de actualizarlo, también con lecturas concurrentes.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:evaluacion-usuario;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "file.upload-dir=${java.io.tmpdir}/prestabanco-pruebas"
+})
+@AutoConfigureMockMvc
+class EvaluacionUsuarioActualizadoTest {
+
+    // Con estos ingresos la cuota de la solicitud de prueba cabe; con los bajos no
+    private static final BigDecimal INGRESOS_ALTOS = new BigDecimal("3000000");
+    private static final BigDecimal INGRESOS_BAJOS = new BigDecimal("300000");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private SolicitudRepository solicitudRepository;
+
+    @Test
+    void evaluarDespuesDeActualizarUsaLosIngresosNuevos() throws Exception {
+        Usuario usuario = usuarioRepository.save(nuevoUsuario("actualizado", INGRESOS_ALTOS));
+        Long aprobada = solicitudRepository.save(nuevaSolicitud(usuario)).getIdSolicitud();
+        Long rechazada = solicitudRepository.save(nuevaSolicitud(usuario)).getIdSolicitud();
+
+        assertEquals("La solicitud ha sido APROBADA", evaluar(aprobada));
+        // El usuario queda en la caché por id con los ingresos anteriores
+        leerUsuario(usuario.getIdUsuario());
+
+        actualizar(usuario, INGRESOS_BAJOS);
+
+        assertEquals("La solicitud ha sido RECHAZADA", evaluar(rechazada));
+    }
+
+    @Test
+    void evaluarDespuesDeActualizacionesConcurrentesUsaLaUltima() throws Exception {
+        Usuario usuario = usuarioRepository.save(nuevoUsuario("concurrente", INGRESOS_ALTOS));
+        Long solicitud = solicitudRepository.save(nuevaSolicitud(usuario)).getIdSolicitud();
+
+        // Lectores que cargan el usuario en la caché mientras se actualiza una y otra vez
+        int lectores = 4;
+        ExecutorService hilos = Executors.newFixedThreadPool(lectores);
+        AtomicBoolean escribiendo = new AtomicBoolean(true);
+        try {
+            List<Future<?>> lecturas = new ArrayList<>();
+            for (int i = 0; i < lectores; i++) {
+                lecturas.add(hilos.submit(() -> {
+                    while (escribiendo.get()) {
+                        leerUsuario(usuario.getIdUsuario());
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < 50; i++) {
+                actualizar(usuario, i % 2 == 0 ? INGRESOS_BAJOS : INGRESOS_ALTOS);
+            }
+            actualizar(usuario, INGRESOS_BAJOS);
+            escribiendo.set(false);
+            for (Future<?> lectura : lecturas) {
+                lectura.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        assertEquals("La solicitud ha sido RECHAZADA", evaluar(solicitud));
+    }
+
+    private String evaluar(Long idSolicitud) throws Exception {
+        return mockMvc.perform(put("/api/solicitudes/{id}/evaluar", idSolicitud))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private void leerUsuario(Long idUsuario) throws Exception {
+        mockMvc.perform(get("/api/usuarios/{id}", idUsuario)).andExpect(status().isOk());
+    }
+
+    private void actualizar(Usuario usuario, BigDecimal ingresos) throws Exception {
+        Usuario datos = nuevoUsuario(usuario.getNumeroIdentificacion(), ingresos);
+        mockMvc.perform(put("/api/usuarios/{id}", usuario.getIdUsuario())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(datos)))
+                .andExpect(status().isOk());
+    }
+
+    private static Usuario nuevoUsuario(String identificacion, BigDecimal ingresos) {
+        Usuario usuario = new Usuario();
+        usuario.setNombreCompleto("Cliente " + identificacion);
+        usuario.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        usuario.setTipoIdentificacion("RUT");
+        usuario.setNumeroIdentificacion(identificacion);
+        usuario.setIngresosMensuales(ingresos);
+        usuario.setHistorialCrediticio("BUENO");
+        usuario.setAntiguedadLaboral(5);
+        usuario.setCapacidadAhorro("ADECUADA");
+        usuario.setDeudasActuales(BigDecimal.ZERO);
+        usuario.setFechaRegistro(LocalDateTime.now());
+        return usuario;
+    }
+
+    private static Solicitud nuevaSolicitud(Usuario usuario) {
+        Solicitud solicitud = new Solicitud();
+        solicitud.setUsuario(usuario);
+        solicitud.setFechaSolicitud(LocalDateTime.now());
+        solicitud.setTipoPrestamo("PRIMERA VIVIENDA");
+        solicitud.setMontoSolicitado(new BigDecimal("80000000"));
+        solicitud.setPlazoSolicitado(20);
+        solicitud.setTasaInteres(new BigDecimal("4.5"));
+        solicitud.setValorPropiedad(new BigDecimal("120000000"));
+        solicitud.setEstadoSolicitud(EstadoSolicitud.E1_REVISION_INICIAL);
+        return solicitud;
+    }
+}
@@ -0,0 +1,70 @@
+package com.prestabanco.app.controller;
+
+import com.prestabanco.app.service.ExportacionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Una exportación que tarda más que el timeout asíncrono general de MVC llega completa:
+ * el endpoint usa exportacion.tiempo-maximo. El timeout general se deja en 300 ms para
+ * no esperar los 30 s de Tomcat.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:exportacion-lenta;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "file.upload-dir=${java.io.tmpdir}/prestabanco-pruebas",
+        "spring.mvc.async.request-timeout=300ms",
+        "exportacion.tiempo-maximo=30s"
+})
+class ExportacionLentaTest {
+
+    private static final int FILAS = 10;
+    private static final long PAUSA_MS = 150;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @MockBean
+    private ExportacionService exportacionService;
+
+    @Test
+    void exportacionMasLargaQueElTimeoutGeneralLlegaCompleta() throws Exception {
+        when(exportacionService.resolverColumnas(any())).thenReturn(List.of("idSolicitud"));
+        // Cada fila se envía al cliente antes de la pausa: el 200 y los encabezados salen al inicio
+        doAnswer(invocacion -> {
+            OutputStream salida = invocacion.getArgument(2);
+            salida.write("idSolicitud\n".getBytes(StandardCharsets.UTF_8));
+            for (int i = 1; i <= FILAS; i++) {
+                salida.write((i + "\n").getBytes(StandardCharsets.UTF_8));
+                salida.flush();
+                Thread.sleep(PAUSA_MS);
+            }
+            return null;
+        }).when(exportacionService).exportar(anyBoolean(), anyList(), any());
+
+        ResponseEntity<String> respuesta = restTemplate.getForEntity("/api/solicitudes/exportar", String.class);
+
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        StringBuilder esperado = new StringBuilder("idSolicitud\n");
+        for (int i = 1; i <= FILAS; i++) {
+            esperado.append(i).append('\n');
+        }
+        assertEquals(esperado.toString(), respuesta.getBody());
+    }
+}
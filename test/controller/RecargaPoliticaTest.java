@@ -0,0 +1,68 @@
+package com.prestabanco.app.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Una política inválida se rechaza como error del cliente y la vigente no cambia.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:politica;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "file.upload-dir=${java.io.tmpdir}/prestabanco-pruebas"
+})
+@AutoConfigureMockMvc
+class RecargaPoliticaTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void tipoSinCondicionesSeRechaza() throws Exception {
+        String vigente = politicaVigente();
+        ObjectNode politica = (ObjectNode) objectMapper.readTree(vigente);
+        ((ObjectNode) politica.get("tipos")).putNull("PRIMERA_VIVIENDA");
+
+        recargar(politica);
+        assertEquals(vigente, politicaVigente());
+    }
+
+    @Test
+    void plazoMaximoNoPositivoSeRechaza() throws Exception {
+        String vigente = politicaVigente();
+        for (int plazo : new int[]{0, -5}) {
+            ObjectNode politica = (ObjectNode) objectMapper.readTree(vigente);
+            ((ObjectNode) politica.get("tipos").get("REMODELACION")).put("plazoMaximo", plazo);
+
+            recargar(politica);
+            assertEquals(vigente, politicaVigente());
+        }
+    }
+
+    private void recargar(ObjectNode politica) throws Exception {
+        mockMvc.perform(put("/api/politicas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(politica)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String politicaVigente() throws Exception {
+        return mockMvc.perform(get("/api/politicas"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,176 @@
+package com.prestabanco.app.controller;
+
+import com.prestabanco.app.entity.EstadoSolicitud;
+import com.prestabanco.app.entity.Solicitud;
+import com.prestabanco.app.entity.Usuario;
+import com.prestabanco.app.repository.SolicitudRepository;
+import com.prestabanco.app.repository.UsuarioRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cantidad de sentencias SQL que ejecuta cada endpoint de consulta de solicitudes,
+ * medida con las estadísticas de Hibernate. Con el usuario LAZY, un listado que
+ * vuelva a cargarlo fila a fila (N+1) sube el conteo con la cantidad de solicitudes.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sentencias;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "file.upload-dir=${java.io.tmpdir}/prestabanco-pruebas"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SentenciasPorEndpointTest {
+
+    // Más solicitudes que usuarios, para que un N+1 se note aunque se repitan usuarios
+    private static final int USUARIOS = 4;
+    private static final int SOLICITUDES = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private SolicitudRepository solicitudRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+    private List<Solicitud> solicitudes;
+
+    @BeforeAll
+    void cargarDatos() {
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < USUARIOS; i++) {
+            usuarios.add(usuarioRepository.save(nuevoUsuario(i)));
+        }
+        List<Solicitud> nuevas = new ArrayList<>();
+        for (int i = 0; i < SOLICITUDES; i++) {
+            nuevas.add(nuevaSolicitud(usuarios.get(i % USUARIOS)));
+        }
+        solicitudes = solicitudRepository.saveAll(nuevas);
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void reiniciarEstadisticas() {
+        estadisticas.clear();
+    }
+
+    @Test
+    void listadoCompletoUnaSentencia() throws Exception {
+        assertEquals(1, sentencias(get("/api/solicitudes")));
+    }
+
+    @Test
+    void paginaConConteoDosSentencias() throws Exception {
+        // Página incompleta de un total mayor: la consulta de la página y la de conteo
+        assertEquals(2, sentencias(get("/api/solicitudes/pagina").param("tamano", "5")));
+    }
+
+    @Test
+    void paginaConFiltrosDosSentencias() throws Exception {
+        assertEquals(2, sentencias(get("/api/solicitudes/pagina")
+                .param("tamano", "2")
+                .param("estado", EstadoSolicitud.E1_REVISION_INICIAL.name())
+                .param("tipoPrestamo", "PRIMERA VIVIENDA")
+                .param("desde", LocalDate.now().minusDays(1).toString())));
+    }
+
+    @Test
+    void ultimaPaginaSinConteo() throws Exception {
+        // El total se deduce de la propia página, no hace falta contar
+        assertEquals(1, sentencias(get("/api/solicitudes/pagina").param("tamano", "50")));
+    }
+
+    @Test
+    void cursorUnaSentencia() throws Exception {
+        assertEquals(1, sentencias(get("/api/solicitudes/cursor").param("tamano", "5")));
+    }
+
+    @Test
+    void detalleUnaSentencia() throws Exception {
+        assertEquals(1, sentencias(get("/api/solicitudes/{id}", solicitudes.get(0).getIdSolicitud())));
+    }
+
+    // Las dos pruebas siguientes pasan por las cachés de usuarios, que duran todo el
+    // contexto: cada una usa su propio usuario para que el primer pedido sea en frío
+    // sin importar el orden en que JUnit ejecute las pruebas
+
+    @Test
+    void solicitudesDeUnUsuarioEnFrioYEnCaliente() throws Exception {
+        // En frío: id por nombre, usuario por id y sus solicitudes con el usuario en el mismo SELECT
+        assertEquals(3, sentencias(get("/api/solicitudes/usuario/nombre/{nombre}", "Cliente 2")));
+        estadisticas.clear();
+        // En caliente el id y el usuario salen de las cachés
+        assertEquals(1, sentencias(get("/api/solicitudes/usuario/nombre/{nombre}", "Cliente 2")));
+    }
+
+    @Test
+    void evaluarEnFrioYEnCaliente() throws Exception {
+        // Solicitudes 1 y 5, ambas de "Cliente 1"; una solicitud evaluada no puede volver a evaluarse
+        // En frío: SELECT de la solicitud, SELECT del usuario y UPDATE
+        assertEquals(3, sentencias(put("/api/solicitudes/{id}/evaluar", solicitudes.get(1).getIdSolicitud())));
+        estadisticas.clear();
+        // En caliente el usuario sale de la caché por id
+        assertEquals(2, sentencias(put("/api/solicitudes/{id}/evaluar", solicitudes.get(5).getIdSolicitud())));
+    }
+
+    private long sentencias(RequestBuilder peticion) throws Exception {
+        mockMvc.perform(peticion).andExpect(status().is2xxSuccessful());
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    private static Usuario nuevoUsuario(int i) {
+        Usuario usuario = new Usuario();
+        usuario.setNombreCompleto("Cliente " + i);
+        usuario.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        usuario.setTipoIdentificacion("RUT");
+        usuario.setNumeroIdentificacion("sentencias-" + i);
+        usuario.setIngresosMensuales(new BigDecimal("3000000"));
+        usuario.setHistorialCrediticio("BUENO");
+        usuario.setAntiguedadLaboral(5);
+        usuario.setCapacidadAhorro("ADECUADA");
+        usuario.setDeudasActuales(new BigDecimal("100000"));
+        usuario.setFechaRegistro(LocalDateTime.now());
+        return usuario;
+    }
+
+    private static Solicitud nuevaSolicitud(Usuario usuario) {
+        Solicitud solicitud = new Solicitud();
+        solicitud.setUsuario(usuario);
+        solicitud.setFechaSolicitud(LocalDateTime.now());
+        solicitud.setTipoPrestamo("PRIMERA VIVIENDA");
+        solicitud.setMontoSolicitado(new BigDecimal("80000000"));
+        solicitud.setPlazoSolicitado(20);
+        solicitud.setTasaInteres(new BigDecimal("4.5"));
+        solicitud.setValorPropiedad(new BigDecimal("120000000"));
+        solicitud.setEstadoSolicitud(EstadoSolicitud.E1_REVISION_INICIAL);
+        return solicitud;
+    }
+}
@@ -0,0 +1,100 @@
+package com.prestabanco.app.controller;
+
+import com.prestabanco.app.entity.Usuario;
+import com.prestabanco.app.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Subida de documentos a través del contenedor real: los límites multipart salen de
+ * "file.*" y no de los valores por defecto de Spring Boot (1 MB por archivo).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:subida;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "file.upload-dir=${java.io.tmpdir}/prestabanco-pruebas",
+        "file.tamano-maximo-archivo=3MB",
+        "file.tamano-maximo-solicitud=6MB"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SubidaArchivosTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @BeforeAll
+    void cargarUsuario() {
+        Usuario usuario = new Usuario();
+        usuario.setNombreCompleto("Cliente subida");
+        usuario.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        usuario.setIngresosMensuales(new BigDecimal("3000000"));
+        usuario.setFechaRegistro(LocalDateTime.now());
+        usuarioRepository.save(usuario);
+    }
+
+    @Test
+    void documentosDeMasDeUnMegaSeAceptan() {
+        ResponseEntity<String> respuesta = crearConDocumentos(2 * MB, 2 * MB + 1);
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode(), respuesta.getBody());
+    }
+
+    @Test
+    void documentoSobreElMaximoConfiguradoSeRechaza() {
+        // Apenas sobre el máximo: el resto sin leer cabe en lo que Tomcat descarta sin cortar la conexión
+        ResponseEntity<String> respuesta = crearConDocumentos(MB, 3 * MB + 1);
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, respuesta.getStatusCode());
+    }
+
+    private ResponseEntity<String> crearConDocumentos(int tamanoAvaluo, int tamanoIngresos) {
+        MultiValueMap<String, Object> formulario = new LinkedMultiValueMap<>();
+        formulario.add("tipoPrestamo", "PRIMERA VIVIENDA");
+        formulario.add("montoSolicitado", "80000000");
+        formulario.add("plazoSolicitado", "20");
+        formulario.add("tasaInteres", "4.5");
+        formulario.add("valorPropiedad", "120000000");
+        formulario.add("nombreCompleto", "Cliente subida");
+        formulario.add("comprobanteAvaluo", documento("avaluo.pdf", tamanoAvaluo));
+        formulario.add("comprobanteIngresos", documento("ingresos.pdf", tamanoIngresos));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        return restTemplate.postForEntity("/api/solicitudes/crear-con-usuario",
+                new HttpEntity<>(formulario, headers), String.class);
+    }
+
+    private static ByteArrayResource documento(String nombre, int tamano) {
+        byte[] contenido = new byte[tamano];
+        for (int i = 0; i < tamano; i++) {
+            contenido[i] = (byte) (i * 31);
+        }
+        return new ByteArrayResource(contenido) {
+            @Override
+            public String getFilename() {
+                return nombre;
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.config.PoliticaPrestamoProperties;
+import com.prestabanco.app.config.PoliticaPrestamoProperties.CondicionesTipo;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * El camino en punto fijo debe dar exactamente la cuota del cálculo original
+ * (BigDecimal, DECIMAL128, HALF_UP a centavos) para todas las combinaciones de
+ * tasa y plazo que admiten las políticas por defecto.
+ */
+class CalculadoraAmortizacionTest {
+
+    private static final BigDecimal PASO_TASA = new BigDecimal("0.01");
+    private static final int MONTOS_ALEATORIOS = 40;
+
+    private static final List<BigDecimal> MONTOS_BORDE = List.of(
+            new BigDecimal("0.01"),
+            new BigDecimal("1"),
+            new BigDecimal("999.99"),
+            new BigDecimal("100000000"),
+            new BigDecimal("123456789.01"),
+            new BigDecimal("999999999999.99"),
+            // Último monto del camino rápido (2^53 - 1 centavos) y el primero que va por BigDecimal
+            new BigDecimal("90071992547409.91"),
+            new BigDecimal("90071992547409.92"),
+            // Más de dos decimales: siempre BigDecimal
+            new BigDecimal("1000.005"));
+
+    private final CalculadoraAmortizacion calculadora = new CalculadoraAmortizacion();
+
+    @Test
+    void cuotaIgualAlCalculoOriginalEnTodasLasTasasYPlazosValidos() {
+        SplittableRandom aleatorio = new SplittableRandom(20_24);
+        int comparaciones = 0;
+        List<String> diferencias = new ArrayList<>();
+
+        for (CondicionesTipo tipo : new PoliticaPrestamoProperties().getTipos().values()) {
+            for (BigDecimal tasa = tipo.getTasaMinima(); tasa.compareTo(tipo.getTasaMaxima()) <= 0; tasa = tasa.add(PASO_TASA)) {
+                for (int anios = 1; anios <= tipo.getPlazoMaximo(); anios++) {
+                    int meses = anios * 12;
+                    List<BigDecimal> montos = new ArrayList<>(MONTOS_BORDE);
+                    for (int i = 0; i < MONTOS_ALEATORIOS; i++) {
+                        montos.add(BigDecimal.valueOf(aleatorio.nextLong(1, 1_000_000_000_00L), 2));
+                    }
+                    for (BigDecimal monto : montos) {
+                        BigDecimal esperada = cuotaOriginal(monto, meses, tasa);
+                        BigDecimal obtenida = calculadora.calcularCuotaMensual(monto, meses, tasa);
+                        comparaciones++;
+                        if (esperada.compareTo(obtenida) != 0 && diferencias.size() < 20) {
+                            diferencias.add("tasa=" + tasa + " meses=" + meses + " monto=" + monto
+                                    + " esperada=" + esperada + " obtenida=" + obtenida);
+                        }
+                    }
+                }
+            }
+        }
+        if (!diferencias.isEmpty()) {
+            fail(diferencias.size() + " diferencias en " + comparaciones + " comparaciones:\n"
+                    + String.join("\n", diferencias));
+        }
+    }
+
+    @Test
+    void cuotaEnMesesSueltosIgualAlCalculoOriginal() {
+        SplittableRandom aleatorio = new SplittableRandom(7);
+        for (int meses = 1; meses <= 360; meses++) {
+            BigDecimal tasa = BigDecimal.valueOf(aleatorio.nextInt(1, 1501), 2);
+            for (int i = 0; i < 20; i++) {
+                BigDecimal monto = BigDecimal.valueOf(aleatorio.nextLong(1, 1_000_000_000_00L), 2);
+                assertEquals(cuotaOriginal(monto, meses, tasa), calculadora.calcularCuotaMensual(monto, meses, tasa),
+                        "tasa=" + tasa + " meses=" + meses + " monto=" + monto);
+            }
+        }
+    }
+
+    @Test
+    void tasaCeroDaCuotaCero() {
+        assertEquals(BigDecimal.ZERO, calculadora.calcularCuotaMensual(new BigDecimal("1000000"), 240, BigDecimal.ZERO));
+    }
+
+    /**
+     * Fórmula tal como estaba en SolicitudService y en /simular antes de la calculadora compartida.
+     */
+    private static BigDecimal cuotaOriginal(BigDecimal monto, int plazoMeses, BigDecimal tasaAnual) {
+        BigDecimal tasaMensual = tasaAnual.divide(BigDecimal.valueOf(12 * 100), 10, RoundingMode.HALF_UP);
+        BigDecimal potencia = BigDecimal.ONE.add(tasaMensual).pow(plazoMeses, MathContext.DECIMAL128);
+        return monto.multiply(tasaMensual.multiply(potencia))
+                .divide(potencia.subtract(BigDecimal.ONE), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,85 @@
+package com.prestabanco.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestabanco.app.exception.BusinessException;
+import com.prestabanco.app.service.LectorRegistros.Registro;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lectura de registros CSV/NDJSON con máximos de tamaño y de líneas por registro.
+ */
+class LectorRegistrosTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void campoEntreComillasConSaltosDeLineaYFinesCrLf() throws IOException {
+        LectorRegistros lector = lector(true, "nombre,nota\r\nAna,\"linea 1\r\nlinea 2\"\r\n\r\nLuis,ok\r\n", 1000, 10);
+
+        Registro primero = lector.siguiente();
+        assertEquals("linea 1\nlinea 2", primero.campos().get("nota").asText());
+        assertEquals("Luis", lector.siguiente().campos().get("nombre").asText());
+        assertNull(lector.siguiente());
+    }
+
+    @Test
+    void comillaSinCerrarSeRechazaAlLlegarAlMaximoDeLineas() throws IOException {
+        StringBuilder archivo = new StringBuilder("nombre,nota\nAna,\"sin cerrar\n");
+        for (int i = 0; i < 50; i++) {
+            archivo.append("Fila").append(i).append(",x\n");
+        }
+        LectorRegistros lector = lector(true, archivo.toString(), 100_000, 5);
+
+        Registro rechazado = lector.siguiente();
+        assertEquals(1, rechazado.getNumero());
+        assertEquals(5, rechazado.getTexto().split("\n").length);
+        BusinessException ex = assertThrows(BusinessException.class, rechazado::campos);
+        assertTrue(ex.getMessage().contains("5 líneas"));
+
+        // La lectura sigue en la línea siguiente al corte
+        Registro siguiente = lector.siguiente();
+        assertEquals(2, siguiente.getNumero());
+        assertEquals("Fila4", siguiente.campos().get("nombre").asText());
+    }
+
+    @Test
+    void lineaMasLargaQueElMaximoSeCortaYSeRechaza() throws IOException {
+        String larga = "{\"nombreCompleto\":\"" + "a".repeat(10_000) + "\"}";
+        LectorRegistros lector = lector(false, larga + "\n{\"nombreCompleto\":\"Ana\"}\n", 100, 10);
+
+        Registro rechazado = lector.siguiente();
+        assertEquals(100, rechazado.getTexto().length());
+        assertThrows(BusinessException.class, rechazado::campos);
+        assertEquals("Ana", lector.siguiente().campos().get("nombreCompleto").asText());
+    }
+
+    @Test
+    void comillaSinCerrarAlFinalDelArchivo() throws IOException {
+        LectorRegistros lector = lector(true, "nombre,nota\nAna,\"abierta\nsigue", 1000, 10);
+
+        assertThrows(BusinessException.class, lector.siguiente()::campos);
+        assertNull(lector.siguiente());
+    }
+
+    @Test
+    void saltarHastaCuentaLosRegistrosRechazadosComoUno() throws IOException {
+        String archivo = "nombre,nota\nAna,\"abierta\nb\nc\nLuis,ok\nEva,ok\n";
+        LectorRegistros lector = lector(true, archivo, 1000, 3);
+
+        assertEquals(1, lector.saltarHasta(1));
+        assertEquals("Luis", lector.siguiente().campos().get("nombre").asText());
+    }
+
+    private static LectorRegistros lector(boolean csv, String contenido, int tamanoMaximo, int lineasMaximas)
+            throws IOException {
+        return new LectorRegistros(new StringReader(contenido), OBJECT_MAPPER, csv, tamanoMaximo, lineasMaximas);
+    }
+}
@@ -0,0 +1,261 @@
+package com.prestabanco.app.service;
+
+import com.prestabanco.app.config.UsuarioProperties;
+import com.prestabanco.app.entity.Usuario;
+import com.prestabanco.app.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Las cachés de usuarios (por id, por nombre y por identificación) no conservan una
+ * versión anterior a una actualización, aunque la carga se cruce con ella. Un repositorio
+ * en memoria permite ejecutar la actualización en el punto exacto de la carga que se
+ * quiere probar.
+ */
+class UsuarioServiceTest {
+
+    private static final long ID = 1L;
+    private static final BigDecimal INGRESOS_ANTES = new BigDecimal("3000000");
+    private static final BigDecimal INGRESOS_DESPUES = new BigDecimal("400000");
+    private static final String NOMBRE = "Cliente";
+    private static final String TIPO = "RUT";
+    private static final String NUMERO = "111";
+
+    private final Map<Long, Usuario> filas = new ConcurrentHashMap<>();
+    // Se ejecuta una vez, en la próxima lectura por id, después de copiar la fila
+    private final AtomicReference<Runnable> alLeer = new AtomicReference<>();
+    // La próxima lectura entrega un usuario que ejecuta esto al pedirle el id
+    private final AtomicReference<Runnable> alPedirId = new AtomicReference<>();
+    // Se ejecuta una vez, en la próxima búsqueda de id por nombre o identificación
+    private final AtomicReference<Runnable> alBuscarId = new AtomicReference<>();
+
+    private UsuarioService usuarioService;
+
+    @BeforeEach
+    void preparar() {
+        filas.put(ID, usuario(ID, INGRESOS_ANTES));
+        usuarioService = new UsuarioService(repositorioEnMemoria(), new UsuarioProperties(),
+                new MetricasPrestamo(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void despuesDeActualizarSeLeenLosDatosNuevos() {
+        assertEquals(INGRESOS_ANTES, ingresosEnCache());
+        actualizarIngresos(INGRESOS_DESPUES);
+        assertEquals(INGRESOS_DESPUES, ingresosEnCache());
+    }
+
+    @Test
+    void actualizacionDuranteLaCargaNoQuedaEnCache() {
+        // La carga ya leyó la fila anterior cuando la actualización termina
+        alLeer.set(() -> actualizarIngresos(INGRESOS_DESPUES));
+        assertEquals(INGRESOS_ANTES, usuarioService.obtenerUsuarioPorId(ID).orElseThrow().getIngresosMensuales());
+        assertEquals(INGRESOS_DESPUES, ingresosEnCache());
+    }
+
+    @Test
+    void actualizacionEntreComprobarYGuardarNoQuedaEnCache() {
+        // La actualización completa, invalidación incluida, cae después de comparar el
+        // contador de escrituras y antes de guardar: la segunda comparación la detecta
+        alPedirId.set(() -> actualizarIngresos(INGRESOS_DESPUES));
+        usuarioService.obtenerUsuarioPorId(ID);
+        assertEquals(INGRESOS_DESPUES, ingresosEnCache());
+    }
+
+    @Test
+    void precargaCruzadaConUnaActualizacionNoQuedaEnCache() {
+        alPedirId.set(() -> actualizarIngresos(INGRESOS_DESPUES));
+        usuarioService.precargarUsuarios(List.of(ID));
+        assertEquals(INGRESOS_DESPUES, ingresosEnCache());
+    }
+
+    @Test
+    void lecturasConcurrentesConActualizacionesTerminanEnLaUltimaVersion() throws Exception {
+        int lectores = 4;
+        int actualizaciones = 2_000;
+        ExecutorService hilos = Executors.newFixedThreadPool(lectores);
+        AtomicBoolean escribiendo = new AtomicBoolean(true);
+        CountDownLatch listos = new CountDownLatch(lectores);
+        try {
+            List<Future<?>> lecturas = new ArrayList<>();
+            for (int i = 0; i < lectores; i++) {
+                lecturas.add(hilos.submit(() -> {
+                    listos.countDown();
+                    while (escribiendo.get()) {
+                        usuarioService.obtenerUsuarioPorId(ID);
+                    }
+                }));
+            }
+            assertTrue(listos.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i <= actualizaciones; i++) {
+                actualizarIngresos(BigDecimal.valueOf(i));
+            }
+            escribiendo.set(false);
+            for (Future<?> lectura : lecturas) {
+                lectura.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+        assertEquals(BigDecimal.valueOf(actualizaciones), ingresosEnCache());
+    }
+
+    @Test
+    void identificacionCambiadaDuranteLaBusquedaNoQuedaEnCache() {
+        // La búsqueda ya encontró el id por la identificación anterior cuando el usuario la cambia
+        alBuscarId.set(() -> actualizar(NOMBRE, "222", INGRESOS_ANTES));
+        assertTrue(usuarioService.obtenerUsuarioPorIdentificacion(TIPO, NUMERO).isEmpty());
+        assertTrue(usuarioService.obtenerUsuarioPorIdentificacion(TIPO, NUMERO).isEmpty());
+        assertEquals(ID, usuarioService.obtenerUsuarioPorIdentificacion(TIPO, "222").orElseThrow().getIdUsuario());
+    }
+
+    @Test
+    void identificacionCambiadaDespuesDeCachearNoDevuelveAlUsuario() {
+        assertEquals(ID, usuarioService.obtenerUsuarioPorIdentificacion(TIPO, NUMERO).orElseThrow().getIdUsuario());
+        actualizar(NOMBRE, "222", INGRESOS_ANTES);
+        assertTrue(usuarioService.obtenerUsuarioPorIdentificacion(TIPO, NUMERO).isEmpty());
+    }
+
+    @Test
+    void nombreCambiadoDuranteLaBusquedaNoQuedaEnCache() {
+        alBuscarId.set(() -> actualizar("Otro nombre", NUMERO, INGRESOS_ANTES));
+        assertTrue(usuarioService.obtenerUsuarioPorNombreCompleto(NOMBRE).isEmpty());
+        assertTrue(usuarioService.obtenerUsuarioPorNombreCompleto(NOMBRE).isEmpty());
+        assertEquals(ID, usuarioService.obtenerUsuarioPorNombreCompleto("Otro nombre").orElseThrow().getIdUsuario());
+    }
+
+    // Lee dos veces: la segunda viene de la caché si la primera la llenó
+    private BigDecimal ingresosEnCache() {
+        usuarioService.obtenerUsuarioPorId(ID);
+        return usuarioService.obtenerUsuarioPorId(ID).orElseThrow().getIngresosMensuales();
+    }
+
+    private void actualizarIngresos(BigDecimal ingresos) {
+        actualizar(NOMBRE, NUMERO, ingresos);
+    }
+
+    private void actualizar(String nombre, String numero, BigDecimal ingresos) {
+        Usuario datos = usuario(null, ingresos);
+        datos.setNombreCompleto(nombre);
+        datos.setNumeroIdentificacion(numero);
+        usuarioService.actualizarUsuario(ID, datos);
+    }
+
+    private UsuarioRepository repositorioEnMemoria() {
+        return (UsuarioRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UsuarioRepository.class}, (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "findById" -> Optional.ofNullable(leer((Long) args[0]));
+                    case "findAllById" -> {
+                        List<Usuario> encontrados = new ArrayList<>();
+                        for (Object id : (Iterable<?>) args[0]) {
+                            Usuario usuario = leer((Long) id);
+                            if (usuario != null) encontrados.add(usuario);
+                        }
+                        yield encontrados;
+                    }
+                    case "save" -> {
+                        Usuario guardado = copiar((Usuario) args[0]);
+                        guardado.setVersion(guardado.getVersion() == null ? 0 : guardado.getVersion() + 1);
+                        filas.put(guardado.getIdUsuario(), guardado);
+                        yield copiar(guardado);
+                    }
+                    case "findIdByIdentificacion" -> Optional.ofNullable(buscarId(usuario ->
+                            args[0].equals(usuario.getTipoIdentificacion())
+                                    && args[1].equals(usuario.getNumeroIdentificacion())));
+                    case "findIdByNombreCompleto" -> buscarId(usuario -> args[0].equals(usuario.getNombreCompleto()));
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "UsuarioRepository en memoria";
+                    default -> throw new UnsupportedOperationException(metodo.getName());
+                });
+    }
+
+    // Menor id que cumple la condición, como las consultas del repositorio
+    private Long buscarId(Predicate<Usuario> condicion) {
+        Long id = filas.values().stream().filter(condicion).map(Usuario::getIdUsuario).min(Long::compare).orElse(null);
+        Runnable despuesDeBuscar = alBuscarId.getAndSet(null);
+        if (despuesDeBuscar != null) {
+            despuesDeBuscar.run();
+        }
+        return id;
+    }
+
+    private Usuario leer(Long id) {
+        Usuario fila = filas.get(id);
+        if (fila == null) {
+            return null;
+        }
+        Runnable antesDeGuardar = alPedirId.getAndSet(null);
+        Usuario leido = antesDeGuardar == null ? copiar(fila) : new UsuarioLeido(fila, antesDeGuardar);
+        Runnable despuesDeLeer = alLeer.getAndSet(null);
+        if (despuesDeLeer != null) {
+            despuesDeLeer.run();
+        }
+        return leido;
+    }
+
+    private static Usuario usuario(Long id, BigDecimal ingresos) {
+        Usuario usuario = new Usuario();
+        usuario.setIdUsuario(id);
+        usuario.setNombreCompleto(NOMBRE);
+        usuario.setTipoIdentificacion(TIPO);
+        usuario.setNumeroIdentificacion(NUMERO);
+        usuario.setIngresosMensuales(ingresos);
+        return usuario;
+    }
+
+    private static Usuario copiar(Usuario fila) {
+        Usuario copia = usuario(fila.getIdUsuario(), fila.getIngresosMensuales());
+        copia.setNombreCompleto(fila.getNombreCompleto());
+        copia.setNumeroIdentificacion(fila.getNumeroIdentificacion());
+        copia.setVersion(fila.getVersion());
+        return copia;
+    }
+
+    /**
+     * Usuario leído que ejecuta una acción la primera vez que se le pide el id, que el
+     * servicio hace recién al guardarlo en la caché.
+     */
+    private static final class UsuarioLeido extends Usuario {
+        private final AtomicReference<Runnable> accion;
+
+        private UsuarioLeido(Usuario fila, Runnable accion) {
+            this.accion = new AtomicReference<>(accion);
+            setIdUsuario(fila.getIdUsuario());
+            setNombreCompleto(fila.getNombreCompleto());
+            setTipoIdentificacion(fila.getTipoIdentificacion());
+            setNumeroIdentificacion(fila.getNumeroIdentificacion());
+            setIngresosMensuales(fila.getIngresosMensuales());
+            setVersion(fila.getVersion());
+        }
+
+        @Override
+        public Long getIdUsuario() {
+            Runnable pendiente = accion.getAndSet(null);
+            if (pendiente != null) {
+                pendiente.run();
+            }
+            return super.getIdUsuario();
+        }
+    }
+}